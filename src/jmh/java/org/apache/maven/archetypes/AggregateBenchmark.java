@@ -0,0 +1,64 @@
+package org.apache.maven.archetypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouped reservation aggregates over two years of start dates, walked sequentially and in parallel.
+ * Compare the two across -Djava.util.concurrent.ForkJoinPool.common.parallelism values (passed with
+ * -jvmArgs) to see how the parallel walk scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregateBenchmark {
+    private static final int ACCOUNTS = 100_000;
+    private static final int RESERVATIONS_PER_ACCOUNT = 10;
+    // BenchmarkData start dates are one day apart from 2100-01-01
+    private static final LocalDate FROM = LocalDate.parse("2100-01-01");
+    private static final LocalDate TO = FROM.plusYears(2);
+
+    private final List<Account> accounts = new ArrayList<>(ACCOUNTS);
+
+    @Setup
+    public void prepare() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = BenchmarkData.accountNumber(i);
+            Account account = new Account(accountNumber, i + " Main St", i + "@example.com", "555-0100");
+            for (int j = 0; j < RESERVATIONS_PER_ACCOUNT; j++) {
+                int index = i * RESERVATIONS_PER_ACCOUNT + j;
+                Reservation reservation = BenchmarkData.reservation(index % 3, accountNumber, index % 730);
+                reservation.calculatePrice();
+                reservation.setStatus(ReservationStatus.values()[index % 3]);
+                account.addReservation(reservation);
+            }
+            accounts.add(account);
+        }
+    }
+
+    @Benchmark
+    public ReservationAggregates sequential() {
+        return ReservationAggregates.of(accounts, FROM, TO, false);
+    }
+
+    @Benchmark
+    public ReservationAggregates parallel() {
+        return ReservationAggregates.of(accounts, FROM, TO, true);
+    }
+}
@@ -0,0 +1,72 @@
+package org.apache.maven.archetypes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * Fixed sample data shared by the benchmarks: one reservation of each type and a generated
+ * "Acc-accountNumber" folder tree in the same layout as data/accounts.
+ */
+final class BenchmarkData {
+    // 2100-01-01, so generated reservations are all still in the future
+    private static final long START = 4102444800000L;
+
+    private BenchmarkData() {
+    }
+
+    static String accountNumber(int index) {
+        return String.format("%08d", index);
+    }
+
+    static String reservationNumber(int index) {
+        return String.format("%010d", index);
+    }
+
+    // Reservation of the given type (0 hotel, 1 cabin, 2 house) with fields varied by its index
+    static Reservation reservation(int type, String accountNumber, int index) {
+        Date startDate = new Date(START + index * 86_400_000L);
+        String number = reservationNumber(index);
+        String address = index + " Lake Rd";
+        int size = 600 + index % 800;
+        switch (type) {
+            case 0:
+                return new HotelReservation(accountNumber, number, address, "", startDate, 1 + index % 7, 2, 1, 1,
+                        size, index % 2 == 0);
+            case 1:
+                return new CabinReservation(accountNumber, number, address, "PO Box " + index, startDate, 1 + index % 7,
+                        3, 2, 1 + index % 3, size, index % 2 == 0);
+            default:
+                return new HouseReservation(accountNumber, number, address, "", startDate, 1 + index % 7, 6, 4,
+                        2 + index % 2, size + 1000, 1 + index % 3);
+        }
+    }
+
+    // Write accounts with reservationsPerAccount reservations each, cycling through the three types
+    static Path writeAccountTree(int accounts, int reservationsPerAccount) throws IOException {
+        Path directory = Files.createTempDirectory("reservations-benchmark");
+        int reservationIndex = 0;
+        for (int i = 0; i < accounts; i++) {
+            String accountNumber = accountNumber(i);
+            Path folder = Files.createDirectories(directory.resolve("Acc-" + accountNumber));
+            Account account = new Account(accountNumber, i + " Main St", "user" + i + "@example.com", "555-" + (1000 + i % 9000));
+            Files.writeString(folder.resolve("acc-" + accountNumber + ".txt"), account.toString());
+            for (int j = 0; j < reservationsPerAccount; j++, reservationIndex++) {
+                Reservation reservation = reservation(reservationIndex % 3, accountNumber, reservationIndex);
+                Files.writeString(folder.resolve("res-" + reservation.getReservationNumber() + ".txt"), reservation.toString());
+            }
+        }
+        return directory;
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
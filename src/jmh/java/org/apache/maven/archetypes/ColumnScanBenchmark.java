@@ -0,0 +1,59 @@
+package org.apache.maven.archetypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revenue of the completed reservations, summed over Reservation objects and over ReservationColumns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnScanBenchmark {
+    private static final int RESERVATIONS = 1_000_000;
+
+    private final List<Reservation> reservations = new ArrayList<>(RESERVATIONS);
+    private ReservationColumns columns;
+
+    @Setup
+    public void prepare() {
+        for (int i = 0; i < RESERVATIONS; i++) {
+            Reservation reservation = BenchmarkData.reservation(i % 3, BenchmarkData.accountNumber(i / 10), i);
+            reservation.calculatePrice();
+            reservation.setStatus(ReservationStatus.values()[i % 3]);
+            reservations.add(reservation);
+        }
+        columns = ReservationColumns.of(reservations);
+    }
+
+    @Benchmark
+    public double objects() {
+        double total = 0.0;
+        for (Reservation reservation : reservations) {
+            if (reservation.getStatus() == ReservationStatus.COMPLETED) {
+                total += reservation.getPrice() * reservation.getNumberOfNights();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double columns() {
+        return columns.totalRevenue(ReservationStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,65 @@
+package org.apache.maven.archetypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text form written to the data files: toString encoding and DataFileParser decoding,
+ * per reservation type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataFileBenchmark {
+    @Param({"hotel", "cabin", "house"})
+    public String type;
+
+    private Account account;
+    private String accountText;
+    private Reservation reservation;
+    private String reservationText;
+
+    @Setup
+    public void prepare() {
+        account = new Account("00000001", "1 Main St", "user1@example.com", "555-1001");
+        accountText = account.toString();
+        int typeIndex = type.equals("hotel") ? 0 : type.equals("cabin") ? 1 : 2;
+        reservation = BenchmarkData.reservation(typeIndex, "00000001", 17);
+        reservation.calculatePrice();
+        reservationText = reservation.toString();
+    }
+
+    @Benchmark
+    public Reservation parseReservation() {
+        return DataFileParser.parseReservation(reservationText);
+    }
+
+    @Benchmark
+    public String encodeReservation() {
+        return reservation.toString();
+    }
+
+    @Benchmark
+    public Account parseAccount() {
+        return DataFileParser.parseAccount(accountText);
+    }
+
+    @Benchmark
+    public String encodeAccount() {
+        return account.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package org.apache.maven.archetypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAccount and getReservation by number, for numbers that exist and numbers that do not, with String
+ * keyed and long keyed (primitiveIds) indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    private static final int KEYS = 1024;
+
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"4"})
+    public int reservationsPerAccount;
+
+    @Param({"false", "true"})
+    public boolean primitiveIds;
+
+    private Manager manager;
+    private final String[] accountNumbers = new String[KEYS];
+    private final String[] reservationNumbers = new String[KEYS];
+    private final String[] missingNumbers = new String[KEYS];
+    private int next;
+
+    @Setup
+    public void load() throws IOException {
+        Path accountsDirectory = BenchmarkData.writeAccountTree(accounts, reservationsPerAccount);
+        try {
+            manager = new Manager(accountsDirectory, 1, false, primitiveIds);
+        } finally {
+            BenchmarkData.delete(accountsDirectory);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < KEYS; i++) {
+            accountNumbers[i] = BenchmarkData.accountNumber(random.nextInt(accounts));
+            reservationNumbers[i] = BenchmarkData.reservationNumber(random.nextInt(accounts * reservationsPerAccount));
+            missingNumbers[i] = BenchmarkData.reservationNumber(accounts * reservationsPerAccount + random.nextInt(1_000_000));
+        }
+    }
+
+    @TearDown
+    public void clear() {
+        manager = null;
+    }
+
+    private int nextKey() {
+        next = (next + 1) & (KEYS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Account getAccount() {
+        return manager.getAccount(accountNumbers[nextKey()]);
+    }
+
+    @Benchmark
+    public Reservation getReservation() {
+        return manager.getReservation(reservationNumbers[nextKey()]);
+    }
+
+    @Benchmark
+    public Reservation getMissingReservation() {
+        return manager.getReservation(missingNumbers[nextKey()]);
+    }
+}
@@ -0,0 +1,60 @@
+package org.apache.maven.archetypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manager construction over a generated account tree, eager (sequential and parallel) and lazy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManagerLoadBenchmark {
+    @Param({"1000"})
+    public int accounts;
+
+    @Param({"4"})
+    public int reservationsPerAccount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path accountsDirectory;
+
+    @Setup
+    public void writeTree() throws IOException {
+        accountsDirectory = BenchmarkData.writeAccountTree(accounts, reservationsPerAccount);
+    }
+
+    @TearDown
+    public void deleteTree() throws IOException {
+        BenchmarkData.delete(accountsDirectory);
+    }
+
+    @Benchmark
+    public Manager load() {
+        return new Manager(accountsDirectory, parallelism);
+    }
+
+    @Benchmark
+    public Manager loadLazily() {
+        return new Manager(accountsDirectory, parallelism, true);
+    }
+}
@@ -0,0 +1,79 @@
+package org.apache.maven.archetypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * calculatePrice for each Reservation subclass, and PricingEngine over a batch of primitive columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+    private static final int BATCH = 100_000;
+
+    private Reservation hotel;
+    private Reservation cabin;
+    private Reservation house;
+
+    private final PricingEngine engine = PricingEngine.builtIn();
+    private final byte[] types = new byte[BATCH];
+    private final int[] lodgingSizes = new int[BATCH];
+    private final boolean[] amenities = new boolean[BATCH];
+    private final int[] bathrooms = new int[BATCH];
+    private final int[] floors = new int[BATCH];
+    private final double[] prices = new double[BATCH];
+
+    @Setup
+    public void prepare() {
+        hotel = BenchmarkData.reservation(0, "00000001", 1);
+        cabin = BenchmarkData.reservation(1, "00000001", 2);
+        house = BenchmarkData.reservation(2, "00000001", 3);
+        for (int i = 0; i < BATCH; i++) {
+            Reservation reservation = BenchmarkData.reservation(i % 3, "00000001", i);
+            types[i] = PricingEngine.typeOf(reservation);
+            lodgingSizes[i] = reservation.getLodgingSize();
+            amenities[i] = i % 2 == 0;
+            bathrooms[i] = reservation.getNumberOfBathrooms();
+            floors[i] = i % 3 == 2 ? 1 + i % 3 : 0;
+        }
+    }
+
+    @Benchmark
+    public double hotel() {
+        hotel.calculatePrice();
+        return hotel.getPrice();
+    }
+
+    @Benchmark
+    public double cabin() {
+        cabin.calculatePrice();
+        return cabin.getPrice();
+    }
+
+    @Benchmark
+    public double house() {
+        house.calculatePrice();
+        return house.getPrice();
+    }
+
+    // One operation prices the whole batch of BATCH entries
+    @Benchmark
+    public double[] batch() {
+        engine.price(types, lodgingSizes, amenities, bathrooms, floors, prices);
+        return prices;
+    }
+}
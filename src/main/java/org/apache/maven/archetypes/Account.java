@@ -1,22 +1,54 @@
 package org.apache.maven.archetypes;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 
 public class Account {
     private final String accountNumber;
-    private String mailingAddress;
+    private volatile String mailingAddress;
+    // Copy-on-write so readers can walk the list while the manager adds or replaces reservations
     private final List<Reservation> reservations;
-    private String emailAddress;
-    private String phoneNumber;
+    private volatile String emailAddress;
+    private volatile String phoneNumber;
+    // Reads the account's details and reservations on first use; null once the account is loaded
+    private volatile Function<Account, Account> loader;
 
     public Account(String accountNumber, String mailingAddress, String emailAddress, String phoneNumber) {
         this.accountNumber = accountNumber;
         this.mailingAddress = mailingAddress;
         this.emailAddress = emailAddress;
         this.phoneNumber = phoneNumber;
-        this.reservations = new ArrayList<>();
+        this.reservations = new CopyOnWriteArrayList<>();
+    }
+
+    // Account known only by its number; the loader returns the full account the first time any detail is needed
+    Account(String accountNumber, Function<Account, Account> loader) {
+        this(accountNumber, null, null, null);
+        this.loader = loader;
+    }
+
+    // Whether the details and reservations are in memory
+    public boolean isLoaded() {
+        return loader == null;
+    }
+
+    // Load the details and reservations once; concurrent callers wait for the first one instead of loading again
+    private void ensureLoaded() {
+        if (loader != null) {
+            synchronized (this) {
+                Function<Account, Account> pending = loader;
+                if (pending != null) {
+                    Account loaded = pending.apply(this);
+                    mailingAddress = loaded.mailingAddress;
+                    emailAddress = loaded.emailAddress;
+                    phoneNumber = loaded.phoneNumber;
+                    reservations.addAll(loaded.reservations);
+                    loader = null;
+                }
+            }
+        }
     }
 
     public String getAccountNumber() {
@@ -24,34 +56,43 @@ public class Account {
     }
 
     public String getMailingAddress() {
+        ensureLoaded();
         return mailingAddress;
     }
 
     public void setMailingAddress(String mailingAddress) {
+        ensureLoaded();
         this.mailingAddress = mailingAddress;
     }
 
     public List<Reservation> getReservations() {
+        ensureLoaded();
         return reservations;
     }
 
     public String getEmailAddress() {
+        ensureLoaded();
         return emailAddress;
     }
 
     public void setEmailAddress(String emailAddress) {
+        ensureLoaded();
         this.emailAddress = emailAddress;
     }
 
     public String getPhoneNumber() {
+        ensureLoaded();
         return phoneNumber;
     }
 
     public void setPhoneNumber(String phoneNumber) {
+        ensureLoaded();
         this.phoneNumber = phoneNumber;
     }
 
+    // Adds to this account's list only; use Manager.addReservation so the manager's indexes stay in sync
     public void addReservation(Reservation reservation) {
+        ensureLoaded();
         reservations.add(reservation);
     }
 
@@ -59,6 +100,7 @@ public class Account {
     public String toString() {
         // Implement the string representation of the Account object
         // Format the data to be written to the file
+        ensureLoaded();
         return "Account: " + accountNumber +
                 "\nMailing Address: " + mailingAddress +
                 "\nEmail Address: " + emailAddress +
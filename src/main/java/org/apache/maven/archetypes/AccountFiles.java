@@ -0,0 +1,78 @@
+package org.apache.maven.archetypes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Locations and durable writes of the per-account base files:
+ * "Acc-accountNumber/acc-accountNumber.txt" and "Acc-accountNumber/res-reservationNumber.txt".
+ */
+final class AccountFiles {
+    private AccountFiles() {
+    }
+
+    // Folder holding an account's files
+    static Path accountFolder(Path accountsDirectory, String accountNumber) {
+        return accountsDirectory.resolve("Acc-" + accountNumber);
+    }
+
+    // Path of the account file
+    static Path accountFile(Path accountsDirectory, String accountNumber) {
+        return accountFolder(accountsDirectory, accountNumber).resolve("acc-" + accountNumber + ".txt");
+    }
+
+    // Path of a reservation file inside the owning account's folder
+    static Path reservationFile(Path accountsDirectory, String accountNumber, String reservationNumber) {
+        return accountFolder(accountsDirectory, accountNumber).resolve("res-" + reservationNumber + ".txt");
+    }
+
+    // Replace a file's content and sync it to disk, creating the account folder if needed. The content goes to a
+    // ".tmp" file that is renamed over the old one, so a crash leaves either the old or the new file, never a mix;
+    // the loader and the watcher ignore ".tmp" files. Returns the number of bytes written.
+    static int writeDurably(Path file, String content) throws IOException {
+        Path folder = Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        byte[] bytes;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            bytes = content.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(folder);
+        return bytes.length;
+    }
+
+    // Length of the text in UTF-8, as it is in the file it was read from, without encoding it again
+    static long utf8Length(String text) {
+        long length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Two bytes up to U+07FF, three above; a surrogate pair is four bytes, two per char
+                length += c < 0x800 || Character.isSurrogate(c) ? 1 : 2;
+            }
+        }
+        return length;
+    }
+
+    // Sync a directory so a rename in it survives a crash; not every platform can open a directory, so this is
+    // best effort
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.apache.maven.archetypes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches an accounts directory and every Acc-* folder in it, and hands the paths that were created,
+ * modified or deleted to a listener in batches.
+ *
+ * A batch starts with the first event and takes in further events until none has arrived for the
+ * debounce interval, or for at most twenty intervals in all, so a tool rewriting many files produces a
+ * few batches rather than one reload per file, and a steady stream of writes is still picked up. A path
+ * changed several times in a batch appears once. A new Acc-* folder is watched from the moment its
+ * creation is seen and is itself passed to the listener, which must read the files written before that.
+ * When the OS drops events (an overflow) the directory they were for is passed instead of its files.
+ */
+final class AccountTreeWatcher implements Closeable {
+    private static final int MAX_INTERVALS_PER_BATCH = 20;
+
+    private final Path accountsDirectory;
+    private final long debounceMillis;
+    private final Consumer<Set<Path>> listener;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    AccountTreeWatcher(Path accountsDirectory, long debounceMillis, Consumer<Set<Path>> listener) throws IOException {
+        if (debounceMillis < 1) {
+            throw new IllegalArgumentException("Debounce interval must be at least 1 ms: " + debounceMillis);
+        }
+        this.accountsDirectory = accountsDirectory;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.watchService = accountsDirectory.getFileSystem().newWatchService();
+        try {
+            register(accountsDirectory);
+            try (DirectoryStream<Path> folders = Files.newDirectoryStream(accountsDirectory, "Acc-*")) {
+                for (Path folder : folders) {
+                    if (Files.isDirectory(folder)) {
+                        register(folder);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        thread = new Thread(this::run, "account-tree-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void register(Path directory) throws IOException {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis * MAX_INTERVALS_PER_BATCH);
+                while (key != null) {
+                    collect(key, changed);
+                    key = System.nanoTime() < deadline ? watchService.poll(debounceMillis, TimeUnit.MILLISECONDS) : null;
+                }
+                if (!changed.isEmpty()) {
+                    try {
+                        listener.accept(changed);
+                    } catch (RuntimeException e) {
+                        System.out.println("Failed to reload changed files: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(directory);
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (directory.equals(accountsDirectory) && event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && path.getFileName().toString().startsWith("Acc-") && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    System.out.println("Failed to watch " + path + ": " + e.getMessage());
+                }
+            }
+            changed.add(path);
+        }
+        key.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.apache.maven.archetypes;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/JSON front end for a Manager, so many clients can work on accounts and reservations at once.
+ *
+ * <pre>
+ * POST /accounts                                             create an account
+ * GET  /accounts/{account}                                   account with its reservation numbers
+ * POST /accounts/{account}/reservations                      create a reservation
+ * PUT  /accounts/{account}/reservations/{reservation}        replace a draft reservation
+ * POST /accounts/{account}/reservations/{reservation}/complete
+ * POST /accounts/{account}/reservations/{reservation}/cancel
+ * GET  /reservations/{reservation}                           reservation
+ * GET  /reservations/{reservation}/price                     nightly and total price
+ * </pre>
+ * Reservation bodies carry the Reservation fields by name, with type "hotel", "cabin" or "house",
+ * startDate as YYYY-MM-DD and kitchenette, fullKitchen or numberOfFloors for the type. Account and
+ * reservation numbers are generated by the server. Errors are {"error": message} with 400 for a bad
+ * request, 404 for an unknown account or reservation and 409 when the manager refuses the change (a
+ * double booking, a reservation that is no longer a draft).
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java 21 and later) and on a fixed
+ * pool of platform threads otherwise; the Manager is safe for concurrent use either way.
+ *
+ * Usage: ApiServer [port], serving data/accounts; -Dapi.threads sizes the fallback pool. HttpServer
+ * writes the headers and the body of a response separately, so without TCP_NODELAY the body waits for
+ * the client's delayed ACK, adding about 40 ms to every request; main turns it on unless
+ * -Dsun.net.httpserver.nodelay says otherwise, and an embedding application should pass that flag.
+ */
+public final class ApiServer {
+    // Connections the OS queues while every handler is busy
+    private static final int BACKLOG = 4096;
+    private static final Gson gson = new Gson();
+
+    private final Manager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // Server for the manager on a loopback port; port 0 picks a free one
+    public ApiServer(Manager manager, int port) throws IOException {
+        this(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                Integer.getInteger("api.threads", 256));
+    }
+
+    public ApiServer(Manager manager, InetSocketAddress address, int fallbackThreads) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = newRequestExecutor(fallbackThreads);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // One virtual thread per task on Java 21 and later, found by reflection so the code still builds for
+    // Java 17; a fixed pool of platform threads otherwise
+    static ExecutorService newRequestExecutor(int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Stop accepting requests, give running ones up to the delay to finish, then stop the handler threads
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds + 1L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private static final class Response {
+        private final int status;
+        private final Object body;
+
+        private Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static Response error(int status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return new Response(status, body);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = route(exchange);
+            } catch (JsonParseException e) {
+                response = error(400, "Malformed request body: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                response = error(400, e.getMessage());
+            } catch (DuplicateObjectException e) {
+                response = error(409, "Duplicate account or reservation number.");
+            } catch (IllegalOperationException e) {
+                response = error(409, e.getMessage());
+            } catch (UncheckedIOException e) {
+                response = error(500, "Failed to save: " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.out.println(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+                response = error(500, "Internal error: " + e.getMessage());
+            }
+            byte[] body = gson.toJson(response.body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        // "/accounts/1/reservations" splits into "", "accounts", "1", "reservations"
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        if (path.length >= 2 && path[1].equals("accounts")) {
+            if (path.length == 2) {
+                return method.equals("POST") ? createAccount(readBody(exchange)) : notAllowed(method);
+            }
+            Account account = manager.getAccount(path[2]);
+            if (account == null) {
+                return error(404, "Account " + path[2] + " not found.");
+            }
+            if (path.length == 3) {
+                return method.equals("GET") ? new Response(200, JsonRecords.toJson(account)) : notAllowed(method);
+            }
+            if (!path[3].equals("reservations")) {
+                return error(404, "No such resource.");
+            }
+            if (path.length == 4) {
+                return method.equals("POST") ? createReservation(account, readBody(exchange)) : notAllowed(method);
+            }
+            if (manager.getReservationOwner(path[4]) != account) {
+                return error(404, "Reservation " + path[4] + " not found in account " + path[2] + ".");
+            }
+            if (path.length == 5) {
+                return method.equals("PUT") ? updateReservation(account, path[4], readBody(exchange)) : notAllowed(method);
+            }
+            if (path.length == 6 && method.equals("POST") && path[5].equals("complete")) {
+                manager.completeReservation(account.getAccountNumber(), path[4]);
+                return new Response(200, JsonRecords.toJson(manager.getReservation(path[4])));
+            }
+            if (path.length == 6 && method.equals("POST") && path[5].equals("cancel")) {
+                manager.cancelReservation(account.getAccountNumber(), path[4]);
+                return new Response(200, JsonRecords.toJson(manager.getReservation(path[4])));
+            }
+        } else if (path.length >= 3 && path[1].equals("reservations")) {
+            Reservation reservation = manager.getReservation(path[2]);
+            if (reservation == null) {
+                return error(404, "Reservation " + path[2] + " not found.");
+            }
+            if (!method.equals("GET")) {
+                return notAllowed(method);
+            }
+            if (path.length == 3) {
+                return new Response(200, JsonRecords.toJson(reservation));
+            }
+            if (path.length == 4 && path[3].equals("price")) {
+                Map<String, Object> price = new LinkedHashMap<>();
+                price.put("reservationNumber", path[2]);
+                price.put("pricePerNight", manager.calculatePricePerNight(path[2]));
+                price.put("totalPrice", manager.calculateTotalPrice(path[2]));
+                return new Response(200, price);
+            }
+        }
+        return error(404, "No such resource.");
+    }
+
+    private static Response notAllowed(String method) {
+        return error(405, "Method " + method + " is not allowed here.");
+    }
+
+    private static JsonObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonElement body = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            if (!body.isJsonObject()) {
+                throw new IllegalArgumentException("Request body must be a JSON object.");
+            }
+            return body.getAsJsonObject();
+        }
+    }
+
+    private Response createAccount(JsonObject body) {
+        String mailingAddress = JsonRecords.requiredString(body, "mailingAddress");
+        String emailAddress = JsonRecords.requiredString(body, "emailAddress");
+        String phoneNumber = JsonRecords.requiredString(body, "phoneNumber");
+        Account account = new Account(manager.newAccountNumber(), mailingAddress, emailAddress, phoneNumber);
+        manager.addAccount(account);
+        return new Response(201, JsonRecords.toJson(account));
+    }
+
+    private Response createReservation(Account account, JsonObject body) {
+        String reservationNumber = manager.newReservationNumber();
+        Reservation reservation = JsonRecords.toReservation(account.getAccountNumber(), reservationNumber, body);
+        manager.addReservation(account.getAccountNumber(), reservation);
+        return new Response(201, JsonRecords.toJson(reservation));
+    }
+
+    private Response updateReservation(Account account, String reservationNumber, JsonObject body) {
+        Reservation updated = JsonRecords.toReservation(account.getAccountNumber(), reservationNumber, body);
+        try {
+            manager.updateReservation(account.getAccountNumber(), updated);
+        } catch (IllegalOperationException e) {
+            // The manager decides under the account's lock; a reservation that left the account since routing
+            // is missing, anything else is a refused change
+            if (manager.getReservationOwner(reservationNumber) != account) {
+                return error(404, e.getMessage());
+            }
+            throw e;
+        }
+        return new Response(200, JsonRecords.toJson(updated));
+    }
+
+    // Turn on TCP_NODELAY for the servers created from now on, unless the launch command chose otherwise
+    static void useTcpNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        useTcpNoDelay();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Manager manager = new Manager(Path.of("data/accounts"),
+                Integer.getInteger("loader.parallelism", Runtime.getRuntime().availableProcessors()),
+                Boolean.getBoolean("loader.lazy"), Boolean.getBoolean("ids.primitive"));
+        manager.startJournal(Long.getLong("journal.flushIntervalMillis", 2),
+                Integer.getInteger("journal.batchSize", 64),
+                Long.getLong("journal.checkpointIntervalMillis", 60000));
+        if (Boolean.getBoolean("loader.watch")) {
+            manager.startWatching(Long.getLong("watch.debounceMillis", 50));
+        }
+        // Operation metrics are MBeans under org.apache.maven.archetypes:type=Manager and are printed every
+        // -Dmetrics.dumpIntervalMillis (0 turns the dump off)
+        manager.getMetrics().registerMBeans("Manager");
+        long dumpIntervalMillis = Long.getLong("metrics.dumpIntervalMillis", 60000);
+        if (dumpIntervalMillis > 0) {
+            manager.getMetrics().startDump(dumpIntervalMillis, System.out::print);
+        }
+        ApiServer server = new ApiServer(manager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            try {
+                manager.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close the manager: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("Serving on http://localhost:" + server.getPort() + "/");
+    }
+}
@@ -0,0 +1,206 @@
+package org.apache.maven.archetypes;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bookings of each lodging, by physical address, sorted by start time.
+ *
+ * A booking covers [start date, start date + number of nights). Each lodging keeps its bookings in a
+ * map keyed by start time. Booked stays never overlap, so of the bookings starting before a range only
+ * the last can still be running: the overlap check is one lowerEntry plus the starts inside the range,
+ * O(log n) plus the number of matches. Data loaded from files may already overlap; a lodging holding
+ * such bookings falls back to scanning the starts between (range start - longest stay) and range end.
+ * Each lodging is locked on its own, so the overlap check and the insert are atomic even when two
+ * accounts book the same address at once.
+ *
+ * Cancelled and expired reservations are not indexed; reservations without a physical address are ignored.
+ */
+final class BookingIndex {
+    private static final long MILLIS_PER_NIGHT = TimeUnit.DAYS.toMillis(1);
+
+    private static final class Booking {
+        private final Reservation reservation;
+        private final String address;
+        private final long start;
+        private final long end;
+
+        private Booking(Reservation reservation) {
+            this.reservation = reservation;
+            this.address = reservation.getLodgingPhysicalAddress();
+            this.start = reservation.getStartDate().getTime();
+            this.end = start + reservation.getNumberOfNights() * MILLIS_PER_NIGHT;
+        }
+    }
+
+    private static final class Lodging {
+        // Several bookings can share a start time only when they were loaded from files that already overlapped
+        private final NavigableMap<Long, List<Booking>> bookingsByStart = new TreeMap<>();
+        private long longestStay;
+        // Set once bookings added without the check overlap; stays set even if they are removed later
+        private boolean overlaps;
+    }
+
+    private final Map<String, Lodging> lodgings = new ConcurrentHashMap<>();
+    // Where each reservation is currently indexed, so it can be found again after its address changes
+    private final Map<String, Booking> bookingsByReservation = new ConcurrentHashMap<>();
+
+    // Index a reservation, replacing any earlier booking with the same reservation number; throws
+    // IllegalOperationException, leaving the index unchanged, if it overlaps another booking of the lodging
+    void book(Reservation reservation) {
+        if (!isIndexed(reservation)) {
+            remove(reservation.getReservationNumber());
+            return;
+        }
+        Booking booking = new Booking(reservation);
+        Lodging lodging = lodgings.computeIfAbsent(booking.address, address -> new Lodging());
+        Booking previous;
+        synchronized (lodging) {
+            Booking other = clash(lodging, booking);
+            if (other != null) {
+                throw new IllegalOperationException("Reservation " + reservation.getReservationNumber()
+                        + " overlaps reservation " + other.reservation.getReservationNumber() + " at "
+                        + booking.address + ".");
+            }
+            previous = replace(lodging, booking);
+        }
+        unlinkElsewhere(lodging, previous);
+    }
+
+    // Index a reservation without the overlap check; used for data that was already accepted earlier
+    void add(Reservation reservation) {
+        if (!isIndexed(reservation)) {
+            remove(reservation.getReservationNumber());
+            return;
+        }
+        Booking booking = new Booking(reservation);
+        Lodging lodging = lodgings.computeIfAbsent(booking.address, address -> new Lodging());
+        Booking previous;
+        synchronized (lodging) {
+            if (!lodging.overlaps && clash(lodging, booking) != null) {
+                lodging.overlaps = true;
+            }
+            previous = replace(lodging, booking);
+        }
+        unlinkElsewhere(lodging, previous);
+    }
+
+    // Drop a reservation's booking, if it has one
+    void remove(String reservationNumber) {
+        Booking booking = bookingsByReservation.get(reservationNumber);
+        if (booking == null) {
+            return;
+        }
+        Lodging lodging = lodgings.get(booking.address);
+        synchronized (lodging) {
+            if (bookingsByReservation.remove(reservationNumber, booking)) {
+                unlink(lodging, booking);
+            }
+        }
+    }
+
+    // Reservations at an address whose stay overlaps [from, to), ordered by start date
+    List<Reservation> overlapping(String address, Date from, Date to) {
+        List<Reservation> reservations = new ArrayList<>();
+        Lodging lodging = address == null ? null : lodgings.get(address);
+        if (lodging == null) {
+            return reservations;
+        }
+        synchronized (lodging) {
+            for (Booking booking : overlapping(lodging, from.getTime(), to.getTime())) {
+                reservations.add(booking.reservation);
+            }
+        }
+        return reservations;
+    }
+
+    // Number of indexed bookings
+    int size() {
+        return bookingsByReservation.size();
+    }
+
+    private static boolean isIndexed(Reservation reservation) {
+        String address = reservation.getLodgingPhysicalAddress();
+        ReservationStatus status = reservation.getStatus();
+        return status != ReservationStatus.CANCELLED && status != ReservationStatus.EXPIRED
+                && address != null && !address.isBlank();
+    }
+
+    private static List<Booking> overlapping(Lodging lodging, long start, long end) {
+        List<Booking> found = new ArrayList<>();
+        if (lodging.overlaps) {
+            // No booking starting before (start - longest stay) can still be running at start
+            for (List<Booking> bookings : lodging.bookingsByStart.subMap(start - lodging.longestStay, false, end, false).values()) {
+                addRunning(bookings, start, found);
+            }
+            return found;
+        }
+        Map.Entry<Long, List<Booking>> before = lodging.bookingsByStart.lowerEntry(start);
+        if (before != null) {
+            addRunning(before.getValue(), start, found);
+        }
+        for (List<Booking> bookings : lodging.bookingsByStart.subMap(start, true, end, false).values()) {
+            found.addAll(bookings);
+        }
+        return found;
+    }
+
+    private static void addRunning(List<Booking> bookings, long start, List<Booking> found) {
+        for (Booking booking : bookings) {
+            if (booking.end > start) {
+                found.add(booking);
+            }
+        }
+    }
+
+    // A booking of another reservation that overlaps the given one, or null; called with the lodging locked
+    private static Booking clash(Lodging lodging, Booking booking) {
+        for (Booking other : overlapping(lodging, booking.start, booking.end)) {
+            if (!other.reservation.getReservationNumber().equals(booking.reservation.getReservationNumber())) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    // Called with the lodging locked; returns the reservation's previous booking, already unlinked if it was
+    // in the same lodging
+    private Booking replace(Lodging lodging, Booking booking) {
+        Booking previous = bookingsByReservation.put(booking.reservation.getReservationNumber(), booking);
+        if (previous != null && lodgings.get(previous.address) == lodging) {
+            unlink(lodging, previous);
+        }
+        lodging.bookingsByStart.computeIfAbsent(booking.start, start -> new ArrayList<>(1)).add(booking);
+        lodging.longestStay = Math.max(lodging.longestStay, booking.end - booking.start);
+        return previous;
+    }
+
+    // Unlink a booking that moved out of another lodging; done after releasing the new lodging so that no
+    // thread ever holds two lodging locks
+    private void unlinkElsewhere(Lodging lodging, Booking previous) {
+        if (previous != null) {
+            Lodging previousLodging = lodgings.get(previous.address);
+            if (previousLodging != lodging) {
+                synchronized (previousLodging) {
+                    unlink(previousLodging, previous);
+                }
+            }
+        }
+    }
+
+    private static void unlink(Lodging lodging, Booking booking) {
+        List<Booking> bookings = lodging.bookingsByStart.get(booking.start);
+        if (bookings != null) {
+            bookings.remove(booking);
+            if (bookings.isEmpty()) {
+                lodging.bookingsByStart.remove(booking.start);
+            }
+        }
+    }
+}
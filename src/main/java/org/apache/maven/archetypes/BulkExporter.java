@@ -0,0 +1,124 @@
+package org.apache.maven.archetypes;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes every account of a Manager, each followed by its reservations, in a BulkFormat that BulkImporter
+ * reads back. Records are written one at a time as the accounts are walked, so an export holds no more
+ * than one record in memory besides the data the manager already has.
+ *
+ * Usage: BulkExporter file, exporting data/accounts; the format follows the file extension.
+ */
+public final class BulkExporter {
+    // Every field of both record types, in the order of the CSV header
+    static final String[] CSV_COLUMNS = {"record", "accountNumber", "mailingAddress", "emailAddress", "phoneNumber",
+            "reservationNumber", "type", "lodgingPhysicalAddress", "lodgingMailingAddress", "startDate",
+            "numberOfNights", "numberOfBeds", "numberOfBedrooms", "numberOfBathrooms", "lodgingSize",
+            "kitchenette", "fullKitchen", "numberOfFloors", "price", "status"};
+
+    private static final Gson gson = new Gson();
+
+    private final Manager manager;
+
+    public BulkExporter(Manager manager) {
+        this.manager = manager;
+    }
+
+    // Write the records to the file through a temporary file beside it, so a failed export leaves any
+    // earlier file in place; returns the number of records written
+    public long exportTo(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long written;
+        try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            written = exportTo(out, BulkFormat.of(file));
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    // Write the records to out, which is flushed but not closed; returns the number of records written
+    public long exportTo(Writer out, BulkFormat format) throws IOException {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        if (format == BulkFormat.CSV) {
+            writeCsvRow(writer, CSV_COLUMNS);
+        }
+        long written = 0;
+        for (Account account : manager.getAccounts()) {
+            List<Reservation> reservations = account.getReservations();
+            // Loading a lazily loaded account whose files cannot be read drops it from the manager
+            if (manager.getAccount(account.getAccountNumber()) != account) {
+                continue;
+            }
+            Map<String, Object> accountRecord = new LinkedHashMap<>();
+            accountRecord.put("record", "account");
+            accountRecord.putAll(JsonRecords.toJson(account));
+            accountRecord.remove("reservations");
+            writeRecord(writer, format, accountRecord);
+            written++;
+            for (Reservation reservation : reservations) {
+                Map<String, Object> reservationRecord = new LinkedHashMap<>();
+                reservationRecord.put("record", "reservation");
+                reservationRecord.putAll(JsonRecords.toJson(reservation));
+                writeRecord(writer, format, reservationRecord);
+                written++;
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private static void writeRecord(Writer writer, BulkFormat format, Map<String, Object> record) throws IOException {
+        if (format == BulkFormat.JSON_LINES) {
+            gson.toJson(record, writer);
+            writer.write('\n');
+            return;
+        }
+        String[] cells = new String[CSV_COLUMNS.length];
+        for (int i = 0; i < cells.length; i++) {
+            Object value = record.get(CSV_COLUMNS[i]);
+            cells[i] = value == null ? "" : value.toString();
+        }
+        writeCsvRow(writer, cells);
+    }
+
+    // Cells holding a comma, a quote or a line break are quoted, with quotes doubled
+    private static void writeCsvRow(Writer writer, String[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String cell = cells[i];
+            if (cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0 || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(cell.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(cell);
+            }
+        }
+        writer.write('\n');
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: BulkExporter file");
+            return;
+        }
+        Manager manager = new Manager(Path.of("data/accounts"),
+                Integer.getInteger("loader.parallelism", Runtime.getRuntime().availableProcessors()));
+        long start = System.nanoTime();
+        long written = new BulkExporter(manager).exportTo(Path.of(args[0]));
+        System.out.println("Exported " + written + " records in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
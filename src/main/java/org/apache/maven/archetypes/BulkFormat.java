@@ -0,0 +1,27 @@
+package org.apache.maven.archetypes;
+
+import java.nio.file.Path;
+
+/**
+ * File formats of BulkImporter and BulkExporter. Both hold accounts and reservations in one file, one
+ * record per line, told apart by a "record" field of "account" or "reservation"; the other fields are
+ * named as in the HTTP API.
+ *
+ * CSV has a header row naming the columns; cells may be quoted with double quotes, with "" for a quote,
+ * and an empty cell is a missing field. JSON_LINES has one JSON object per line.
+ */
+public enum BulkFormat {
+    CSV, JSON_LINES;
+
+    // CSV for a .csv file name, JSON_LINES for .jsonl, .ndjson and .json
+    public static BulkFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("Unknown bulk file type: " + file.getFileName());
+    }
+}
@@ -0,0 +1,325 @@
+package org.apache.maven.archetypes;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams accounts and reservations from a CSV or JSON-lines file (see BulkFormat) into a Manager.
+ *
+ * Records are read one at a time, validated, and handed to Manager.addBatch a batch at a time, so a
+ * journaling manager persists each batch with a single write and the input is never held in memory as
+ * a whole. A reservation's account must come before it, in the same batch or an earlier one, as it does
+ * in a BulkExporter file. A record that is malformed or refused is counted and skipped; only input that
+ * cannot be read past (broken JSON, an unterminated quote) ends the import early.
+ *
+ * Usage: BulkImporter file, importing into data/accounts with the journal on; -Dimport.batchSize sets
+ * the batch size.
+ */
+public final class BulkImporter {
+    // Error messages kept in a report; the count covers the rest
+    private static final int MAX_ERROR_MESSAGES = 100;
+
+    private final Manager manager;
+    private int batchSize = 1000;
+    private Consumer<Report> progressListener = report -> { };
+
+    public BulkImporter(Manager manager) {
+        this.manager = manager;
+    }
+
+    // Records handed to the manager, and journaled, together
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    // Called with the running totals after every batch
+    public void setProgressListener(Consumer<Report> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    // Import a file, in the format its extension names
+    public Report importFrom(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(in, BulkFormat.of(file));
+        }
+    }
+
+    // Import everything in, which is read to the end but not closed
+    public Report importFrom(Reader in, BulkFormat format) throws IOException {
+        Report report = new Report();
+        Batch batch = new Batch();
+        if (format == BulkFormat.CSV) {
+            readCsv(new CsvReader(in), report, batch);
+        } else {
+            readJsonLines(in, report, batch);
+        }
+        flush(report, batch);
+        return report;
+    }
+
+    private void readJsonLines(Reader in, Report report, Batch batch) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        // Lenient, so one top-level value may follow another
+        reader.setLenient(true);
+        long index = 0;
+        while (true) {
+            JsonElement element;
+            try {
+                if (reader.peek() == JsonToken.END_DOCUMENT) {
+                    return;
+                }
+                index++;
+                element = JsonParser.parseReader(reader);
+            } catch (MalformedJsonException | JsonParseException e) {
+                report.error("Record " + index + ": malformed JSON, import stopped: " + e.getMessage());
+                return;
+            }
+            if (!element.isJsonObject()) {
+                report.error("Record " + index + ": expected a JSON object.");
+                continue;
+            }
+            accept(element.getAsJsonObject(), "Record " + index, report, batch);
+        }
+    }
+
+    private void readCsv(CsvReader reader, Report report, Batch batch) throws IOException {
+        try {
+            List<String> header = reader.readRow();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                header.set(i, header.get(i).strip());
+            }
+            if (!header.contains("record")) {
+                report.error("Line 1: the header has no record column, import stopped.");
+                return;
+            }
+            List<String> cells;
+            while ((cells = reader.readRow()) != null) {
+                if (cells.size() == 1 && cells.get(0).isBlank()) {
+                    continue;
+                }
+                String where = "Line " + reader.rowLine;
+                if (cells.size() != header.size()) {
+                    report.error(where + ": expected " + header.size() + " cells but found " + cells.size() + ".");
+                    continue;
+                }
+                JsonObject record = new JsonObject();
+                for (int i = 0; i < cells.size(); i++) {
+                    if (!cells.get(i).isEmpty()) {
+                        record.addProperty(header.get(i), cells.get(i));
+                    }
+                }
+                accept(record, where, report, batch);
+            }
+        } catch (IllegalArgumentException e) {
+            report.error(e.getMessage());
+        }
+    }
+
+    // Validate a record and add it to the batch, handing the batch to the manager once it is full
+    private void accept(JsonObject record, String where, Report report, Batch batch) {
+        try {
+            String type = JsonRecords.requiredString(record, "record");
+            if (type.equalsIgnoreCase("account")) {
+                batch.accounts.add(JsonRecords.toAccount(record));
+            } else if (type.equalsIgnoreCase("reservation")) {
+                batch.reservations.add(JsonRecords.toStoredReservation(record));
+            } else {
+                throw new IllegalArgumentException("record must be account or reservation.");
+            }
+        } catch (IllegalArgumentException e) {
+            report.error(where + ": " + e.getMessage());
+            return;
+        }
+        if (batch.accounts.size() + batch.reservations.size() >= batchSize) {
+            flush(report, batch);
+        }
+    }
+
+    private void flush(Report report, Batch batch) {
+        if (batch.accounts.isEmpty() && batch.reservations.isEmpty()) {
+            return;
+        }
+        for (String error : manager.addBatch(batch.accounts, batch.reservations)) {
+            report.error(error);
+        }
+        // A record was accepted if the manager now holds that very object under its number
+        for (Account account : batch.accounts) {
+            if (manager.getAccount(account.getAccountNumber()) == account) {
+                report.accounts++;
+            }
+        }
+        for (Reservation reservation : batch.reservations) {
+            if (manager.getReservation(reservation.getReservationNumber()) == reservation) {
+                report.reservations++;
+            }
+        }
+        report.batches++;
+        batch.accounts.clear();
+        batch.reservations.clear();
+        progressListener.accept(report);
+    }
+
+    private static final class Batch {
+        private final List<Account> accounts = new ArrayList<>();
+        private final List<Reservation> reservations = new ArrayList<>();
+    }
+
+    // Splits CSV into rows of cells; a quoted cell may hold commas, "" for a quote and line breaks
+    private static final class CsvReader {
+        private final BufferedReader in;
+        private long line = 1;
+        // Line on which the last row read started
+        private long rowLine;
+
+        private CsvReader(Reader in) {
+            this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        }
+
+        // The next row, or null at the end of the input
+        private List<String> readRow() throws IOException {
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean empty = true;
+            rowLine = line;
+            int c;
+            while ((c = in.read()) != -1) {
+                empty = false;
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int next = in.read();
+                        if (next == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                in.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        cell.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    cells.add(cell.toString());
+                    return cells;
+                } else if (c != '\r') {
+                    cell.append((char) c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Line " + rowLine + ": unterminated quoted cell, import stopped.");
+            }
+            if (empty) {
+                return null;
+            }
+            cells.add(cell.toString());
+            return cells;
+        }
+    }
+
+    /**
+     * Running totals of an import.
+     */
+    public static final class Report {
+        private long accounts;
+        private long reservations;
+        private long errors;
+        private long batches;
+        private final List<String> errorMessages = new ArrayList<>();
+
+        private Report() {
+        }
+
+        private void error(String message) {
+            errors++;
+            if (errorMessages.size() < MAX_ERROR_MESSAGES) {
+                errorMessages.add(message);
+            }
+        }
+
+        public long getAccountCount() {
+            return accounts;
+        }
+
+        public long getReservationCount() {
+            return reservations;
+        }
+
+        // Records that were malformed or refused by the manager
+        public long getErrorCount() {
+            return errors;
+        }
+
+        public long getBatchCount() {
+            return batches;
+        }
+
+        // The first error messages, in input order
+        public List<String> getErrorMessages() {
+            return Collections.unmodifiableList(errorMessages);
+        }
+
+        @Override
+        public String toString() {
+            return "Imported " + accounts + " accounts and " + reservations + " reservations in " + batches
+                    + " batches, " + errors + " errors";
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: BulkImporter file");
+            return;
+        }
+        Manager manager = new Manager(Path.of("data/accounts"),
+                Integer.getInteger("loader.parallelism", Runtime.getRuntime().availableProcessors()));
+        manager.startJournal(Long.getLong("journal.flushIntervalMillis", 2),
+                Integer.getInteger("journal.batchSize", 64),
+                Long.getLong("journal.checkpointIntervalMillis", 60000));
+        try {
+            BulkImporter importer = new BulkImporter(manager);
+            importer.setBatchSize(Integer.getInteger("import.batchSize", 1000));
+            importer.setProgressListener(report -> System.out.println(report));
+            long start = System.nanoTime();
+            Report report = importer.importFrom(Path.of(args[0]));
+            System.out.println(report + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            for (String message : report.getErrorMessages()) {
+                System.out.println(message);
+            }
+        } finally {
+            manager.close();
+        }
+    }
+}
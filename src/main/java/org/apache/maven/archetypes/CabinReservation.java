@@ -2,7 +2,7 @@ package org.apache.maven.archetypes;
 import java.util.Date;
 
 public class CabinReservation extends Reservation {
-    private final boolean fullKitchen;
+    private volatile boolean fullKitchen;
 
     // Constructor
     public CabinReservation(String accountNumber, String reservationNumber, String lodgingPhysicalAddress,
@@ -20,27 +20,10 @@ public class CabinReservation extends Reservation {
         return fullKitchen;
     }
 
-    // Override the calculatePrice method from the parent class
-    @Override
-    public void calculatePrice() {
-        double basePrice = 120.0;
-        double additionalFee = 0.0;
-
-        // Calculate additional fee based on lodging size
-        if (getLodgingSize() > 900) {
-            additionalFee += 15.0;
-        }
-
-        // Add additional fee if full kitchen is available
-        if (isFullKitchen()) {
-            additionalFee += 20.0;
-        }
-
-        // Add additional fee based on the number of bathrooms
-        additionalFee += getNumberOfBathrooms() * 5.0;
-
-        // Calculate and set the final price
-        setPrice(basePrice + additionalFee);
+    // Setter for fullKitchen
+    public void setFullKitchen(boolean fullKitchen) {
+        this.fullKitchen = fullKitchen;
+        pricingFieldChanged();
     }
 
     // Override the toString method to provide a string representation of the object
@@ -0,0 +1,299 @@
+package org.apache.maven.archetypes;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the account and reservation text files written by {@code Account.toString()} and
+ * {@code Reservation.toString()}.
+ *
+ * Each file is read in a single pass: every "Label: value" line is matched against the known labels
+ * and only the value range is remembered, so numbers are parsed in place without intermediate strings.
+ * The reservation subtype is detected in the same pass from its type-specific field.
+ */
+public final class DataFileParser {
+    // Format written by Reservation.toString(): ISO-8601 with the UTC offset, e.g. "2023-09-10T00:00:00+03:00"
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ssXXX");
+    // Format produced by Date.toString(), found in older files; DateTimeFormatter is immutable and safe to share
+    // between threads
+    private static final DateTimeFormatter LEGACY_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final Map<String, ZoneId> ZONES_BY_ABBREVIATION = new ConcurrentHashMap<>();
+
+    private static final String[] ACCOUNT_LABELS = {
+            "Account", "Mailing Address", "Email Address", "Phone Number"
+    };
+    private static final int ACCOUNT = 0;
+    private static final int ACCOUNT_MAILING_ADDRESS = 1;
+    private static final int EMAIL_ADDRESS = 2;
+    private static final int PHONE_NUMBER = 3;
+
+    private static final String[] RESERVATION_LABELS = {
+            "Account Number", "Reservation Number", "Physical Address", "Mailing Address", "Start Date",
+            "Number of Nights", "Number of Beds", "Number of Bedrooms", "Number of Bathrooms", "Lodging Size",
+            "Price", "Status", "Kitchenette", "Full Kitchen", "Number of Floors"
+    };
+    private static final int ACCOUNT_NUMBER = 0;
+    private static final int RESERVATION_NUMBER = 1;
+    private static final int PHYSICAL_ADDRESS = 2;
+    private static final int MAILING_ADDRESS = 3;
+    private static final int START_DATE = 4;
+    private static final int NUMBER_OF_NIGHTS = 5;
+    private static final int NUMBER_OF_BEDS = 6;
+    private static final int NUMBER_OF_BEDROOMS = 7;
+    private static final int NUMBER_OF_BATHROOMS = 8;
+    private static final int LODGING_SIZE = 9;
+    private static final int PRICE = 10;
+    private static final int STATUS = 11;
+    private static final int KITCHENETTE = 12;
+    private static final int FULL_KITCHEN = 13;
+    private static final int NUMBER_OF_FLOORS = 14;
+
+    private DataFileParser() {
+    }
+
+    // Parse account data from the file content
+    public static Account parseAccount(String accountData) {
+        int[] fields = scanFields(accountData, ACCOUNT_LABELS);
+        return new Account(
+                requireString(accountData, fields, ACCOUNT_LABELS, ACCOUNT),
+                requireString(accountData, fields, ACCOUNT_LABELS, ACCOUNT_MAILING_ADDRESS),
+                requireString(accountData, fields, ACCOUNT_LABELS, EMAIL_ADDRESS),
+                requireString(accountData, fields, ACCOUNT_LABELS, PHONE_NUMBER));
+    }
+
+    // Parse reservation data from the file content
+    public static Reservation parseReservation(String reservationData) {
+        return parseReservation(reservationData, null);
+    }
+
+    // Parse reservation data, taking the account number and addresses, which repeat across reservations, from
+    // strings unless it is null
+    static Reservation parseReservation(String reservationData, StringPool strings) {
+        int[] fields = scanFields(reservationData, RESERVATION_LABELS);
+        String[] labels = RESERVATION_LABELS;
+
+        String accountNumber = requireString(reservationData, fields, labels, ACCOUNT_NUMBER);
+        String reservationNumber = requireString(reservationData, fields, labels, RESERVATION_NUMBER);
+        String physicalAddress = requireString(reservationData, fields, labels, PHYSICAL_ADDRESS);
+        String mailingAddress = requireString(reservationData, fields, labels, MAILING_ADDRESS);
+        if (strings != null) {
+            accountNumber = strings.intern(accountNumber);
+            physicalAddress = strings.intern(physicalAddress);
+            mailingAddress = strings.intern(mailingAddress);
+        }
+        Date startDate = parseDate(requireString(reservationData, fields, labels, START_DATE));
+        int numberOfNights = requireInt(reservationData, fields, labels, NUMBER_OF_NIGHTS);
+        int numberOfBeds = requireInt(reservationData, fields, labels, NUMBER_OF_BEDS);
+        int numberOfBedrooms = requireInt(reservationData, fields, labels, NUMBER_OF_BEDROOMS);
+        int numberOfBathrooms = requireInt(reservationData, fields, labels, NUMBER_OF_BATHROOMS);
+        int lodgingSize = requireInt(reservationData, fields, labels, LODGING_SIZE);
+        ReservationStatus status = parseStatus(requireString(reservationData, fields, labels, STATUS));
+
+        // Exactly one of the type-specific fields decides the subtype
+        boolean hotel = fields[KITCHENETTE * 2] >= 0;
+        boolean cabin = fields[FULL_KITCHEN * 2] >= 0;
+        boolean house = fields[NUMBER_OF_FLOORS * 2] >= 0;
+        if ((hotel ? 1 : 0) + (cabin ? 1 : 0) + (house ? 1 : 0) != 1) {
+            throw new IllegalLoadException("Reservation " + reservationNumber
+                    + " must have exactly one of the fields Kitchenette, Full Kitchen or Number of Floors.");
+        }
+
+        Reservation reservation;
+        if (hotel) {
+            boolean kitchenette = requireBoolean(reservationData, fields, labels, KITCHENETTE);
+            reservation = new HotelReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
+                    startDate, numberOfNights, numberOfBeds, numberOfBedrooms, numberOfBathrooms, lodgingSize, kitchenette);
+        } else if (cabin) {
+            boolean fullKitchen = requireBoolean(reservationData, fields, labels, FULL_KITCHEN);
+            reservation = new CabinReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
+                    startDate, numberOfNights, numberOfBeds, numberOfBedrooms, numberOfBathrooms, lodgingSize, fullKitchen);
+        } else {
+            int numberOfFloors = requireInt(reservationData, fields, labels, NUMBER_OF_FLOORS);
+            reservation = new HouseReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
+                    startDate, numberOfNights, numberOfBeds, numberOfBedrooms, numberOfBathrooms, lodgingSize, numberOfFloors);
+        }
+        reservation.setStatus(status); // Set the status of the reservation
+        if (fields[PRICE * 2] >= 0) {
+            reservation.setPrice(parsePrice(reservationData, fields[PRICE * 2], fields[PRICE * 2 + 1]));
+        }
+        return reservation;
+    }
+
+    // Write a start date to the second with its UTC offset, which parses back to the same instant without the
+    // ambiguity of zone abbreviations
+    public static String formatDate(Date date) {
+        return DATE_FORMAT.format(date.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+    // Parse a date written by formatDate, e.g. "2023-09-10T00:00:00+03:00", or by Date.toString() in older
+    // files, e.g. "Sun Sep 10 00:00:00 EAT 2023"
+    public static Date parseDate(String dateString) {
+        try {
+            if (dateString.length() > 10 && dateString.charAt(10) == 'T') {
+                return Date.from(OffsetDateTime.parse(dateString, DATE_FORMAT).toInstant());
+            }
+            Date date = parseDateFields(dateString);
+            return date != null ? date : Date.from(ZonedDateTime.parse(dateString, LEGACY_DATE_FORMAT).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalLoadException("Invalid start date '" + dateString
+                    + "'. Expected the format: yyyy-MM-ddTHH:mm:ss+hh:mm or EEE MMM dd HH:mm:ss zzz yyyy");
+        }
+    }
+
+    // Fast path for the fixed-width parts of the format; only the zone abbreviation goes through the formatter,
+    // once per distinct abbreviation. Returns null when the layout does not match so the formatter can report it.
+    private static Date parseDateFields(String dateString) {
+        int zoneEnd = dateString.lastIndexOf(' ');
+        if (dateString.length() != zoneEnd + 5 || zoneEnd <= 20 || dateString.charAt(3) != ' '
+                || dateString.charAt(7) != ' ' || dateString.charAt(10) != ' ' || dateString.charAt(13) != ':'
+                || dateString.charAt(16) != ':' || dateString.charAt(19) != ' ') {
+            return null;
+        }
+        int month = monthAt(dateString, 4);
+        if (month == 0) {
+            return null;
+        }
+        try {
+            LocalDateTime localDateTime = LocalDateTime.of(
+                    Integer.parseInt(dateString, zoneEnd + 1, dateString.length(), 10), month,
+                    Integer.parseInt(dateString, 8, 10, 10),
+                    Integer.parseInt(dateString, 11, 13, 10),
+                    Integer.parseInt(dateString, 14, 16, 10),
+                    Integer.parseInt(dateString, 17, 19, 10));
+            ZoneId zone = ZONES_BY_ABBREVIATION.computeIfAbsent(dateString.substring(20, zoneEnd),
+                    abbreviation -> ZonedDateTime.parse(dateString, LEGACY_DATE_FORMAT).getZone());
+            return Date.from(localDateTime.atZone(zone).toInstant());
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    // Month number (1-12) of the three-letter abbreviation at the given index, or 0 if there is none
+    private static int monthAt(String dateString, int index) {
+        for (int month = 0; month < 12; month++) {
+            if (dateString.regionMatches(index, MONTHS, month * 3, 3)) {
+                return month + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Single pass over the data: fields[2 * i] and fields[2 * i + 1] hold the value range of labels[i], or -1
+    private static int[] scanFields(String data, String[] labels) {
+        int[] fields = new int[labels.length * 2];
+        Arrays.fill(fields, -1);
+
+        int length = data.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = data.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            int valueEnd = lineEnd;
+            if (valueEnd > lineStart && data.charAt(valueEnd - 1) == '\r') {
+                valueEnd--;
+            }
+
+            // Labels never contain ':', so the first one on the line ends the label
+            int colon = data.indexOf(':', lineStart);
+            if (colon >= 0 && colon < valueEnd) {
+                int field = labelIndex(data, lineStart, colon, labels);
+                if (field >= 0) {
+                    if (fields[field * 2] >= 0) {
+                        throw new IllegalLoadException("Duplicate field '" + labels[field] + "'.");
+                    }
+                    int valueStart = colon + 1;
+                    if (valueStart < valueEnd && data.charAt(valueStart) == ' ') {
+                        valueStart++;
+                    }
+                    fields[field * 2] = valueStart;
+                    fields[field * 2 + 1] = valueEnd;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return fields;
+    }
+
+    private static int labelIndex(String data, int start, int end, String[] labels) {
+        int labelLength = end - start;
+        for (int i = 0; i < labels.length; i++) {
+            String label = labels[i];
+            if (label.length() == labelLength && data.startsWith(label, start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String requireString(String data, int[] fields, String[] labels, int field) {
+        int start = fields[field * 2];
+        if (start < 0) {
+            throw new IllegalLoadException("Missing field '" + labels[field] + "'.");
+        }
+        return data.substring(start, fields[field * 2 + 1]);
+    }
+
+    private static int requireInt(String data, int[] fields, String[] labels, int field) {
+        int start = fields[field * 2];
+        if (start < 0) {
+            throw new IllegalLoadException("Missing field '" + labels[field] + "'.");
+        }
+        int end = fields[field * 2 + 1];
+        try {
+            return Integer.parseInt(data, start, end, 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalLoadException("Invalid number for '" + labels[field] + "': '"
+                    + data.substring(start, end) + "'.");
+        }
+    }
+
+    private static boolean requireBoolean(String data, int[] fields, String[] labels, int field) {
+        int start = fields[field * 2];
+        if (start < 0) {
+            throw new IllegalLoadException("Missing field '" + labels[field] + "'.");
+        }
+        int end = fields[field * 2 + 1];
+        if (end - start == 4 && data.startsWith("true", start)) {
+            return true;
+        }
+        if (end - start == 5 && data.startsWith("false", start)) {
+            return false;
+        }
+        throw new IllegalLoadException("Invalid boolean for '" + labels[field] + "': '"
+                + data.substring(start, end) + "'.");
+    }
+
+    // Price is written as "$123.0"
+    private static double parsePrice(String data, int start, int end) {
+        if (start < end && data.charAt(start) == '$') {
+            start++;
+        }
+        try {
+            return Double.parseDouble(data.substring(start, end));
+        } catch (NumberFormatException e) {
+            throw new IllegalLoadException("Invalid number for 'Price': '" + data.substring(start, end) + "'.");
+        }
+    }
+
+    private static ReservationStatus parseStatus(String statusString) {
+        try {
+            return ReservationStatus.valueOf(statusString);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalLoadException("Invalid status '" + statusString + "'.");
+        }
+    }
+}
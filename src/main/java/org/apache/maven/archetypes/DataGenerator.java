@@ -0,0 +1,166 @@
+package org.apache.maven.archetypes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Writes synthetic "Acc-accountNumber/acc-accountNumber.txt" and "res-reservationNumber.txt" trees
+ * in the format Manager loads.
+ *
+ * The output depends only on the settings and the seed (dates start today unless set), so the same
+ * tree can be generated again to compare runs. Account numbers start at 10000000 and reservation numbers at 1000000000; every
+ * reservation gets its own lodging address, so a generated tree holds no double bookings.
+ *
+ * Usage: DataGenerator directory [accounts] [reservationsPerAccount] [seed]
+ */
+public final class DataGenerator {
+    static final int FIRST_ACCOUNT_NUMBER = 10_000_000;
+    static final long FIRST_RESERVATION_NUMBER = 1_000_000_000L;
+
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Lake Rd", "Pine St", "Harbor Way", "Summit Dr",
+            "River Rd", "Elm St", "Cedar Ln", "Beach Blvd"};
+    private static final String[] CITIES = {"Portland", "Denver", "Austin", "Boise", "Tampa", "Duluth"};
+
+    private final long seed;
+    private int accounts = 1000;
+    private int reservationsPerAccount = 4;
+    private int[] typeWeights = {1, 1, 1};
+    private int[] statusWeights = {6, 3, 1};
+    private LocalDate firstDate = LocalDate.now();
+    private int dateSpreadDays = 365;
+
+    public DataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // Number of account folders to write
+    public void setAccounts(int accounts) {
+        if (accounts < 0) {
+            throw new IllegalArgumentException("Accounts must not be negative: " + accounts);
+        }
+        this.accounts = accounts;
+    }
+
+    // Average reservations per account; each account gets between 0 and twice this many
+    public void setReservationsPerAccount(int reservationsPerAccount) {
+        if (reservationsPerAccount < 0) {
+            throw new IllegalArgumentException("Reservations per account must not be negative: " + reservationsPerAccount);
+        }
+        this.reservationsPerAccount = reservationsPerAccount;
+    }
+
+    // Relative weights of hotel, cabin and house reservations
+    public void setTypeMix(int hotel, int cabin, int house) {
+        this.typeWeights = weights(hotel, cabin, house);
+    }
+
+    // Relative weights of draft, completed and cancelled reservations
+    public void setStatusMix(int draft, int completed, int cancelled) {
+        this.statusWeights = weights(draft, completed, cancelled);
+    }
+
+    // Start dates are spread uniformly over spreadDays days from firstDate
+    public void setDates(LocalDate firstDate, int spreadDays) {
+        if (spreadDays < 1) {
+            throw new IllegalArgumentException("Date spread must be at least one day: " + spreadDays);
+        }
+        this.firstDate = firstDate;
+        this.dateSpreadDays = spreadDays;
+    }
+
+    // Write the tree into the directory and return the number of reservations written
+    public int write(Path directory) throws IOException {
+        Random random = new Random(seed);
+        Files.createDirectories(directory);
+        long reservationNumber = FIRST_RESERVATION_NUMBER;
+        for (int i = 0; i < accounts; i++) {
+            String accountNumber = String.valueOf(FIRST_ACCOUNT_NUMBER + i);
+            Path folder = Files.createDirectories(AccountFiles.accountFolder(directory, accountNumber));
+            Account account = new Account(accountNumber,
+                    (100 + random.nextInt(9900)) + " " + pick(random, STREETS) + ", " + pick(random, CITIES),
+                    "user" + accountNumber + "@example.com",
+                    String.format("555-%03d-%04d", random.nextInt(1000), random.nextInt(10000)));
+            Files.writeString(AccountFiles.accountFile(directory, accountNumber), account.toString());
+
+            int count = reservationsPerAccount == 0 ? 0 : random.nextInt(2 * reservationsPerAccount + 1);
+            for (int j = 0; j < count; j++) {
+                Reservation reservation = reservation(random, accountNumber, reservationNumber);
+                Files.writeString(folder.resolve("res-" + reservationNumber + ".txt"), reservation.toString());
+                reservationNumber++;
+            }
+        }
+        return (int) (reservationNumber - FIRST_RESERVATION_NUMBER);
+    }
+
+    private Reservation reservation(Random random, String accountNumber, long number) {
+        String reservationNumber = String.valueOf(number);
+        // The house number is unique per reservation, which keeps every lodging address unique
+        String address = (number - FIRST_RESERVATION_NUMBER + 1) + " " + pick(random, STREETS) + ", " + pick(random, CITIES);
+        String mailingAddress = random.nextInt(4) == 0 ? "PO Box " + random.nextInt(10000) : "";
+        Date startDate = Date.from(firstDate.plusDays(random.nextInt(dateSpreadDays))
+                .atStartOfDay(ZoneId.systemDefault()).toInstant());
+        int nights = 1 + random.nextInt(14);
+        int bedrooms = 1 + random.nextInt(4);
+        int beds = bedrooms + random.nextInt(3);
+        int bathrooms = 1 + random.nextInt(bedrooms);
+        int size = 400 + random.nextInt(2600);
+
+        Reservation reservation = switch (choose(random, typeWeights)) {
+            case 0 -> new HotelReservation(accountNumber, reservationNumber, address, mailingAddress, startDate,
+                    nights, beds, bedrooms, bathrooms, Math.min(size, 1200), random.nextBoolean());
+            case 1 -> new CabinReservation(accountNumber, reservationNumber, address, mailingAddress, startDate,
+                    nights, beds, bedrooms, bathrooms, size, random.nextBoolean());
+            default -> new HouseReservation(accountNumber, reservationNumber, address, mailingAddress, startDate,
+                    nights, beds, bedrooms, bathrooms, size, 1 + random.nextInt(3));
+        };
+        reservation.calculatePrice();
+        reservation.setStatus(ReservationStatus.values()[choose(random, statusWeights)]);
+        return reservation;
+    }
+
+    private static int[] weights(int first, int second, int third) {
+        if (first < 0 || second < 0 || third < 0 || first + second + third == 0) {
+            throw new IllegalArgumentException("Weights must not be negative and must not all be zero.");
+        }
+        return new int[] {first, second, third};
+    }
+
+    // Index chosen with probability proportional to its weight
+    private static int choose(Random random, int[] weights) {
+        int roll = random.nextInt(weights[0] + weights[1] + weights[2]);
+        for (int i = 0; i < weights.length - 1; i++) {
+            if (roll < weights[i]) {
+                return i;
+            }
+            roll -= weights[i];
+        }
+        return weights.length - 1;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: DataGenerator directory [accounts] [reservationsPerAccount] [seed]");
+            return;
+        }
+        DataGenerator generator = new DataGenerator(args.length > 3 ? Long.parseLong(args[3]) : 42);
+        if (args.length > 1) {
+            generator.setAccounts(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            generator.setReservationsPerAccount(Integer.parseInt(args[2]));
+        }
+        long start = System.nanoTime();
+        int reservations = generator.write(Path.of(args[0]));
+        System.out.println("Wrote " + generator.accounts + " accounts and " + reservations + " reservations in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
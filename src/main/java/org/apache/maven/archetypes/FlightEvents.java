@@ -0,0 +1,141 @@
+package org.apache.maven.archetypes;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the loader, the parser, the base file writes and status changes, so a
+ * recording shows which account folder or file made a load or a save slow.
+ *
+ * Record with -XX:StartFlightRecording or jcmd JFR.start and open the file in JDK Mission Control, or
+ * read it with jdk.jfr.consumer; the events are under the "Reservations" category and named
+ * org.apache.maven.archetypes.*. Callers create an event, begin it, and set its fields only when
+ * shouldCommit() is true, so while no recording is running an event costs an allocation the JIT
+ * removes and one check.
+ */
+final class FlightEvents {
+    private FlightEvents() {
+    }
+
+    @Name("org.apache.maven.archetypes.AccountLoad")
+    @Label("Account Folder Load")
+    @Category({"Reservations", "Loading"})
+    @Description("Reading and parsing one account folder: the account file and its reservation files")
+    @StackTrace(false)
+    static final class AccountLoad extends Event {
+        @Label("Account Number")
+        String accountNumber;
+
+        @Label("Folder")
+        String folder;
+
+        @Label("Reservation Files")
+        int reservationFiles;
+
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+
+        @Label("Loaded")
+        @Description("False when the account file could not be read or parsed")
+        boolean loaded;
+    }
+
+    @Name("org.apache.maven.archetypes.ReservationParse")
+    @Label("Reservation File Parse")
+    @Category({"Reservations", "Loading"})
+    @Description("Reading and parsing one reservation file")
+    @StackTrace(false)
+    static final class ReservationParse extends Event {
+        @Label("Account Number")
+        String accountNumber;
+
+        @Label("Reservation Number")
+        String reservationNumber;
+
+        @Label("File")
+        String file;
+
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+
+        @Label("Reservation Type")
+        @Description("HotelReservation, CabinReservation or HouseReservation; absent when the file is malformed")
+        String reservationType;
+
+        @Label("Malformed")
+        boolean malformed;
+    }
+
+    @Name("org.apache.maven.archetypes.RecordPersist")
+    @Label("Record Persist")
+    @Category({"Reservations", "Persistence"})
+    @Description("Durable write of one account or reservation file")
+    @StackTrace(false)
+    static final class RecordPersist extends Event {
+        @Label("Account Number")
+        String accountNumber;
+
+        @Label("Reservation Number")
+        @Description("Absent for an account file")
+        String reservationNumber;
+
+        @Label("File")
+        String file;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytesWritten;
+
+        @Label("Reservation Type")
+        @Description("Absent for an account file")
+        String reservationType;
+    }
+
+    @Name("org.apache.maven.archetypes.StatusTransition")
+    @Label("Reservation Status Transition")
+    @Category({"Reservations", "Status"})
+    @Description("A reservation completed, cancelled, expired or finished; the duration includes waiting for the account's lock")
+    @StackTrace(false)
+    static final class StatusTransition extends Event {
+        @Label("Account Number")
+        String accountNumber;
+
+        @Label("Reservation Number")
+        String reservationNumber;
+
+        @Label("Reservation Type")
+        String reservationType;
+
+        @Label("From")
+        String fromStatus;
+
+        @Label("To")
+        String toStatus;
+
+        @Label("Timed")
+        @Description("True when the timing wheel made the change rather than a caller")
+        boolean timed;
+    }
+
+    // Fill in and commit a transition event if a recording wants it
+    static void commitTransition(StatusTransition event, String accountNumber, Reservation reservation,
+                                 ReservationStatus from, boolean timed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.accountNumber = accountNumber;
+            event.reservationNumber = reservation.getReservationNumber();
+            event.reservationType = reservation.getClass().getSimpleName();
+            event.fromStatus = from.name();
+            event.toStatus = reservation.getStatus().name();
+            event.timed = timed;
+            event.commit();
+        }
+    }
+}
@@ -3,7 +3,7 @@ package org.apache.maven.archetypes;
 import java.util.Date;
 
 public class HotelReservation extends Reservation {
-    private final boolean kitchenette;
+    private volatile boolean kitchenette;
 
     // Constructor
     public HotelReservation(String accountNumber, String reservationNumber, String lodgingPhysicalAddress,
@@ -19,29 +19,12 @@ public class HotelReservation extends Reservation {
     public boolean hasKitchenette() {
         return kitchenette;
     }
-    // Override the calculatePrice method from the parent class
-    @Override
-    public void calculatePrice() {
-        double basePrice = 120.0;
-        double additionalFee = 0.0;
-
-        // Calculate additional fee based on lodging size
-        if (getLodgingSize() > 900) {
-            additionalFee += 15.0;
-        }
-
-        // Add fixed additional fee
-        additionalFee += 50.0;
 
-        // Add additional fee if kitchenette is available
-        if (hasKitchenette()) {
-            additionalFee += 10.0;
-        }
-
-        // Calculate and set the final price
-        setPrice(basePrice + additionalFee);
+    // Setter for kitchenette
+    public void setKitchenette(boolean kitchenette) {
+        this.kitchenette = kitchenette;
+        pricingFieldChanged();
     }
-
     // Override the toString method to provide a string representation of the object
     @Override
     public String toString() {
@@ -3,7 +3,7 @@ package org.apache.maven.archetypes;
 import java.util.Date;
 
 public class HouseReservation extends Reservation {
-    private final int numberOfFloors;
+    private volatile int numberOfFloors;
 
     // Constructor
     public HouseReservation(String accountNumber, String reservationNumber, String lodgingPhysicalAddress,
@@ -21,22 +21,10 @@ public class HouseReservation extends Reservation {
         return numberOfFloors;
     }
 
-    // Override the calculatePrice method from the parent class
-    @Override
-    public void calculatePrice() {
-        double basePrice = 120.0;
-        double additionalFee = 0.0;
-
-        // Calculate additional fee based on lodging size
-        if (getLodgingSize() > 900) {
-            additionalFee += 15.0;
-        }
-
-        // Add additional fee based on the number of floors
-        additionalFee += getNumberOfFloors() * 25.0;
-
-        // Calculate and set the final price
-        setPrice(basePrice + additionalFee);
+    // Setter for numberOfFloors
+    public void setNumberOfFloors(int numberOfFloors) {
+        this.numberOfFloors = numberOfFloors;
+        pricingFieldChanged();
     }
 
     // Override the toString method to provide a string representation of the object
@@ -0,0 +1,318 @@
+package org.apache.maven.archetypes;
+
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Drives an ApiServer with many concurrent HTTP clients for a fixed time and reports requests per
+ * second and latency percentiles per request type.
+ *
+ * Each client creates an account and a first reservation, then loops over a weighted mix of creating
+ * reservations, reading one of its reservations and pricing one, with one request in flight at a time.
+ * Clients are asynchronous request chains rather than threads, so thousands of them need only the
+ * HttpClient's executor. A 409 answer (a refused booking) counts as rejected; any other error ends the run.
+ *
+ * Usage: HttpLoadDriver [seconds] [clients] [baseUri]. Without a base URI an ApiServer over an empty
+ * temporary directory is started in-process; -Dload.mix=create,get,price sets the weights and -Dload.seed
+ * the seed.
+ */
+public final class HttpLoadDriver {
+    public enum Operation {
+        CREATE, GET, PRICE
+    }
+
+    private final URI baseUri;
+    private final long seed;
+    private final int[] weights = {10, 70, 20};
+    // Keeps the lodging addresses of separate runs against one server apart
+    private final long runId = System.currentTimeMillis();
+
+    public HttpLoadDriver(URI baseUri, long seed) {
+        this.baseUri = baseUri;
+        this.seed = seed;
+    }
+
+    // Relative weights of the three request types
+    public void setMix(int create, int get, int price) {
+        if (create < 0 || get < 0 || price < 0 || create + get + price == 0) {
+            throw new IllegalArgumentException("Weights must not be negative and must not all be zero.");
+        }
+        weights[0] = create;
+        weights[1] = get;
+        weights[2] = price;
+    }
+
+    // Set up the clients, then run the mix on all of them until the duration has passed
+    public Report run(Duration duration, int clients) {
+        if (clients < 1) {
+            throw new IllegalArgumentException("Clients must be at least 1: " + clients);
+        }
+        ExecutorService executor = ApiServer.newRequestExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+        try {
+            List<Client> all = new ArrayList<>();
+            List<CompletableFuture<Void>> setUp = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client(http, i, new Random(seed + i));
+                all.add(client);
+                setUp.add(client.setUp());
+            }
+            join(setUp);
+
+            long begin = System.nanoTime();
+            long deadline = begin + duration.toNanos();
+            List<CompletableFuture<Void>> runs = new ArrayList<>();
+            for (Client client : all) {
+                runs.add(client.runUntil(deadline));
+            }
+            join(runs);
+
+            Report report = new Report();
+            report.elapsedNanos = System.nanoTime() - begin;
+            for (Client client : all) {
+                report.add(client);
+            }
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void join(List<CompletableFuture<Void>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Load run failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private final class Client {
+        private final HttpClient http;
+        private final int index;
+        private final Random random;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, long[]> rejected = new EnumMap<>(Operation.class);
+        private final List<String> reservationNumbers = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private String accountNumber;
+        private int created;
+        private long deadline;
+
+        private Client(HttpClient http, int index, Random random) {
+            this.http = http;
+            this.index = index;
+            this.random = random;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                rejected.put(operation, new long[1]);
+            }
+        }
+
+        // Create the client's account and first reservation; not counted in the report
+        private CompletableFuture<Void> setUp() {
+            String account = "{\"mailingAddress\":\"" + index + " Load Rd\",\"emailAddress\":\"load" + index
+                    + "@example.com\",\"phoneNumber\":\"555-0100\"}";
+            return send(post("accounts", account)).thenCompose(response -> {
+                accountNumber = field(response, "accountNumber");
+                return send(post("accounts/" + accountNumber + "/reservations", newReservation()));
+            }).thenAccept(response -> reservationNumbers.add(field(response, "reservationNumber")));
+        }
+
+        private CompletableFuture<Void> runUntil(long deadline) {
+            this.deadline = deadline;
+            next();
+            return done;
+        }
+
+        // Issue the next request; its completion issues the one after, until the deadline
+        private void next() {
+            if (System.nanoTime() >= deadline) {
+                done.complete(null);
+                return;
+            }
+            Operation operation = nextOperation();
+            String reservationNumber = reservationNumbers.get(random.nextInt(reservationNumbers.size()));
+            HttpRequest request = switch (operation) {
+                case CREATE -> post("accounts/" + accountNumber + "/reservations", newReservation());
+                case GET -> get("reservations/" + reservationNumber);
+                default -> get("reservations/" + reservationNumber + "/price");
+            };
+            long start = System.nanoTime();
+            http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                if (error != null) {
+                    done.completeExceptionally(error);
+                    return;
+                }
+                latencies.get(operation).record(System.nanoTime() - start);
+                if (response.statusCode() == 409) {
+                    rejected.get(operation)[0]++;
+                } else if (response.statusCode() >= 400) {
+                    done.completeExceptionally(new IllegalStateException(request.method() + " " + request.uri()
+                            + " answered " + response.statusCode() + ": " + response.body()));
+                    return;
+                } else if (operation == Operation.CREATE) {
+                    reservationNumbers.add(field(response, "reservationNumber"));
+                }
+                next();
+            });
+        }
+
+        private Operation nextOperation() {
+            int roll = random.nextInt(weights[0] + weights[1] + weights[2]);
+            for (Operation operation : Operation.values()) {
+                if (roll < weights[operation.ordinal()]) {
+                    return operation;
+                }
+                roll -= weights[operation.ordinal()];
+            }
+            return Operation.GET;
+        }
+
+        // A reservation at a lodging of its own, so creates are only refused when something is actually wrong
+        private String newReservation() {
+            String address = "Unit " + runId + "-" + index + "-" + created++ + " Load Rd";
+            LocalDate startDate = LocalDate.now().plusDays(1 + random.nextInt(365));
+            return "{\"type\":\"cabin\",\"lodgingPhysicalAddress\":\"" + address + "\",\"startDate\":\"" + startDate
+                    + "\",\"numberOfNights\":" + (1 + random.nextInt(14)) + ",\"numberOfBeds\":3,\"numberOfBedrooms\":2,"
+                    + "\"numberOfBathrooms\":1,\"lodgingSize\":900,\"fullKitchen\":" + random.nextBoolean() + "}";
+        }
+
+        private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+            return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+                if (response.statusCode() >= 400) {
+                    throw new IllegalStateException(request.method() + " " + request.uri() + " answered "
+                            + response.statusCode() + ": " + response.body());
+                }
+                return response;
+            });
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String field(HttpResponse<String> response, String name) {
+        return JsonParser.parseString(response.body()).getAsJsonObject().get(name).getAsString();
+    }
+
+    /**
+     * Request counts and latencies of one run, merged across clients.
+     */
+    public static final class Report {
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> rejected = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+
+        private Report() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                rejected.put(operation, 0L);
+            }
+        }
+
+        private void add(Client client) {
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).add(client.latencies.get(operation));
+                rejected.merge(operation, client.rejected.get(operation)[0], Long::sum);
+            }
+        }
+
+        public long getCount(Operation operation) {
+            return latencies.get(operation).getCount();
+        }
+
+        public long getRejectedCount(Operation operation) {
+            return rejected.get(operation);
+        }
+
+        public long getTotalCount() {
+            long total = 0;
+            for (LatencyHistogram histogram : latencies.values()) {
+                total += histogram.getCount();
+            }
+            return total;
+        }
+
+        // Requests per second over the whole run
+        public double getThroughput() {
+            return getTotalCount() / (elapsedNanos / 1e9);
+        }
+
+        // Latency in nanoseconds under which the given percentage (0-100) of requests completed
+        public long getLatencyPercentile(Operation operation, double percent) {
+            return latencies.get(operation).percentile(percent);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%d requests in %.1f s: %.0f requests/s%n",
+                    getTotalCount(), elapsedNanos / 1e9, getThroughput()));
+            text.append(String.format("%-7s %10s %10s %10s %10s %10s %10s%n",
+                    "", "count", "rejected", "p50 us", "p99 us", "p99.9 us", "max us"));
+            for (Operation operation : Operation.values()) {
+                LatencyHistogram histogram = latencies.get(operation);
+                text.append(String.format("%-7s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", operation,
+                        histogram.getCount(), rejected.get(operation), histogram.percentile(50) / 1e3,
+                        histogram.percentile(99) / 1e3, histogram.percentile(99.9) / 1e3, histogram.getMax() / 1e3));
+            }
+            return text.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 30;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        ApiServer server = null;
+        Manager manager = null;
+        URI baseUri;
+        if (args.length > 2) {
+            baseUri = URI.create(args[2].endsWith("/") ? args[2] : args[2] + "/");
+        } else {
+            manager = new Manager(Files.createTempDirectory("load-accounts"));
+            ApiServer.useTcpNoDelay();
+            server = new ApiServer(manager, 0);
+            server.start();
+            baseUri = URI.create("http://localhost:" + server.getPort() + "/");
+        }
+
+        HttpLoadDriver driver = new HttpLoadDriver(baseUri, Long.getLong("load.seed", 42));
+        String mix = System.getProperty("load.mix");
+        if (mix != null) {
+            String[] parts = mix.split(",");
+            driver.setMix(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()));
+        }
+        try {
+            System.out.print(driver.run(Duration.ofSeconds(seconds), clients));
+        } finally {
+            if (server != null) {
+                server.stop(0);
+                manager.close();
+            }
+        }
+    }
+}
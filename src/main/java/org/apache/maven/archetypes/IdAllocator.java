@@ -0,0 +1,114 @@
+package org.apache.maven.archetypes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Hands out unique fixed-width decimal IDs, such as 8-digit account numbers and 10-digit reservation
+ * numbers, without locks and without searching for free numbers.
+ *
+ * Each ID is a sequence number, taken from an AtomicLong, passed through the affine map
+ * (MULTIPLIER * sequence + OFFSET) mod 10^digits. MULTIPLIER shares no factor with 10, so the map is a
+ * bijection on the ID space: distinct sequence numbers give distinct IDs, and consecutive ones look
+ * unrelated, as the random IDs used to. IDs that already exist (records loaded or imported with numbers
+ * from elsewhere) are skipped using the given check.
+ *
+ * Sequence numbers are reserved in blocks of BLOCK_SIZE by writing the end of the block to a file before
+ * the first of them is handed out, so after a restart, even one after a crash, allocation resumes past
+ * every ID given out before. Only the thread that crosses into a new block waits for that write.
+ */
+public final class IdAllocator {
+    static final int BLOCK_SIZE = 1000;
+    // Coprime with 10, and small enough that MULTIPLIER * sequence fits in a long for 10-digit IDs
+    private static final long MULTIPLIER = 387_420_489;
+    private static final long OFFSET = 48_271;
+
+    private final Path highWaterFile;
+    private final int digits;
+    private final long capacity;
+    private final Predicate<String> taken;
+    private final AtomicLong nextSequence;
+    // Sequence numbers below this are reserved in the high-water file
+    private volatile long reservedUpTo;
+
+    // Allocator of digits-wide IDs that persists its high-water mark to the given file and skips IDs for which
+    // taken returns true
+    public IdAllocator(Path highWaterFile, int digits, Predicate<String> taken) {
+        if (digits < 1 || digits > 10) {
+            throw new IllegalArgumentException("IDs must have 1 to 10 digits: " + digits);
+        }
+        this.highWaterFile = highWaterFile;
+        this.digits = digits;
+        this.capacity = pow10(digits);
+        this.taken = taken;
+        this.reservedUpTo = readHighWaterMark(highWaterFile);
+        this.nextSequence = new AtomicLong(reservedUpTo);
+    }
+
+    private static long pow10(int digits) {
+        long value = 1;
+        for (int i = 0; i < digits; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static long readHighWaterMark(Path file) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NumberFormatException e) {
+            throw new IllegalLoadException("Invalid ID high-water mark in " + file + ": " + e.getMessage());
+        }
+    }
+
+    // The next unused ID
+    public String next() {
+        while (true) {
+            long sequence = nextSequence.getAndIncrement();
+            if (sequence >= capacity) {
+                throw new IllegalStateException("All " + digits + "-digit IDs have been allocated.");
+            }
+            if (sequence >= reservedUpTo) {
+                reserve(sequence);
+            }
+            String id = format(idFor(sequence));
+            if (!taken.test(id)) {
+                return id;
+            }
+        }
+    }
+
+    // Persist a new block that covers the sequence number; threads that reach the same block wait here for the
+    // first one to write it
+    private synchronized void reserve(long sequence) {
+        if (sequence < reservedUpTo) {
+            return;
+        }
+        long limit = Math.min(capacity, sequence + BLOCK_SIZE);
+        try {
+            AccountFiles.writeDurably(highWaterFile, Long.toString(limit));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        reservedUpTo = limit;
+    }
+
+    private long idFor(long sequence) {
+        return (MULTIPLIER % capacity * sequence + OFFSET) % capacity;
+    }
+
+    private String format(long id) {
+        String value = Long.toString(id);
+        return value.length() == digits ? value : "0".repeat(digits - value.length()) + value;
+    }
+}
@@ -0,0 +1,313 @@
+package org.apache.maven.archetypes;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent map from account or reservation numbers to records, keyed internally by a long.
+ *
+ * A number of up to MAX_DIGITS decimal digits is packed into one long together with its length, so
+ * "00000042" and "42" stay distinct and id(key(s)) gives back s exactly, leading zeros included.
+ * Packed keys live in open-addressing tables of primitive longs, split over segments: lookups hash a
+ * long instead of a String, allocate nothing and do not lock unless they race a writer (StampedLock
+ * optimistic reads); writers lock their segment. Any other key, such as one with a letter in it, goes
+ * to an ordinary ConcurrentHashMap, so the map accepts every String key.
+ *
+ * Null keys and values are not allowed, as in ConcurrentHashMap. Iteration works on a snapshot.
+ */
+final class IdKeyMap<V> extends AbstractMap<String, V> {
+    static final int MAX_DIGITS = 17;
+    // Never a packed key, since every packed key has a length of at least 1 in its low bits
+    static final long NO_KEY = 0;
+
+    private static final int LENGTH_BITS = 5;
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        // Replaced as a whole on resize, so a racing reader always sees matching keys and values
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private volatile int size;
+    }
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final Map<String, V> otherKeys = new ConcurrentHashMap<>();
+
+    IdKeyMap() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    // Packed key of a number of 1 to MAX_DIGITS digits, or NO_KEY for anything else
+    static long key(String id) {
+        int length = id.length();
+        if (length == 0 || length > MAX_DIGITS) {
+            return NO_KEY;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_KEY;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value << LENGTH_BITS | length;
+    }
+
+    // The number a packed key was made from, zero-padded to its original length
+    static String id(long key) {
+        int length = (int) (key & ((1 << LENGTH_BITS) - 1));
+        String digits = Long.toString(key >>> LENGTH_BITS);
+        return digits.length() == length ? digits : "0".repeat(length - digits.length()) + digits;
+    }
+
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    @Override
+    public V get(Object id) {
+        long key = id instanceof String string ? key(string) : NO_KEY;
+        if (key == NO_KEY) {
+            return otherKeys.get(id);
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        Object value = find(segment.table, key, hash);
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                value = find(segment.table, key, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        V found = (V) value;
+        return found;
+    }
+
+    @Override
+    public boolean containsKey(Object id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public V put(String id, V value) {
+        return store(id, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(String id, V value) {
+        return store(id, value, true);
+    }
+
+    @Override
+    public V remove(Object id) {
+        long key = id instanceof String string ? key(string) : NO_KEY;
+        if (key == NO_KEY) {
+            return otherKeys.remove(id);
+        }
+        return removeKey(key, null);
+    }
+
+    @Override
+    public boolean remove(Object id, Object value) {
+        if (value == null) {
+            return false;
+        }
+        long key = id instanceof String string ? key(string) : NO_KEY;
+        if (key == NO_KEY) {
+            return otherKeys.remove(id, value);
+        }
+        return removeKey(key, value) != null;
+    }
+
+    @Override
+    public int size() {
+        int size = otherKeys.size();
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.table = new Table(INITIAL_CAPACITY);
+                segment.size = 0;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+        otherKeys.clear();
+    }
+
+    // Snapshot of the entries, segment by segment
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        List<Entry<String, V>> entries = new ArrayList<>(size());
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i < table.keys.length; i++) {
+                    if (table.keys[i] != NO_KEY) {
+                        @SuppressWarnings("unchecked")
+                        V value = (V) table.values[i];
+                        entries.add(new SimpleImmutableEntry<>(id(table.keys[i]), value));
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        entries.addAll(otherKeys.entrySet());
+        return new HashSet<>(entries);
+    }
+
+    // Linear probe for the key; safe on a table that is being changed, since there is always an empty slot
+    private static Object find(Table table, long key, long hash) {
+        int mask = table.keys.length - 1;
+        for (int i = (int) hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long slot = table.keys[i];
+            if (slot == key) {
+                return table.values[i];
+            }
+            if (slot == NO_KEY) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private V store(String id, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(value);
+        long key = key(id);
+        if (key == NO_KEY) {
+            return onlyIfAbsent ? otherKeys.putIfAbsent(id, value) : otherKeys.put(id, value);
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            int mask = table.keys.length - 1;
+            int i = (int) hash & mask;
+            while (table.keys[i] != NO_KEY) {
+                if (table.keys[i] == key) {
+                    @SuppressWarnings("unchecked")
+                    V previous = (V) table.values[i];
+                    if (!onlyIfAbsent) {
+                        table.values[i] = value;
+                    }
+                    return previous;
+                }
+                i = (i + 1) & mask;
+            }
+            // Keep the load under 3/4 so probes stay short and every probe meets an empty slot
+            if ((segment.size + 1) * 4 > table.keys.length * 3) {
+                table = resize(segment, table);
+                mask = table.keys.length - 1;
+                i = (int) hash & mask;
+                while (table.keys[i] != NO_KEY) {
+                    i = (i + 1) & mask;
+                }
+            }
+            table.values[i] = value;
+            table.keys[i] = key;
+            segment.size++;
+            return null;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Remove the key, or only if it maps to expected when that is not null; returns the removed value
+    private V removeKey(long key, Object expected) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            int mask = table.keys.length - 1;
+            int i = (int) hash & mask;
+            while (table.keys[i] != key) {
+                if (table.keys[i] == NO_KEY) {
+                    return null;
+                }
+                i = (i + 1) & mask;
+            }
+            @SuppressWarnings("unchecked")
+            V removed = (V) table.values[i];
+            if (expected != null && !expected.equals(removed)) {
+                return null;
+            }
+            // Backward-shift deletion: move later entries of the probe run into the gap instead of leaving
+            // a tombstone
+            int gap = i;
+            for (int j = (gap + 1) & mask; table.keys[j] != NO_KEY; j = (j + 1) & mask) {
+                int home = (int) mix(table.keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    table.keys[gap] = table.keys[j];
+                    table.values[gap] = table.values[j];
+                    gap = j;
+                }
+            }
+            table.keys[gap] = NO_KEY;
+            table.values[gap] = null;
+            segment.size--;
+            return removed;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Called with the segment write-locked
+    private static Table resize(Segment segment, Table table) {
+        Table larger = new Table(table.keys.length * 2);
+        int mask = larger.keys.length - 1;
+        for (int j = 0; j < table.keys.length; j++) {
+            long key = table.keys[j];
+            if (key != NO_KEY) {
+                int i = (int) mix(key) & mask;
+                while (larger.keys[i] != NO_KEY) {
+                    i = (i + 1) & mask;
+                }
+                larger.keys[i] = key;
+                larger.values[i] = table.values[j];
+            }
+        }
+        segment.table = larger;
+        return larger;
+    }
+}
@@ -1,6 +1,6 @@
 package org.apache.maven.archetypes;
 
-class IllegalLoadException extends RuntimeException {
+public class IllegalLoadException extends RuntimeException {
     public IllegalLoadException(String message) {
         super(message);
     }
@@ -0,0 +1,410 @@
+package org.apache.maven.archetypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of account and reservation mutations.
+ *
+ * Each record holds the full text form of the changed account or reservation, so replaying a record is
+ * an idempotent upsert, and the last record of an account or reservation wins. Writers queue their
+ * record for a single flusher thread, which writes records in queue order, and then block until it is
+ * on disk; the flusher gathers records for up to the flush interval (or until the batch is full) and
+ * writes and syncs them together, so concurrent writers share one fsync. A writer queues while still
+ * holding the lock that orders its change, and waits after releasing it, so two changes of the same
+ * record are journaled in the order they were made. A caller that makes many changes under different
+ * locks, such as a bulk batch, opens a group first: the group takes its place in the queue at once,
+ * collects records until it is sealed, and is written in one piece, so the flusher holds back the
+ * records queued behind it until then.
+ *
+ * The journal is split into numbered segments ("journal-000001.log", ...). A checkpoint rolls to a new
+ * segment, writes the affected records to the base files and then deletes the sealed segments.
+ *
+ * Record layout: int length of (type + payload), byte type, UTF-8 payload, int CRC32 of (type + payload).
+ */
+final class Journal implements Closeable {
+    static final byte ACCOUNT = 1;
+    static final byte RESERVATION = 2;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final PendingRecord CLOSE = new PendingRecord(null, 0);
+    private static final CompletableFuture<Void> SEALED = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final long flushIntervalNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    // Guards the channel and segment number; held while a batch is written and while rolling segments
+    private final Object segmentLock = new Object();
+    private FileChannel channel;
+    private long segmentNumber;
+    private volatile boolean closed;
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    // A queued record, several written together, or a group; pass it to await to wait until it is on disk
+    static final class PendingRecord {
+        // One or more encoded records, written together; set when a group is sealed
+        private byte[] encoded;
+        private int count;
+        // Records added to a group that is not sealed yet, null otherwise; guarded by the record
+        private ByteArrayOutputStream open;
+        // Complete once the record can be written; the flusher waits on it, so it sees encoded and count
+        private final CompletableFuture<Void> sealed;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingRecord(byte[] encoded, int count) {
+            this.encoded = encoded;
+            this.count = count;
+            this.sealed = SEALED;
+        }
+
+        private PendingRecord() {
+            this.open = new ByteArrayOutputStream();
+            this.sealed = new CompletableFuture<>();
+        }
+    }
+
+    // Open a new segment after any existing ones and start the flusher thread
+    Journal(Path directory, long flushIntervalMillis, int maxBatchSize) throws IOException {
+        if (flushIntervalMillis < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid journal settings: flush interval " + flushIntervalMillis
+                    + " ms, batch size " + maxBatchSize);
+        }
+        this.directory = directory;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxBatchSize = maxBatchSize;
+
+        Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        this.segmentNumber = existing.isEmpty() ? 1 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+        this.channel = openSegment(segmentNumber);
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Queue a record behind every record queued before it, without waiting for it to be written
+    PendingRecord enqueue(byte type, String payload) {
+        return enqueue(new PendingRecord(encode(type, payload), 1));
+    }
+
+    // Add a record to an open group, or queue it on its own when group is null; returns what to await
+    PendingRecord enqueue(PendingRecord group, byte type, String payload) {
+        if (group == null) {
+            return enqueue(type, payload);
+        }
+        addToGroup(group, encode(type, payload), 1);
+        return group;
+    }
+
+    // Queue records to be written together, behind every record queued before them
+    PendingRecord enqueueAll(byte[] types, List<String> payloads) {
+        return enqueue(new PendingRecord(encodeAll(types, payloads), types.length));
+    }
+
+    // Add records to an open group, or queue them together when group is null; returns what to await
+    PendingRecord enqueueAll(PendingRecord group, byte[] types, List<String> payloads) {
+        if (group == null) {
+            return enqueueAll(types, payloads);
+        }
+        addToGroup(group, encodeAll(types, payloads), types.length);
+        return group;
+    }
+
+    // Queue an empty group, which holds back the records queued after it until it is sealed
+    PendingRecord openGroup() {
+        return enqueue(new PendingRecord());
+    }
+
+    // Close a group to further records and let the flusher write it; every opened group must be sealed
+    static void seal(PendingRecord group) {
+        synchronized (group) {
+            if (group.open == null) {
+                return;
+            }
+            group.encoded = group.open.toByteArray();
+            group.open = null;
+        }
+        group.sealed.complete(null);
+    }
+
+    private static void addToGroup(PendingRecord group, byte[] encoded, int count) {
+        synchronized (group) {
+            if (group.open == null) {
+                throw new IllegalStateException("Journal group is already sealed.");
+            }
+            group.open.writeBytes(encoded);
+            group.count += count;
+        }
+    }
+
+    private PendingRecord enqueue(PendingRecord record) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed.");
+        }
+        queue.add(record);
+        return record;
+    }
+
+    // Wait until a queued record has been synced to disk
+    static void await(PendingRecord record) {
+        try {
+            record.written.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException("Failed to write journal record", cause);
+            }
+            throw e;
+        }
+    }
+
+    // Start a new segment and return the sealed ones; records written from now on go to the new segment
+    List<Path> roll() throws IOException {
+        synchronized (segmentLock) {
+            channel.force(true);
+            channel.close();
+            segmentNumber++;
+            channel = openSegment(segmentNumber);
+            List<Path> sealed = new ArrayList<>();
+            for (Path segment : segments(directory)) {
+                if (segmentNumber(segment) < segmentNumber) {
+                    sealed.add(segment);
+                }
+            }
+            return sealed;
+        }
+    }
+
+    // Number of records written and number of fsyncs used to write them
+    long getRecordCount() {
+        return records.sum();
+    }
+
+    long getSyncCount() {
+        return syncs.sum();
+    }
+
+    // Flush everything already appended, stop the flusher and close the current segment
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(CLOSE);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (segmentLock) {
+            channel.close();
+            Path current = segmentPath(segmentNumber);
+            if (Files.size(current) == 0) {
+                Files.delete(current);
+            }
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            flushUntilClosed();
+        } finally {
+            // Fail any writer that slipped in behind the close marker instead of leaving it waiting
+            PendingRecord late;
+            while ((late = queue.poll()) != null) {
+                if (late != CLOSE) {
+                    late.written.completeExceptionally(new IOException("Journal is closed."));
+                }
+            }
+        }
+    }
+
+    private void flushUntilClosed() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                PendingRecord first = queue.take();
+                if (first == CLOSE) {
+                    return;
+                }
+                addWhenSealed(batch, first);
+
+                // Give other writers up to the flush interval to join this batch
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRecord next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == CLOSE) {
+                        stopping = true;
+                        break;
+                    }
+                    addWhenSealed(batch, next);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    // Add a record to the batch once it can be written; a group sealed without records is done at once
+    private static void addWhenSealed(List<PendingRecord> batch, PendingRecord record) {
+        record.sealed.join();
+        if (record.count == 0) {
+            record.written.complete(null);
+        } else {
+            batch.add(record);
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = 0;
+        for (PendingRecord record : batch) {
+            size += record.encoded.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (PendingRecord record : batch) {
+            buffer.put(record.encoded);
+        }
+        buffer.flip();
+
+        try {
+            synchronized (segmentLock) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            for (PendingRecord record : batch) {
+                records.add(record.count);
+            }
+            syncs.increment();
+            for (PendingRecord record : batch) {
+                record.written.complete(null);
+            }
+        } catch (IOException e) {
+            for (PendingRecord record : batch) {
+                record.written.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static byte[] encodeAll(byte[] types, List<String> payloads) {
+        if (types.length != payloads.size()) {
+            throw new IllegalArgumentException("Expected one type per payload.");
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        for (int i = 0; i < types.length; i++) {
+            encoded.writeBytes(encode(types[i], payloads.get(i)));
+        }
+        return encoded.toByteArray();
+    }
+
+    private static byte[] encode(byte type, String payload) {
+        byte[] text = payload.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(text);
+
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 1 + text.length + Integer.BYTES);
+        buffer.putInt(1 + text.length);
+        buffer.put(type);
+        buffer.put(text);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    // Replay every valid record of a segment in order; a torn or corrupt tail is reported and cut off
+    static int replay(Path segment, BiConsumer<Byte, String> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int replayed = 0;
+        int validLength = 0;
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length < 1 || length > buffer.remaining() - Integer.BYTES) {
+                break;
+            }
+            byte type = buffer.get();
+            String payload = new String(buffer.array(), buffer.position(), length - 1, StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), buffer.position() - 1, length);
+            buffer.position(buffer.position() + length - 1);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                break;
+            }
+            consumer.accept(type, payload);
+            replayed++;
+            validLength = buffer.position();
+        }
+        if (validLength < buffer.capacity()) {
+            System.out.println("Journal segment " + segment.getFileName() + " has "
+                    + (buffer.capacity() - validLength) + " bytes of incomplete records; truncating them.");
+            try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                truncate.truncate(validLength);
+            }
+        }
+        return replayed;
+    }
+
+    // Journal segments in the directory, oldest first
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+}
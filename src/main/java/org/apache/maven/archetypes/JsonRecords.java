@@ -0,0 +1,174 @@
+package org.apache.maven.archetypes;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON form of accounts and reservations, shared by the HTTP API and bulk import/export.
+ *
+ * Fields are named after the getters; a reservation has "type" ("hotel", "cabin" or "house") and the
+ * field of its type (kitchenette, fullKitchen or numberOfFloors). startDate is written to the second in
+ * the form of DataFileParser.formatDate, e.g. "2100-01-01T15:30:00+02:00", so an export keeps the time of
+ * day and imports the same instant in any time zone; a bare YYYY-MM-DD is also accepted and means
+ * midnight in the system time zone, as Main reads it. Missing or malformed fields, including a field of
+ * the wrong JSON type, throw IllegalArgumentException, so callers need not catch Gson's
+ * IllegalStateException or UnsupportedOperationException.
+ */
+final class JsonRecords {
+    private JsonRecords() {
+    }
+
+    static Map<String, Object> toJson(Account account) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("accountNumber", account.getAccountNumber());
+        json.put("mailingAddress", account.getMailingAddress());
+        json.put("emailAddress", account.getEmailAddress());
+        json.put("phoneNumber", account.getPhoneNumber());
+        List<String> reservations = new ArrayList<>();
+        for (Reservation reservation : account.getReservations()) {
+            reservations.add(reservation.getReservationNumber());
+        }
+        json.put("reservations", reservations);
+        return json;
+    }
+
+    static Map<String, Object> toJson(Reservation reservation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("accountNumber", reservation.getAccountNumber());
+        json.put("reservationNumber", reservation.getReservationNumber());
+        json.put("lodgingPhysicalAddress", reservation.getLodgingPhysicalAddress());
+        json.put("lodgingMailingAddress", reservation.getLodgingMailingAddress());
+        json.put("startDate", DataFileParser.formatDate(reservation.getStartDate()));
+        json.put("numberOfNights", reservation.getNumberOfNights());
+        json.put("numberOfBeds", reservation.getNumberOfBeds());
+        json.put("numberOfBedrooms", reservation.getNumberOfBedrooms());
+        json.put("numberOfBathrooms", reservation.getNumberOfBathrooms());
+        json.put("lodgingSize", reservation.getLodgingSize());
+        if (reservation instanceof HotelReservation hotel) {
+            json.put("type", "hotel");
+            json.put("kitchenette", hotel.hasKitchenette());
+        } else if (reservation instanceof CabinReservation cabin) {
+            json.put("type", "cabin");
+            json.put("fullKitchen", cabin.isFullKitchen());
+        } else if (reservation instanceof HouseReservation house) {
+            json.put("type", "house");
+            json.put("numberOfFloors", house.getNumberOfFloors());
+        }
+        json.put("price", reservation.getPrice());
+        json.put("status", reservation.getStatus().name());
+        return json;
+    }
+
+    // Account with the number and contact fields of the body; any "reservations" field is ignored
+    static Account toAccount(JsonObject body) {
+        return new Account(requiredString(body, "accountNumber"), requiredString(body, "mailingAddress"),
+                requiredString(body, "emailAddress"), requiredString(body, "phoneNumber"));
+    }
+
+    // Draft reservation with the given numbers and the lodging fields of the body, priced by the current rules
+    static Reservation toReservation(String accountNumber, String reservationNumber, JsonObject body) {
+        String physicalAddress = requiredString(body, "lodgingPhysicalAddress");
+        String mailingAddress = body.has("lodgingMailingAddress") ? requiredString(body, "lodgingMailingAddress") : "";
+        Date startDate = parseStartDate(requiredString(body, "startDate"));
+        int nights = requiredInt(body, "numberOfNights");
+        int beds = requiredInt(body, "numberOfBeds");
+        int bedrooms = requiredInt(body, "numberOfBedrooms");
+        int bathrooms = requiredInt(body, "numberOfBathrooms");
+        int size = requiredInt(body, "lodgingSize");
+        if (nights < 1) {
+            throw new IllegalArgumentException("numberOfNights must be at least 1.");
+        }
+        Reservation reservation = switch (requiredString(body, "type").toLowerCase()) {
+            case "hotel" -> new HotelReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
+                    startDate, nights, beds, bedrooms, bathrooms, size, optionalBoolean(body, "kitchenette"));
+            case "cabin" -> new CabinReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
+                    startDate, nights, beds, bedrooms, bathrooms, size, optionalBoolean(body, "fullKitchen"));
+            case "house" -> new HouseReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
+                    startDate, nights, beds, bedrooms, bathrooms, size, requiredInt(body, "numberOfFloors"));
+            default -> throw new IllegalArgumentException("type must be hotel, cabin or house.");
+        };
+        reservation.calculatePrice();
+        return reservation;
+    }
+
+    // Reservation with every field of the body, numbers, status and price included
+    static Reservation toStoredReservation(JsonObject body) {
+        Reservation reservation = toReservation(requiredString(body, "accountNumber"),
+                requiredString(body, "reservationNumber"), body);
+        if (body.has("status")) {
+            try {
+                reservation.setStatus(ReservationStatus.valueOf(requiredString(body, "status").toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status: " + body.get("status").getAsString());
+            }
+        }
+        if (body.has("price")) {
+            try {
+                reservation.setPrice(primitive(body, "price").getAsDouble());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Field price must be a number.");
+            }
+        }
+        return reservation;
+    }
+
+    // The instant written by DataFileParser.formatDate, or midnight in the system time zone for a bare YYYY-MM-DD
+    private static Date parseStartDate(String text) {
+        try {
+            if (text.length() > 10 && text.charAt(10) == 'T') {
+                return DataFileParser.parseDate(text);
+            }
+            return Date.from(LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (IllegalLoadException | DateTimeParseException e) {
+            throw new IllegalArgumentException("startDate must be yyyy-MM-ddTHH:mm:ss+hh:mm or YYYY-MM-DD: " + text);
+        }
+    }
+
+    static String requiredString(JsonObject body, String name) {
+        return primitive(body, name).getAsString();
+    }
+
+    // A present string, number or boolean field; Gson's getters throw other exceptions for arrays and objects
+    private static JsonPrimitive primitive(JsonObject body, String name) {
+        JsonElement value = body.get(name);
+        if (value == null || value.isJsonNull()) {
+            throw new IllegalArgumentException("Missing field " + name + ".");
+        }
+        if (!value.isJsonPrimitive()) {
+            throw new IllegalArgumentException("Field " + name + " must be a string, number or boolean.");
+        }
+        return value.getAsJsonPrimitive();
+    }
+
+    static int requiredInt(JsonObject body, String name) {
+        String value = requiredString(body, name);
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field " + name + " must be a whole number: " + value);
+        }
+    }
+
+    // Absent means false; CSV cells arrive as strings, so "true" and "false" are accepted too
+    private static boolean optionalBoolean(JsonObject body, String name) {
+        JsonElement value = body.get(name);
+        if (value == null || value.isJsonNull()) {
+            return false;
+        }
+        String text = primitive(body, name).getAsString().strip();
+        if (!text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Field " + name + " must be true or false: " + text);
+        }
+        return Boolean.parseBoolean(text);
+    }
+}
@@ -0,0 +1,82 @@
+package org.apache.maven.archetypes;
+
+/**
+ * Log-linear histogram of durations in nanoseconds.
+ *
+ * Values below 16 get a bucket each; above that every power of two is split into 16 buckets, so a
+ * recorded value is off by at most 1/16 (about 6%) whatever its size, in a fixed 960-slot array.
+ * Not thread-safe: record on one thread and merge with add.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    // Add values counted elsewhere in the bucket bucketOf gave for them, none of them larger than maxValue
+    void addBucket(int bucket, long bucketCount, long maxValue) {
+        counts[bucket] += bucketCount;
+        count += bucketCount;
+        max = Math.max(max, maxValue);
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    // Smallest recorded bucket bound that at least the given percentage (0-100) of values fall under
+    long percentile(double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percent / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, upperBoundOf(i));
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
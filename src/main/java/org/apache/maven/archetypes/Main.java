@@ -1,13 +1,11 @@
 package org.apache.maven.archetypes;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Random;
 import java.util.Scanner;
 
 /**
@@ -15,7 +13,11 @@ import java.util.Scanner;
  */
 public class Main {
     private static final Scanner scanner = new Scanner(System.in);
-    private static final Manager manager = new Manager();
+    // Account folders are loaded on a pool sized by -Dloader.parallelism (defaults to the number of cores),
+    // or on first use with -Dloader.lazy=true; -Dids.primitive=true indexes them by long keys
+    private static final Manager manager = new Manager(Path.of("data/accounts"),
+            Integer.getInteger("loader.parallelism", Runtime.getRuntime().availableProcessors()),
+            Boolean.getBoolean("loader.lazy"), Boolean.getBoolean("ids.primitive"));
 
     
      /**
@@ -24,6 +26,43 @@ public class Main {
      * @param args The command-line arguments.
      */
     public static void main(String[] args) {
+        // Mutations are journaled; -Djournal.flushIntervalMillis and -Djournal.batchSize tune group commit and
+        // -Djournal.checkpointIntervalMillis how often the journal is folded into the account files.
+        // -Dpersistence.writeBehind=true skips the journal and writes changed records every
+        // -DwriteBehind.flushIntervalMillis instead, losing the last changes if the process is killed
+        if (Boolean.getBoolean("persistence.writeBehind")) {
+            manager.startWriteBehind(Long.getLong("writeBehind.flushIntervalMillis", 100));
+        } else {
+            try {
+                manager.startJournal(Long.getLong("journal.flushIntervalMillis", 2),
+                        Integer.getInteger("journal.batchSize", 64),
+                        Long.getLong("journal.checkpointIntervalMillis", 60000));
+            } catch (IOException e) {
+                System.out.println("Failed to open journal: " + e.getMessage());
+                return;
+            }
+        }
+        // Operation metrics are MBeans under org.apache.maven.archetypes:type=Manager; -Dmetrics.dumpIntervalMillis
+        // also prints them that often
+        manager.getMetrics().registerMBeans("Manager");
+        long dumpIntervalMillis = Long.getLong("metrics.dumpIntervalMillis", 0);
+        if (dumpIntervalMillis > 0) {
+            manager.getMetrics().startDump(dumpIntervalMillis, System.out::print);
+        }
+        // Drafts expire at their start date and completed stays finish after their last night, checked every
+        // -Dtimers.tickMillis; -Dtimers.enabled=false leaves statuses to the menu operations
+        if (Boolean.parseBoolean(System.getProperty("timers.enabled", "true"))) {
+            manager.startTimers(Long.getLong("timers.tickMillis", 1000));
+        }
+        // -Dloader.watch=true picks up files other tools write into data/accounts while running
+        if (Boolean.getBoolean("loader.watch")) {
+            try {
+                manager.startWatching(Long.getLong("watch.debounceMillis", 50));
+            } catch (IOException e) {
+                System.out.println("Failed to watch data/accounts: " + e.getMessage());
+            }
+        }
+
         boolean exit = false;
 
         while (!exit) {
@@ -34,7 +73,8 @@ public class Main {
             System.out.println("4. Update Account");
             System.out.println("5. Update Reservation");
             System.out.println("6. Cancel Reservation");
-            System.out.println("7. Exit");
+            System.out.println("7. Write Snapshot");
+            System.out.println("8. Exit");
             System.out.println("===============================");
 
             int choice = getChoice();
@@ -46,10 +86,18 @@ public class Main {
                 case 4 -> updateAccount();
                 case 5 -> updateReservation();
                 case 6 -> cancelReservation();
-                case 7 -> exit = true;
+                case 7 -> writeSnapshot();
+                case 8 -> exit = true;
                 default -> System.out.println("Invalid choice. Please try again.");
             }
         }
+
+        // Write pending changes to the account files before exiting
+        try {
+            manager.close();
+        } catch (IOException e) {
+            System.out.println("Failed to write pending changes: " + e.getMessage());
+        }
     }
     
     /**
@@ -70,9 +118,8 @@ public class Main {
     private static void createAccount() {
         System.out.println("========== Create Account ==========");
 
-        // Generate a random 8-digit account number
-        Random random = new Random();
-        String accountNumber = String.format("%08d", random.nextInt(100000000));
+        // Allocate a unique 8-digit account number
+        String accountNumber = manager.newAccountNumber();
 
         System.out.println("Enter Account INFO Below");
 
@@ -86,26 +133,10 @@ public class Main {
         String phoneNumber = scanner.nextLine();
 
         Account account = new Account(accountNumber, mailingAddress, emailAddress, phoneNumber);
-        manager.addAccount(account);
-
-        // Specify the account directory path
-        String accountDirectoryPath = "data/accounts/Acc-" + accountNumber;
-
-        // Create the account directory
-        Path accountDirectory = Path.of(accountDirectoryPath);
-        try {
-            Files.createDirectories(accountDirectory);
-        } catch (IOException e) {
-            System.out.println("Failed to create account directory: " + e.getMessage());
-            return;
-        }
-
-        // Save the account data in the account file
-        String accountFileName = "acc-" + accountNumber + ".txt";
-        String accountFilePath = accountDirectoryPath + "/" + accountFileName;
         try {
-            Files.write(Path.of(accountFilePath), account.toString().getBytes(), StandardOpenOption.CREATE);
-        } catch (IOException e) {
+            // Add the account; the manager journals it and the next checkpoint writes the account file
+            manager.addAccount(account);
+        } catch (UncheckedIOException e) {
             System.out.println("Failed to save account: " + e.getMessage());
             return;
         }
@@ -119,25 +150,12 @@ public class Main {
         System.out.print("Enter account number: ");
         String accountNumber = scanner.next();
 
-        // Check if the account folder exists
-        String accountDirectoryPath = "data/accounts/Acc-" + accountNumber;
-        if (!Files.exists(Path.of(accountDirectoryPath))) {
-            System.out.println("Account not found 1.");
-            return;
-        }
-
-        // Check if the account file exists
-        String accountFilePath = accountDirectoryPath + "/acc-" + accountNumber + ".txt";
-        if (!Files.exists(Path.of(accountFilePath))) {
-            System.out.println("Account not found 2.");
-            return;
-        }
-
+        // The manager holds every loaded and journaled account, including ones not yet checkpointed to files
         Account account = manager.getAccount(accountNumber);
         if (account != null) {
             System.out.println(account);
         } else {
-            System.out.println("Account not found 3.");
+            System.out.println("Account not found.");
         }
     }
 
@@ -153,18 +171,10 @@ public class Main {
             accountNumber = accountNumber.substring(4);
         }
 
-        // Check if the account file exists
-        String accountFilePath = "data/accounts/Acc-" + accountNumber + "/acc-" + accountNumber + ".txt";
-        if (!Files.exists(Path.of(accountFilePath))) {
-            System.out.println("Account not found.");
-            return;
-        }
-
         Account account = manager.getAccount(accountNumber);
         if (account != null) {
-            // Generate a random 10-digit reservation number
-            Random random = new Random();
-            String reservationNumber = String.format("%010d", random.nextInt(1000000000));
+            // Allocate a unique 10-digit reservation number
+            String reservationNumber = manager.newReservationNumber();
 
             System.out.print("Enter lodging physical address: ");
             String lodgingPhysicalAddress = scanner.nextLine();
@@ -225,28 +235,14 @@ public class Main {
                 }
 
                 reservation.calculatePrice(); // Calculate the price for the reservation
-                account.addReservation(reservation); // Add the reservation to the account's reservation list
-
-                // Specify the reservation file path
-                String reservationFileName = "res-" + reservationNumber + ".txt";
-                String reservationDirectoryPath = "data/accounts/Acc-" + accountNumber;
-                String reservationFilePath = reservationDirectoryPath + "/" + reservationFileName;
-
-                // Create the account directory if it does not exist
-                Path reservationDirectory = Path.of(reservationDirectoryPath);
-                if (!Files.exists(reservationDirectory)) {
-                    try {
-                        Files.createDirectories(reservationDirectory);
-                    } catch (IOException e) {
-                        System.out.println("Failed to create reservation directory: " + e.getMessage());
-                        return;
-                    }
-                }
-
-                // Save the reservation data in the reservation file
                 try {
-                    Files.write(Path.of(reservationFilePath), reservation.toString().getBytes(), StandardOpenOption.CREATE);
-                } catch (IOException e) {
+                    // Add, index and journal the reservation under the account
+                    manager.addReservation(accountNumber, reservation);
+                } catch (IllegalOperationException e) {
+                    // The lodging is already booked for some of these nights
+                    System.out.println(e.getMessage());
+                    return;
+                } catch (UncheckedIOException e) {
                     System.out.println("Failed to save reservation: " + e.getMessage());
                     return;
                 }
@@ -279,18 +275,12 @@ public class Main {
             String newPhoneNumber = scanner.next();
             scanner.nextLine(); // Consume the newline character
 
-            // Update the account object
-            account.setMailingAddress(newMailingAddress);
-            account.setEmailAddress(newEmailAddress);
-            account.setPhoneNumber(newPhoneNumber);
-
-            // Save the updated account object to the file
-            String accountFilePath = "data/accounts/Acc-" + accountNumber + "/acc-" + accountNumber + ".txt";
+            // Update and journal the account
             try {
-                Files.write(Path.of(accountFilePath), account.toString().getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                manager.updateAccount(accountNumber, newMailingAddress, newEmailAddress, newPhoneNumber);
                 System.out.println("Account updated successfully.");
                 System.out.println(account);
-            } catch (IOException e) {
+            } catch (UncheckedIOException e) {
                 System.out.println("Failed to update account: " + e.getMessage());
             }
         } else {
@@ -367,16 +357,14 @@ public class Main {
                             updatedReservation.calculatePrice(); // Calculate price for the updated reservation
                             updatedReservation.setStatus(ReservationStatus.COMPLETED); // Mark the reservation as completed
 
-                            // Update the existing reservation object in the account's reservations list
-                            manager.updateReservation(accountNumber, updatedReservation);
-
-                            // Save the updated reservation object to the file
-                            String reservationFilePath = "data/accounts/Acc-" + accountNumber + "/res-" + reservationNumber + ".txt";
+                            // Update and journal the existing reservation object in the account's reservations list
                             try {
-                                Files.write(Path.of(reservationFilePath), updatedReservation.toString().getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                                manager.updateReservation(accountNumber, updatedReservation);
                                 System.out.println("Reservation updated successfully and marked as completed.");
                                 System.out.println(updatedReservation);
-                            } catch (IOException e) {
+                            } catch (IllegalOperationException e) {
+                                System.out.println(e.getMessage());
+                            } catch (UncheckedIOException e) {
                                 System.out.println("Failed to update reservation: " + e.getMessage());
                             }
                         } else {
@@ -409,18 +397,13 @@ public class Main {
             Reservation reservation = manager.getReservation(reservationNumber);
             if (reservation != null) {
                 if (reservation.getStatus().equals(ReservationStatus.DRAFT)) {
-                    // Calculate the price before canceling the reservation
-                    reservation.calculatePrice();
-
-                    // Update the status of the reservation to "CANCELLED" in the in-memory object
-                    reservation.setStatus(ReservationStatus.CANCELLED);
-
-                    // Update the status of the reservation in the corresponding file
-                    String reservationFilePath = "data/accounts/Acc-" + accountNumber + "/res-" + reservationNumber + ".txt";
+                    // Cancel and journal the reservation; the manager only cancels drafts that have not started
                     try {
-                        Files.write(Path.of(reservationFilePath), reservation.toString().getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                        manager.cancelReservation(accountNumber, reservationNumber);
                         System.out.println("Reservation cancelled successfully.");
-                    } catch (IOException e) {
+                    } catch (IllegalOperationException e) {
+                        System.out.println(e.getMessage());
+                    } catch (UncheckedIOException e) {
                         System.out.println("Failed to cancel reservation: " + e.getMessage());
                     }
                 } else {
@@ -434,6 +417,18 @@ public class Main {
         }
     }
 
+    /**
+     * Writes all accounts and reservations to the snapshot file loaded on the next start.
+     */
+    private static void writeSnapshot() {
+        try {
+            manager.writeSnapshot();
+            System.out.println("Snapshot written successfully.");
+        } catch (IOException e) {
+            System.out.println("Failed to write snapshot: " + e.getMessage());
+        }
+    }
+
     private static Date parseDate(String dateString) {
         SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
         try {
@@ -4,290 +4,1884 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
+/**
+ * Holds every account and reservation in memory and applies all mutations.
+ *
+ * The manager is safe for concurrent use. Reads go straight to concurrent indexes without locking.
+ * Mutations of one account are serialized by a lock striped by account number, so callers working on
+ * different accounts rarely wait for each other, and reservation numbers are claimed atomically in the
+ * index so two accounts can never take the same one. Status changes out of DRAFT are compare-and-set,
+ * so when a completion and a cancellation race exactly one of them succeeds.
+ *
+ * New and updated reservations may not overlap another active booking of the same lodging physical
+ * address; data loaded from files is indexed as it is, even if it already overlaps.
+ */
 public class Manager {
+    private static final int LOCK_STRIPES = 64;
+
+    // Copy-on-write, in load/insertion order; loaders add accounts in bulk
     private final List<Account> accounts;
+    // Primary indexes, kept in sync with the per-account reservation lists
+    private final Map<String, Account> accountsByNumber;
+    private final Map<String, Reservation> reservationsByNumber;
+    // Back-reference from a reservation number to the account that owns it
+    private final Map<String, Account> reservationOwners;
+    // primitiveIds mode: one copy of each account number and address among the loaded reservations; null
+    // otherwise
+    private final StringPool strings;
+    // Active bookings by lodging address, used to refuse double bookings
+    private final BookingIndex bookings = new BookingIndex();
+    // Reservations by start and end day, updated with the counters by every mutation
+    private final ReservationDayIndex dayIndex = new ReservationDayIndex();
+    // Reservations and revenue per status, kept up to date by every mutation
+    private final ReservationCounters counters = new ReservationCounters();
+    // Serializes mutations of the accounts hashed to each stripe
+    private final Object[] accountLocks;
+    private final Path accountsDirectory;
+    private final int loaderParallelism;
+    // Whether accounts are loaded on first use instead of at startup
+    private final boolean lazyLoading;
+    private final LongAdder faultedInAccounts = new LongAdder();
+    // Lazy mode: account number of each reservation file listed at registration, until that account is loaded
+    private final Map<String, String> unloadedReservationOwners = new ConcurrentHashMap<>();
+    // Write-ahead journal, null until startJournal is called
+    private volatile Journal journal;
+    // Whether changed records are tracked and written behind by checkpoints; set by startJournal and startWriteBehind
+    private volatile boolean writingBehind;
+    private ScheduledExecutorService checkpointScheduler;
+    // Runs close() if the JVM exits while changes are still waiting to be written
+    private Thread shutdownHook;
+    // Reloads data files changed by other tools, null unless startWatching is called
+    private AccountTreeWatcher watcher;
+    private final LongAdder reloadedFiles = new LongAdder();
+    // Applies time-based transitions, DRAFT to EXPIRED at the start date and COMPLETED to FINISHED after the
+    // last night, from a timing wheel; null unless startTimers is called
+    private ScheduledExecutorService timerScheduler;
+    private volatile boolean timersRunning;
+    // Reservations added or replaced since the timer thread last ran, waiting to be put on its wheel
+    private final Queue<Reservation> unscheduledReservations = new ConcurrentLinkedQueue<>();
+    private final LongAdder timedTransitions = new LongAdder();
+    private static final long NO_TRANSITION = Long.MIN_VALUE;
+    // Records changed since the last checkpoint, swapped out by each checkpoint; a record changed many times
+    // before a checkpoint is written once
+    private volatile Set<String> dirtyAccounts = ConcurrentHashMap.newKeySet();
+    private volatile Set<String> dirtyReservations = ConcurrentHashMap.newKeySet();
+    // System.nanoTime() of the oldest change not yet written, NONE_PENDING when everything is written
+    private static final long NONE_PENDING = Long.MIN_VALUE;
+    private final AtomicLong oldestPendingChange = new AtomicLong(NONE_PENDING);
+    private final LongAdder writtenRecords = new LongAdder();
+    // Shared by mutations while they mark records dirty, exclusive while a checkpoint swaps the sets
+    private final ReadWriteLock dirtyLock = new ReentrantReadWriteLock();
+    private final Object checkpointLock = new Object();
+    // Journal segments replayed at startup, deleted by the first checkpoint whatever the mode; guarded by
+    // checkpointLock
+    private List<Path> replayedSegments = List.of();
+    // Hand out new account and reservation numbers, skipping numbers already in use
+    private final IdAllocator accountIds;
+    private final IdAllocator reservationIds;
+    // Calls, errors and latencies of the public operations, the loader phases and the persistence writes
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final MetricsRegistry.Timer getAccountTimer = metrics.timer("getAccount");
+    private final MetricsRegistry.Timer newAccountNumberTimer = metrics.timer("newAccountNumber");
+    private final MetricsRegistry.Timer newReservationNumberTimer = metrics.timer("newReservationNumber");
+    private final MetricsRegistry.Timer addAccountTimer = metrics.timer("addAccount");
+    private final MetricsRegistry.Timer updateAccountTimer = metrics.timer("updateAccount");
+    private final MetricsRegistry.Timer addReservationTimer = metrics.timer("addReservation");
+    private final MetricsRegistry.Timer addBatchTimer = metrics.timer("addBatch");
+    private final MetricsRegistry.Timer completeReservationTimer = metrics.timer("completeReservation");
+    private final MetricsRegistry.Timer cancelReservationTimer = metrics.timer("cancelReservation");
+    private final MetricsRegistry.Timer calculatePricePerNightTimer = metrics.timer("calculatePricePerNight");
+    private final MetricsRegistry.Timer calculateTotalPriceTimer = metrics.timer("calculateTotalPrice");
+    private final MetricsRegistry.Timer getReservationTimer = metrics.timer("getReservation");
+    private final MetricsRegistry.Timer getReservationsStartingBetweenTimer = metrics.timer("getReservationsStartingBetween");
+    private final MetricsRegistry.Timer getReservationsEndingBetweenTimer = metrics.timer("getReservationsEndingBetween");
+    private final MetricsRegistry.Timer getReservationOwnerTimer = metrics.timer("getReservationOwner");
+    private final MetricsRegistry.Timer checkReservationCountersTimer = metrics.timer("checkReservationCounters");
+    private final MetricsRegistry.Timer getOverlappingReservationsTimer = metrics.timer("getOverlappingReservations");
+    private final MetricsRegistry.Timer getReservationColumnsTimer = metrics.timer("getReservationColumns");
+    private final MetricsRegistry.Timer aggregateReservationsTimer = metrics.timer("aggregateReservations");
+    private final MetricsRegistry.Timer updateReservationTimer = metrics.timer("updateReservation");
+    private final MetricsRegistry.Timer updateLodgingAddressTimer = metrics.timer("updateLodgingAddress");
+    private final MetricsRegistry.Timer writeSnapshotTimer = metrics.timer("writeSnapshot");
+    private final MetricsRegistry.Timer checkpointTimer = metrics.timer("checkpoint");
+    private final MetricsRegistry.Timer fileWriteTimer = metrics.timer("write.file");
+    private final MetricsRegistry.Timer journalWriteTimer = metrics.timer("write.journal");
+    private final MetricsRegistry.Timer listingTimer = metrics.timer("load.listing");
+    private final MetricsRegistry.Timer readingTimer = metrics.timer("load.reading");
+    private final MetricsRegistry.Timer parsingTimer = metrics.timer("load.parsing");
+    private final MetricsRegistry.Timer indexingTimer = metrics.timer("load.indexing");
+    private final MetricsRegistry.Timer snapshotLoadTimer = metrics.timer("load.snapshot");
     private static final String ACCOUNTS_DIRECTORY = "data/accounts";
 
     // Constructor
     public Manager() {
-        this.accounts = new ArrayList<>();
-        
-     // Load accounts and reservations from files on initialization
-        loadAccountsFromFolders();
+        this(Path.of(ACCOUNTS_DIRECTORY));
+    }
+
+    // Constructor that loads from a specific accounts directory
+    public Manager(Path accountsDirectory) {
+        this(accountsDirectory, 1);
+    }
+
+    // Constructor that loads account folders on a pool of the given size (1 loads sequentially)
+    public Manager(Path accountsDirectory, int loaderParallelism) {
+        this(accountsDirectory, loaderParallelism, false);
+    }
+
+    // Constructor that, with lazyLoading, registers account folders by name only and reads each account's
+    // details and reservations the first time they are needed
+    public Manager(Path accountsDirectory, int loaderParallelism, boolean lazyLoading) {
+        this(accountsDirectory, loaderParallelism, lazyLoading, false);
+    }
+
+    // Constructor that, with primitiveIds, keys the account and reservation indexes by the numbers packed
+    // into longs instead of by String, and shares repeated strings among the loaded reservations
+    public Manager(Path accountsDirectory, int loaderParallelism, boolean lazyLoading, boolean primitiveIds) {
+        if (loaderParallelism < 1) {
+            throw new IllegalArgumentException("Loader parallelism must be at least 1: " + loaderParallelism);
+        }
+        this.accounts = new CopyOnWriteArrayList<>();
+        this.accountsByNumber = primitiveIds ? new IdKeyMap<>() : new ConcurrentHashMap<>();
+        this.reservationsByNumber = primitiveIds ? new IdKeyMap<>() : new ConcurrentHashMap<>();
+        this.reservationOwners = primitiveIds ? new IdKeyMap<>() : new ConcurrentHashMap<>();
+        this.strings = primitiveIds ? new StringPool() : null;
+        this.accountLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            accountLocks[i] = new Object();
+        }
+        this.accountsDirectory = accountsDirectory;
+        this.loaderParallelism = loaderParallelism;
+        this.lazyLoading = lazyLoading;
+        this.accountIds = new IdAllocator(accountsDirectory.resolve("account-ids.seq"), 8,
+                accountNumber -> accountsByNumber.get(accountNumber) != null);
+        this.reservationIds = new IdAllocator(accountsDirectory.resolve("reservation-ids.seq"), 10,
+                reservationNumber -> findReservationOwner(reservationNumber) != null);
+
+     // Load accounts and reservations on initialization, from the snapshot when there is one
+        Path snapshotPath = accountsDirectory.resolve(SnapshotFile.FILE_NAME);
+        if (Files.exists(snapshotPath)) {
+            loadFromSnapshot(snapshotPath);
+        } else if (lazyLoading) {
+            registerAccountFolders();
+        } else {
+            loadAccountsFromFolders();
+        }
+        // Then apply mutations journaled after the base data was last written
+        replayJournal();
+    }
+
+    // Load the snapshot, then re-read only the text files written after it was taken
+    private void loadFromSnapshot(Path snapshotPath) {
+        long start = System.nanoTime();
+        SnapshotFile snapshot;
+        try {
+            snapshot = SnapshotFile.read(snapshotPath, strings);
+        } catch (IOException | IllegalLoadException e) {
+            System.out.println("Failed to load snapshot, loading account folders instead: " + e.getMessage());
+            loadAccountsFromFolders();
+            return;
+        }
+        registerAccounts(snapshot.getAccounts());
+        long snapshotNanos = System.nanoTime() - start;
+        snapshotLoadTimer.record(snapshotNanos);
+
+        start = System.nanoTime();
+        int newerFiles = loadFilesNewerThan(snapshot.getCreatedAt());
+        System.out.println("Loaded " + accounts.size() + " accounts and " + reservationsByNumber.size()
+                + " reservations from snapshot in " + TimeUnit.NANOSECONDS.toMillis(snapshotNanos) + " ms, then "
+                + newerFiles + " newer files in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    // Apply account and reservation files modified at or after the given time on top of the loaded state
+    private int loadFilesNewerThan(long snapshotTime) {
+        // Round down to whole seconds for file systems that only keep one-second timestamps
+        long cutoff = snapshotTime - snapshotTime % 1000;
+        int newerFiles = 0;
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(accountsDirectory, "Acc-*")) {
+            for (Path accountFolderPath : directoryStream) {
+                Account account = accountsByNumber.get(accountFolderPath.getFileName().toString().substring("Acc-".length()));
+                if (account == null) {
+                    // The whole folder was created after the snapshot
+                    Account loaded = loadAccountFolder(accountFolderPath, new LoadTimings());
+                    if (loaded != null) {
+                        registerAccount(loaded);
+                        newerFiles += 1 + loaded.getReservations().size();
+                    }
+                    continue;
+                }
+
+                Path accountFilePath = accountFolderPath.resolve(accountFileName(accountFolderPath));
+                if (Files.exists(accountFilePath) && isModifiedSince(accountFilePath, cutoff)) {
+                    try {
+                        Account updated = DataFileParser.parseAccount(Files.readString(accountFilePath));
+                        account.setMailingAddress(updated.getMailingAddress());
+                        account.setEmailAddress(updated.getEmailAddress());
+                        account.setPhoneNumber(updated.getPhoneNumber());
+                        newerFiles++;
+                    } catch (IllegalLoadException e) {
+                        parsingTimer.error();
+                        System.out.println("Skipping malformed account file " + accountFilePath + ": " + e.getMessage());
+                    }
+                }
+
+                try (DirectoryStream<Path> reservationFiles = Files.newDirectoryStream(accountFolderPath, "res-*.txt")) {
+                    for (Path reservationFilePath : reservationFiles) {
+                        if (isModifiedSince(reservationFilePath, cutoff)) {
+                            try {
+                                putReservation(account, DataFileParser.parseReservation(Files.readString(reservationFilePath)));
+                                newerFiles++;
+                            } catch (IllegalLoadException e) {
+                                parsingTimer.error();
+                                System.out.println("Skipping malformed reservation file " + reservationFilePath + ": " + e.getMessage());
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to load files newer than the snapshot: " + e.getMessage());
+        }
+        return newerFiles;
+    }
+
+    private static boolean isModifiedSince(Path path, long cutoff) throws IOException {
+        return Files.getLastModifiedTime(path).toMillis() >= cutoff;
+    }
+
+    // Write every account and reservation to the snapshot file that is loaded on the next start
+    public void writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        try {
+            for (Account account : accounts) {
+                account.getReservations();
+            }
+            SnapshotFile.write(accountsDirectory.resolve(SnapshotFile.FILE_NAME), accounts);
+        } catch (IOException | RuntimeException e) {
+            writeSnapshotTimer.error();
+            throw e;
+        } finally {
+            writeSnapshotTimer.stop(start);
+        }
     }
  // Load accounts from account folders in the "data/accounts" directory
     private void loadAccountsFromFolders() {
-        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(Path.of(ACCOUNTS_DIRECTORY), "Acc-*")) {
-            // Iterate through each account folder in the "data/accounts" directory
+        LoadTimings timings = new LoadTimings();
+
+        // Phase 1: list the account folders
+        long phaseStart = System.nanoTime();
+        List<Path> accountFolders = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(accountsDirectory, "Acc-*")) {
             for (Path accountFolderPath : directoryStream) {
-                // Read the contents of the account file inside the account folder
-                // The account file name is "acc-accountNumber.txt"
-                String accountData = Files.readString(accountFolderPath.resolve(accountFolderPath.getFileName() + ".txt"));
+                accountFolders.add(accountFolderPath);
+            }
+        } catch (IOException e) {
+            // If an IOException occurs while listing the account folders, print an error message
+            listingTimer.error();
+            System.out.println("Failed to load accounts: " + e.getMessage());
+            return;
+        }
+        timings.listing = System.nanoTime() - phaseStart;
+        listingTimer.record(timings.listing);
 
-                // Parse the account data and create an Account object
-                Account account = parseAccountData(accountData);
+        // Phase 2: read and parse every folder; each folder is independent so this can run in parallel
+        List<Account> loadedAccounts;
+        if (loaderParallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(loaderParallelism);
+            try {
+                loadedAccounts = pool.submit(() -> accountFolders.parallelStream()
+                        .map(accountFolderPath -> loadAccountFolder(accountFolderPath, timings))
+                        .collect(Collectors.toList())).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalLoadException("Interrupted while loading accounts.");
+            } catch (ExecutionException e) {
+                throw new IllegalLoadException("Failed to load accounts: " + e.getCause().getMessage());
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            loadedAccounts = new ArrayList<>(accountFolders.size());
+            for (Path accountFolderPath : accountFolders) {
+                loadedAccounts.add(loadAccountFolder(accountFolderPath, timings));
+            }
+        }
 
-                // If the account data is successfully parsed and an Account object is created
-                if (account != null) {
-                    // Load reservations for this account by reading reservation files inside the account folder
-                    loadReservationsForAccount(account, accountFolderPath);
+        // Phase 3: merge into the manager on this thread, in folder order, so both modes give the same state
+        phaseStart = System.nanoTime();
+        loadedAccounts.removeIf(account -> account == null);
+        registerAccounts(loadedAccounts);
+        timings.indexing = System.nanoTime() - phaseStart;
+        indexingTimer.record(timings.indexing);
 
-                    // Add the account to the list of accounts
-                    accounts.add(account);
-                }
+        System.out.println("Loaded " + accounts.size() + " accounts and " + reservationsByNumber.size()
+                + " reservations with parallelism " + loaderParallelism + ": " + timings);
+    }
+
+    // Read and parse one account folder; returns null if the account file cannot be read
+    private Account loadAccountFolder(Path accountFolderPath, LoadTimings timings) {
+        FlightEvents.AccountLoad event = new FlightEvents.AccountLoad();
+        event.begin();
+        Account account = null;
+        try {
+            account = readAccountFolder(accountFolderPath, timings, event);
+            return account;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.accountNumber = accountFolderPath.getFileName().toString().substring("Acc-".length());
+                event.folder = accountFolderPath.toString();
+                event.loaded = account != null;
+                event.commit();
+            }
+        }
+    }
+
+    private Account readAccountFolder(Path accountFolderPath, LoadTimings timings, FlightEvents.AccountLoad event) {
+        long start = System.nanoTime();
+        String accountData;
+        try {
+            // Read the contents of the account file inside the account folder
+            // The account file name is "acc-accountNumber.txt" while the folder is "Acc-accountNumber"
+            accountData = Files.readString(accountFolderPath.resolve(accountFileName(accountFolderPath)));
+        } catch (IOException e) {
+            readingTimer.error();
+            System.out.println("Failed to load account " + accountFolderPath.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+        long parseStart = System.nanoTime();
+        timings.reading.add(parseStart - start);
+        readingTimer.record(parseStart - start);
+        if (event.isEnabled()) {
+            event.bytesRead += AccountFiles.utf8Length(accountData);
+        }
+
+        // Parse the account data and create an Account object
+        Account account;
+        try {
+            account = DataFileParser.parseAccount(accountData);
+        } catch (IllegalLoadException e) {
+            parsingTimer.error();
+            System.out.println("Skipping malformed account file in " + accountFolderPath.getFileName() + ": " + e.getMessage());
+            return null;
+        } finally {
+            timings.parsing.add(System.nanoTime() - parseStart);
+            parsingTimer.stop(parseStart);
+        }
+
+        // Load reservations for this account by reading reservation files inside the account folder
+        loadReservationsForAccount(account, accountFolderPath, timings, event);
+        return account;
+    }
+
+    // Lazy mode: register every account folder by name, listing its reservation files but opening none of them
+    private void registerAccountFolders() {
+        long start = System.nanoTime();
+        List<Account> stubs = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(accountsDirectory, "Acc-*")) {
+            for (Path accountFolderPath : directoryStream) {
+                Account account = new Account(accountFolderPath.getFileName().toString().substring("Acc-".length()),
+                        this::faultInAccount);
+                stubs.add(account);
+                accountsByNumber.put(account.getAccountNumber(), account);
+                listReservationFiles(accountFolderPath, account.getAccountNumber());
             }
         } catch (IOException e) {
-            // If an IOException occurs while reading the account folders, print an error message
             System.out.println("Failed to load accounts: " + e.getMessage());
+            return;
+        }
+        accounts.addAll(stubs);
+        System.out.println("Registered " + accounts.size() + " accounts for on-demand loading in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    // Record the owner of every reservation file in a registered folder, so a lookup by reservation number loads
+    // only that account
+    private void listReservationFiles(Path accountFolderPath, String accountNumber) throws IOException {
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(accountFolderPath, "res-*.txt")) {
+            for (Path reservationFilePath : directoryStream) {
+                String fileName = reservationFilePath.getFileName().toString();
+                unloadedReservationOwners.put(fileName.substring("res-".length(), fileName.length() - ".txt".length()),
+                        accountNumber);
+            }
+        }
+    }
+
+    // Read an account that was registered by name only and index its reservations; called once per account,
+    // with the account's own lock held, so it must not take any manager lock
+    private Account faultInAccount(Account account) {
+        Account loaded = loadAccountFolder(AccountFiles.accountFolder(accountsDirectory, account.getAccountNumber()),
+                new LoadTimings());
+        if (loaded == null) {
+            // Drop it, as the eager loader skips such a folder; returning an empty account marks it loaded, so its
+            // files are not read again on every later access
+            accountsByNumber.remove(account.getAccountNumber(), account);
+            accounts.remove(account);
+            unloadedReservationOwners.values().removeIf(account.getAccountNumber()::equals);
+            System.out.println("Dropped account " + account.getAccountNumber() + ", whose files could not be loaded.");
+            return new Account(account.getAccountNumber(), null, null, null);
+        }
+        indexReservations(account, loaded.getReservations());
+        for (Reservation reservation : loaded.getReservations()) {
+            unloadedReservationOwners.remove(reservation.getReservationNumber(), account.getAccountNumber());
+        }
+        faultedInAccounts.increment();
+        return loaded;
+    }
+
+    // Load an account before taking its stripe lock, so file reads never hold up other accounts on the stripe
+    private void faultIn(String accountNumber) {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account != null && !account.isLoaded()) {
+            account.getReservations();
+        }
+    }
+
+    // Lazy mode: load the account whose folder held the reservation's file at registration
+    private Reservation faultInReservation(String reservationNumber) {
+        String accountNumber = unloadedReservationOwners.get(reservationNumber);
+        if (accountNumber == null) {
+            return null;
         }
+        faultIn(accountNumber);
+        return reservationsByNumber.get(reservationNumber);
     }
- // Load reservations for a given account from reservation files in the account folder
-    private void loadReservationsForAccount(Account account, Path accountFolderPath) {
+
+    // Number of accounts whose details and reservations were loaded on first use
+    public long getFaultedInAccountCount() {
+        return faultedInAccounts.sum();
+    }
+
+    // Build the account file name "acc-accountNumber.txt" from an "Acc-accountNumber" folder
+    private static String accountFileName(Path accountFolderPath) {
+        return "acc-" + accountFolderPath.getFileName().toString().substring("Acc-".length()) + ".txt";
+    }
+ // Load reservations for a given account from reservation files in the account folder, counting the files and
+    // bytes read in the folder's event
+    private void loadReservationsForAccount(Account account, Path accountFolderPath, LoadTimings timings,
+                                            FlightEvents.AccountLoad folderEvent) {
         // Get the account number to be used in error messages if needed
         String accountNumber = account.getAccountNumber();
 
         try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(accountFolderPath, "res-*.txt")) {
             // Iterate through each reservation file in the account folder
             for (Path reservationFilePath : directoryStream) {
+                FlightEvents.ReservationParse event = new FlightEvents.ReservationParse();
+                event.begin();
                 // Read the contents of the reservation file
+                long start = System.nanoTime();
                 String reservationData = Files.readString(reservationFilePath);
+                long parseStart = System.nanoTime();
+                timings.reading.add(parseStart - start);
+                readingTimer.record(parseStart - start);
+                folderEvent.reservationFiles++;
+                if (folderEvent.isEnabled()) {
+                    folderEvent.bytesRead += AccountFiles.utf8Length(reservationData);
+                }
 
-                // Parse the reservation data and create a Reservation object
-                Reservation reservation = parseReservationData(reservationData);
-
-                // If the reservation data is successfully parsed and a Reservation object is created
-                if (reservation != null) {
-                    // Add the reservation to the account's list of reservations
+                // Parse the reservation data and add the Reservation object to the account's list of reservations
+                Reservation reservation = null;
+                try {
+                    reservation = DataFileParser.parseReservation(reservationData, strings);
                     account.addReservation(reservation);
+                } catch (IllegalLoadException e) {
+                    parsingTimer.error();
+                    System.out.println("Skipping malformed reservation file " + reservationFilePath + ": " + e.getMessage());
+                } finally {
+                    timings.parsing.add(System.nanoTime() - parseStart);
+                    parsingTimer.stop(parseStart);
+                    commitParse(event, accountNumber, reservationFilePath, reservationData, reservation);
                 }
             }
         } catch (IOException e) {
             // If an IOException occurs while reading the reservation files, print an error message
+            readingTimer.error();
             System.out.println("Failed to load reservations for account " + accountNumber + ": " + e.getMessage());
         }
     }
-    // Parse account data from the file content
-    private Account parseAccountData(String accountData) {
-        String[] lines = accountData.split("\\n");
-        String accountNumber = lines[0].substring("Account: ".length());
-        String mailingAddress = lines[1].substring("Mailing Address: ".length());
-        String emailAddress = lines[2].substring("Email Address: ".length());
-        String phoneNumber = lines[3].substring("Phone Number: ".length());
 
-        return new Account(accountNumber, mailingAddress, emailAddress, phoneNumber);
+    private static void commitParse(FlightEvents.ReservationParse event, String accountNumber, Path reservationFilePath,
+                                    String reservationData, Reservation reservationOrNull) {
+        event.end();
+        if (event.shouldCommit()) {
+            String fileName = reservationFilePath.getFileName().toString();
+            event.accountNumber = accountNumber;
+            event.reservationNumber = fileName.substring("res-".length(), fileName.length() - ".txt".length());
+            event.file = reservationFilePath.toString();
+            event.bytesRead = AccountFiles.utf8Length(reservationData);
+            event.reservationType = reservationOrNull == null ? null : reservationOrNull.getClass().getSimpleName();
+            event.malformed = reservationOrNull == null;
+            event.commit();
+        }
     }
-    // Method to determine reservation type based on the content of the reservation file
-    private int determineReservationType(String reservationData) {
-        // Use regex to check for a specific line that exists only in House reservation files
-        String housePattern = "Number of Floors: \\d+";
-        Pattern pattern = Pattern.compile(housePattern);
-        Matcher matcher = pattern.matcher(reservationData);
 
-        if (matcher.find()) {
-            return 3; // House Reservation
-        } else {
-            // If the line "Number of Floors" is not found, check for "kitchenette" line
-            if (reservationData.contains("kitchenette")) {
-                return 1; // Hotel Reservation
-            } else {
-                return 2; // Cabin Reservation
-            }
-        }
-    }
-    // Parse reservation data from the file content
-    private Reservation parseReservationData(String reservationData) {
-        // Determine the reservation type by parsing the input data
-        int reservationType = determineReservationType(reservationData);
-
-        // Split the input reservation data into lines
-        String[] lines = reservationData.split("\\n");
-
-        // Extract relevant information from each line
-        String reservationNumber = lines[1].substring("Reservation Number: ".length());
-        String accountNumber = lines[0].substring("Account Number: ".length());
-        String physicalAddress = lines[2].substring("Physical Address: ".length());
-        String mailingAddress = lines[3].substring("Mailing Address: ".length());
-        String startDateStr = lines[4].substring("Start Date: ".length());
-        Date startDate = parseDate(startDateStr);
-        int numberOfNights = Integer.parseInt(lines[5].substring("Number of Nights: ".length()));
-        int numberOfBeds = Integer.parseInt(lines[6].substring("Number of Beds: ".length()));
-        int numberOfBedrooms = Integer.parseInt(lines[7].substring("Number of Bedrooms: ".length()));
-        int numberOfBathrooms = Integer.parseInt(lines[8].substring("Number of Bathrooms: ".length()));
-        int lodgingSize = Integer.parseInt(lines[9].substring("Lodging Size: ".length()));
-        String statusStr = lines[11].substring("Status: ".length());
-        ReservationStatus status = ReservationStatus.valueOf(statusStr);
-
-        // Create the appropriate reservation object based on the reservation type
-        switch (reservationType) {
-            case 1 -> {
-                // For HotelReservation, parse the boolean value for kitchenette from line 12
-                boolean kitchenette = Boolean.parseBoolean(lines[12].substring("Kitchenette: ".length()));
-                HotelReservation hotelReservation = new HotelReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
-                        startDate, numberOfNights, numberOfBeds, numberOfBedrooms, numberOfBathrooms, lodgingSize, kitchenette);
-                hotelReservation.setStatus(status); // Set the status of the reservation
-                return hotelReservation;
-            }
-            case 2 -> {
-                // For CabinReservation, parse the boolean value for full kitchen from line 12
-                boolean fullKitchen = Boolean.parseBoolean(lines[12].substring("Full Kitchen: ".length()));
-                CabinReservation cabinReservation = new CabinReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
-                        startDate, numberOfNights, numberOfBeds, numberOfBedrooms, numberOfBathrooms, lodgingSize, fullKitchen);
-                cabinReservation.setStatus(status); // Set the status of the reservation
-                return cabinReservation;
-            }
-            case 3 -> {
-                // For HouseReservation, parse the number of floors from line 12
-                int numberOfFloors = Integer.parseInt(lines[12].substring("Number of Floors: ".length()));
-                HouseReservation houseReservation = new HouseReservation(accountNumber, reservationNumber, physicalAddress, mailingAddress,
-                        startDate, numberOfNights, numberOfBeds, numberOfBedrooms, numberOfBathrooms, lodgingSize, numberOfFloors);
-                houseReservation.setStatus(status); // Set the status of the reservation
-                return houseReservation;
-            }
-            default -> {
-                // If an invalid reservation type is encountered, return null
-                return null;
-            }
-        }
-    }
-
-    private static Date parseDate(String dateString) {
-        // Create a SimpleDateFormat object with the input date format
-        SimpleDateFormat inputFormat = new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy");
-
-        try {
-            // Parse the input dateString using the specified format
-            return inputFormat.parse(dateString);
-        } catch (ParseException e) {
-            // If there's a ParseException (invalid date format), catch the exception and print an error message
-            System.out.println("Invalid date format. Please use the format: EEE MMM dd HH:mm:ss zzz yyyy");
-            return null; // Return null to indicate that parsing failed
+    // Per-phase load times; reading and parsing are summed across loader threads
+    private static final class LoadTimings {
+        private long listing;
+        private final LongAdder reading = new LongAdder();
+        private final LongAdder parsing = new LongAdder();
+        private long indexing;
+
+        @Override
+        public String toString() {
+            return "listing " + millis(listing) + " ms, reading " + millis(reading.sum())
+                    + " ms, parsing " + millis(parsing.sum()) + " ms, indexing " + millis(indexing) + " ms";
+        }
+
+        private static long millis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
         }
     }
     // Retrieve an account by account number
     public Account getAccount(String accountNumber) {
-        for (Account account : accounts) {
-            if (account.getAccountNumber().equals(accountNumber)) {
-                return account;
-            }
+        long start = System.nanoTime();
+        try {
+            return accountsByNumber.get(accountNumber);
+        } catch (RuntimeException e) {
+            getAccountTimer.error();
+            throw e;
+        } finally {
+            getAccountTimer.stop(start);
         }
-        return null;
+    }
+
+    // A new 8-digit account number, unique among those this and earlier runs handed out and those loaded
+    public String newAccountNumber() {
+        long start = System.nanoTime();
+        try {
+            return accountIds.next();
+        } catch (RuntimeException e) {
+            newAccountNumberTimer.error();
+            throw e;
+        } finally {
+            newAccountNumberTimer.stop(start);
+        }
+    }
+
+    // A new 10-digit reservation number, unique among those this and earlier runs handed out and those loaded
+    public String newReservationNumber() {
+        long start = System.nanoTime();
+        try {
+            return reservationIds.next();
+        } catch (RuntimeException e) {
+            newReservationNumberTimer.error();
+            throw e;
+        } finally {
+            newReservationNumberTimer.stop(start);
+        }
+    }
+
+    // Retrieve all accounts, in load/insertion order
+    public List<Account> getAccounts() {
+        return Collections.unmodifiableList(accounts);
     }
 
     // Add an account to the manager
     public void addAccount(Account account) {
-        if (getAccount(account.getAccountNumber()) != null) {
-            throw new DuplicateObjectException();
+        long start = System.nanoTime();
+        try {
+            awaitJournal(insertAccount(account, null));
+        } catch (RuntimeException e) {
+            addAccountTimer.error();
+            throw e;
+        } finally {
+            addAccountTimer.stop(start);
+        }
+    }
+
+    // Index an account and its reservations; returns their journal records, queued as one write or added to
+    // group unless it is null, or null when not journaling
+    private Journal.PendingRecord insertAccount(Account account, Journal.PendingRecord group) {
+        if (lazyLoading) {
+            for (Reservation reservation : account.getReservations()) {
+                findReservation(reservation.getReservationNumber());
+            }
+        }
+        synchronized (lockFor(account.getAccountNumber())) {
+            if (accountsByNumber.putIfAbsent(account.getAccountNumber(), account) != null) {
+                throw new DuplicateObjectException();
+            }
+            // Claim every reservation number before publishing any owner, and give them all back on a clash
+            List<String> claimed = new ArrayList<>();
+            for (Reservation reservation : account.getReservations()) {
+                if (reservationsByNumber.putIfAbsent(reservation.getReservationNumber(), reservation) != null) {
+                    claimed.forEach(reservationsByNumber::remove);
+                    accountsByNumber.remove(account.getAccountNumber());
+                    throw new DuplicateObjectException();
+                }
+                claimed.add(reservation.getReservationNumber());
+            }
+            List<Reservation> booked = new ArrayList<>();
+            try {
+                for (Reservation reservation : account.getReservations()) {
+                    bookings.book(reservation);
+                    booked.add(reservation);
+                }
+            } catch (IllegalOperationException e) {
+                booked.forEach(reservation -> bookings.remove(reservation.getReservationNumber()));
+                claimed.forEach(reservationsByNumber::remove);
+                accountsByNumber.remove(account.getAccountNumber());
+                throw e;
+            }
+            for (String reservationNumber : claimed) {
+                reservationOwners.put(reservationNumber, account);
+            }
+            account.getReservations().forEach(counters::add);
+            account.getReservations().forEach(dayIndex::add);
+            account.getReservations().forEach(this::scheduleTimer);
+            accounts.add(account);
+            return accountAdded(account, group);
+        }
+    }
+
+    // Update an account's contact details
+    public void updateAccount(String accountNumber, String mailingAddress, String emailAddress, String phoneNumber) {
+        long start = System.nanoTime();
+        try {
+            faultIn(accountNumber);
+            Journal.PendingRecord record;
+            synchronized (lockFor(accountNumber)) {
+                Account account = accountsByNumber.get(accountNumber);
+                if (account == null) {
+                    throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
+                }
+                account.setMailingAddress(mailingAddress);
+                account.setEmailAddress(emailAddress);
+                account.setPhoneNumber(phoneNumber);
+                record = accountChanged(account);
+            }
+            awaitJournal(record);
+        } catch (RuntimeException e) {
+            updateAccountTimer.error();
+            throw e;
+        } finally {
+            updateAccountTimer.stop(start);
+        }
+    }
+
+    // Add an account to the list and index it together with the reservations it already holds
+    private void registerAccount(Account account) {
+        registerAccounts(List.of(account));
+    }
+
+    // Add accounts to the list in one copy and index them; used while loading, before the manager is shared
+    private void registerAccounts(List<Account> newAccounts) {
+        for (Account account : newAccounts) {
+            accountsByNumber.put(account.getAccountNumber(), account);
+            indexReservations(account, account.getReservations());
+        }
+        accounts.addAll(newAccounts);
+    }
+
+    // Index an account's reservations, keeping the first owner of any duplicated number
+    private void indexReservations(Account account, List<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            if (reservationsByNumber.putIfAbsent(reservation.getReservationNumber(), reservation) == null) {
+                reservationOwners.put(reservation.getReservationNumber(), account);
+                bookings.add(reservation);
+                counters.add(reservation);
+                dayIndex.add(reservation);
+                scheduleTimer(reservation);
+            } else {
+                System.out.println("Duplicate reservation " + reservation.getReservationNumber()
+                        + " in account " + account.getAccountNumber() + " was not indexed.");
+            }
         }
-        accounts.add(account);
     }
     // Add a reservation to an account
     public void addReservation(String accountNumber, Reservation reservation) {
-        Account account = getAccount(accountNumber);
-        if (account == null) {
-            throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
+        long start = System.nanoTime();
+        try {
+            awaitJournal(insertReservation(accountNumber, reservation, null));
+        } catch (RuntimeException e) {
+            addReservationTimer.error();
+            throw e;
+        } finally {
+            addReservationTimer.stop(start);
+        }
+    }
+
+    // Add new accounts, then new reservations to existing or just added accounts, and wait once for the journal
+    // records of everything that was accepted, which are written as one group. A record that is refused does
+    // not stop the others; the returned list has one message per refused record, in input order.
+    public List<String> addBatch(List<Account> newAccounts, List<Reservation> newReservations) {
+        long start = System.nanoTime();
+        try {
+            List<String> errors = new ArrayList<>();
+            Journal.PendingRecord group = openJournalGroup();
+            try {
+                addBatch(newAccounts, newReservations, group, errors);
+            } finally {
+                sealJournalGroup(group);
+            }
+            awaitJournal(group);
+            return errors;
+        } catch (RuntimeException e) {
+            addBatchTimer.error();
+            throw e;
+        } finally {
+            addBatchTimer.stop(start);
+        }
+    }
+
+    private void addBatch(List<Account> newAccounts, List<Reservation> newReservations, Journal.PendingRecord group,
+                          List<String> errors) {
+        for (Account account : newAccounts) {
+            try {
+                insertAccount(account, group);
+            } catch (DuplicateObjectException e) {
+                errors.add("Account " + account.getAccountNumber() + ": duplicate account or reservation number.");
+            } catch (IllegalOperationException e) {
+                errors.add("Account " + account.getAccountNumber() + ": " + e.getMessage());
+            }
         }
+        for (Reservation reservation : newReservations) {
+            try {
+                insertReservation(reservation.getAccountNumber(), reservation, group);
+            } catch (DuplicateObjectException e) {
+                errors.add("Reservation " + reservation.getReservationNumber() + ": duplicate reservation number.");
+            } catch (IllegalOperationException | IllegalArgumentException e) {
+                errors.add("Reservation " + reservation.getReservationNumber() + ": " + e.getMessage());
+            }
+        }
+    }
 
-        if (reservationExists(reservation.getReservationNumber())) {
-            throw new DuplicateObjectException();
+    // Index a reservation under its account; returns its journal record, queued or added to group unless it is
+    // null, or null when not journaling
+    private Journal.PendingRecord insertReservation(String accountNumber, Reservation reservation,
+                                                    Journal.PendingRecord group) {
+        faultIn(accountNumber);
+        if (lazyLoading) {
+            findReservation(reservation.getReservationNumber());
         }
+        Journal.PendingRecord record;
+        synchronized (lockFor(accountNumber)) {
+            Account account = accountsByNumber.get(accountNumber);
+            if (account == null) {
+                throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
+            }
 
-        account.addReservation(reservation);
+            // Claiming the number in the index is the duplicate check, so two accounts cannot both take it
+            if (reservationsByNumber.putIfAbsent(reservation.getReservationNumber(), reservation) != null) {
+                throw new DuplicateObjectException();
+            }
+            try {
+                bookings.book(reservation);
+            } catch (IllegalOperationException e) {
+                reservationsByNumber.remove(reservation.getReservationNumber());
+                throw e;
+            }
+            reservationOwners.put(reservation.getReservationNumber(), account);
+            account.addReservation(reservation);
+            counters.add(reservation);
+            dayIndex.add(reservation);
+            scheduleTimer(reservation);
+            record = reservationChanged(reservation, group);
+        }
+        return record;
     }
     // Complete a reservation
     public void completeReservation(String accountNumber, String reservationNumber) {
-        Account account = getAccount(accountNumber);
-        if (account == null) {
-            throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
-        }
+        long start = System.nanoTime();
+        try {
+            faultIn(accountNumber);
+            FlightEvents.StatusTransition transition = new FlightEvents.StatusTransition();
+            transition.begin();
+            Journal.PendingRecord record;
+            synchronized (lockFor(accountNumber)) {
+                Account account = accountsByNumber.get(accountNumber);
+                if (account == null) {
+                    throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
+                }
 
-        Reservation reservation = getReservation(reservationNumber);
-        if (reservation == null) {
-            throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
-        }
+                Reservation reservation = findReservation(reservationNumber);
+                if (reservation == null || reservationOwners.get(reservationNumber) != account) {
+                    throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
+                }
 
-        if (reservation.getStatus() == ReservationStatus.DRAFT) {
-            reservation.setStatus(ReservationStatus.COMPLETED);
-            reservation.calculatePrice();
-        } else {
-            throw new IllegalOperationException("Reservation cannot be completed. Status: " + reservation.getStatus());
+                double previousPrice = reservation.getPrice();
+                if (reservation.compareAndSetStatus(ReservationStatus.DRAFT, ReservationStatus.COMPLETED)) {
+                    reservation.calculatePrice();
+                    counters.changed(reservation, ReservationStatus.DRAFT, previousPrice);
+                    FlightEvents.commitTransition(transition, accountNumber, reservation, ReservationStatus.DRAFT, false);
+                } else {
+                    throw new IllegalOperationException("Reservation cannot be completed. Status: " + reservation.getStatus());
+                }
+                record = reservationChanged(reservation);
+            }
+            awaitJournal(record);
+        } catch (RuntimeException e) {
+            completeReservationTimer.error();
+            throw e;
+        } finally {
+            completeReservationTimer.stop(start);
         }
     }
 
     // Cancel a reservation
     public void cancelReservation(String accountNumber, String reservationNumber) {
-        Account account = getAccount(accountNumber);
-        if (account == null) {
-            throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
-        }
+        long start = System.nanoTime();
+        try {
+            faultIn(accountNumber);
+            FlightEvents.StatusTransition transition = new FlightEvents.StatusTransition();
+            transition.begin();
+            Journal.PendingRecord record;
+            synchronized (lockFor(accountNumber)) {
+                Account account = accountsByNumber.get(accountNumber);
+                if (account == null) {
+                    throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
+                }
 
-        Reservation reservation = getReservation(reservationNumber);
-        if (reservation == null) {
-            throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
-        }
+                Reservation reservation = findReservation(reservationNumber);
+                if (reservation == null || reservationOwners.get(reservationNumber) != account) {
+                    throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
+                }
 
-        if (reservation.getStatus() == ReservationStatus.DRAFT && reservation.getStartDate().after(new Date())) {
-            reservation.setStatus(ReservationStatus.CANCELLED);
-        } else {
-            throw new IllegalOperationException("Reservation cannot be cancelled. Status: " + reservation.getStatus());
+                if (!reservation.getStartDate().after(new Date())
+                        || !reservation.compareAndSetStatus(ReservationStatus.DRAFT, ReservationStatus.CANCELLED)) {
+                    throw new IllegalOperationException("Reservation cannot be cancelled. Status: " + reservation.getStatus());
+                }
+                bookings.remove(reservationNumber);
+                counters.changed(reservation, ReservationStatus.DRAFT, reservation.getPrice());
+                FlightEvents.commitTransition(transition, accountNumber, reservation, ReservationStatus.DRAFT, false);
+                record = reservationChanged(reservation);
+            }
+            awaitJournal(record);
+        } catch (RuntimeException e) {
+            cancelReservationTimer.error();
+            throw e;
+        } finally {
+            cancelReservationTimer.stop(start);
         }
     }
     // Calculate the price per night for a reservation
     public double calculatePricePerNight(String reservationNumber) {
-        Reservation reservation = getReservation(reservationNumber);
-        if (reservation == null) {
-            throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
-        }
+        long start = System.nanoTime();
+        try {
+            Reservation reservation = findReservation(reservationNumber);
+            if (reservation == null) {
+                throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
+            }
 
-        reservation.calculatePrice();
-        return reservation.getPrice();
+            reprice(reservation);
+            return reservation.getPrice();
+        } catch (RuntimeException e) {
+            calculatePricePerNightTimer.error();
+            throw e;
+        } finally {
+            calculatePricePerNightTimer.stop(start);
+        }
     }
     // Calculate the total price for a reservation
     public double calculateTotalPrice(String reservationNumber) {
-        Reservation reservation = getReservation(reservationNumber);
-        if (reservation == null) {
-            throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
+        long start = System.nanoTime();
+        try {
+            Reservation reservation = findReservation(reservationNumber);
+            if (reservation == null) {
+                throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
+            }
+
+            reprice(reservation);
+            return reservation.getPrice() * reservation.getNumberOfNights();
+        } catch (RuntimeException e) {
+            calculateTotalPriceTimer.error();
+            throw e;
+        } finally {
+            calculateTotalPriceTimer.stop(start);
         }
+    }
 
-        reservation.calculatePrice();
-        return reservation.getPrice() * reservation.getNumberOfNights();
+    // Recalculate a reservation's price under its account's lock, moving its revenue in the counters when the
+    // pricing rules or its fields changed since the last calculation
+    private void reprice(Reservation reservation) {
+        Account owner = reservationOwners.get(reservation.getReservationNumber());
+        if (owner == null) {
+            reservation.calculatePrice();
+            return;
+        }
+        synchronized (lockFor(owner.getAccountNumber())) {
+            double previousPrice = reservation.getPrice();
+            reservation.calculatePrice();
+            if (reservation.getPrice() != previousPrice) {
+                counters.changed(reservation, reservation.getStatus(), previousPrice);
+            }
+        }
     }
 
     // Retrieve a reservation by reservation number
     public Reservation getReservation(String reservationNumber) {
-        for (Account account : accounts) {
-            for (Reservation reservation : account.getReservations()) {
-                if (reservation.getReservationNumber().equals(reservationNumber)) {
-                    return reservation;
+        long start = System.nanoTime();
+        try {
+            return findReservation(reservationNumber);
+        } catch (RuntimeException e) {
+            getReservationTimer.error();
+            throw e;
+        } finally {
+            getReservationTimer.stop(start);
+        }
+    }
+
+    private Reservation findReservation(String reservationNumber) {
+        Reservation reservation = reservationsByNumber.get(reservationNumber);
+        if (reservation == null && lazyLoading) {
+            reservation = faultInReservation(reservationNumber);
+        }
+        return reservation;
+    }
+
+    // Loaded reservations starting on a day from "from" to "to", both included, in start order
+    public List<Reservation> getReservationsStartingBetween(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return dayIndex.startingBetween((int) from.toEpochDay(), (int) to.toEpochDay());
+        } catch (RuntimeException e) {
+            getReservationsStartingBetweenTimer.error();
+            throw e;
+        } finally {
+            getReservationsStartingBetweenTimer.stop(start);
+        }
+    }
+
+    // Loaded reservations ending, that is departing, on a day from "from" to "to", both included, in end order
+    public List<Reservation> getReservationsEndingBetween(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return dayIndex.endingBetween((int) from.toEpochDay(), (int) to.toEpochDay());
+        } catch (RuntimeException e) {
+            getReservationsEndingBetweenTimer.error();
+            throw e;
+        } finally {
+            getReservationsEndingBetweenTimer.stop(start);
+        }
+    }
+
+    // Retrieve the account that owns a reservation
+    public Account getReservationOwner(String reservationNumber) {
+        long start = System.nanoTime();
+        try {
+            return findReservationOwner(reservationNumber);
+        } catch (RuntimeException e) {
+            getReservationOwnerTimer.error();
+            throw e;
+        } finally {
+            getReservationOwnerTimer.stop(start);
+        }
+    }
+
+    private Account findReservationOwner(String reservationNumber) {
+        if (lazyLoading) {
+            findReservation(reservationNumber);
+        }
+        return reservationOwners.get(reservationNumber);
+    }
+
+    // Number of reservations across all loaded accounts
+    public int getReservationCount() {
+        return reservationsByNumber.size();
+    }
+
+    // Number of reservations with the given status, read from a counter kept up to date by every mutation
+    public long getReservationCount(ReservationStatus status) {
+        return counters.getCount(status);
+    }
+
+    // Sum of price * nights of the reservations with the given status, read from a counter
+    public double getRevenue(ReservationStatus status) {
+        return counters.getRevenue(status);
+    }
+
+    // Revenue of the reservations that are not cancelled or expired
+    public double getBookedRevenue() {
+        return counters.getRevenue(ReservationStatus.DRAFT) + counters.getRevenue(ReservationStatus.COMPLETED)
+                + counters.getRevenue(ReservationStatus.FINISHED);
+    }
+
+    // Recount every indexed reservation and compare with the counters; returns one message per difference,
+    // none when they agree. Meant for quiet moments: changes made during the recount show up as differences.
+    public List<String> checkReservationCounters() {
+        long start = System.nanoTime();
+        try {
+            ReservationCounters recount = new ReservationCounters();
+            reservationsByNumber.values().forEach(recount::add);
+            List<String> differences = counters.compareWith(recount);
+            for (String difference : differences) {
+                System.out.println("Reservation counters disagree with a recount: " + difference);
+            }
+            return differences;
+        } catch (RuntimeException e) {
+            checkReservationCountersTimer.error();
+            throw e;
+        } finally {
+            checkReservationCountersTimer.stop(start);
+        }
+    }
+
+    // Active reservations at a lodging address whose stay overlaps [from, to), ordered by start date
+    public List<Reservation> getOverlappingReservations(String lodgingPhysicalAddress, Date from, Date to) {
+        long start = System.nanoTime();
+        try {
+            return bookings.overlapping(lodgingPhysicalAddress, from, to);
+        } catch (RuntimeException e) {
+            getOverlappingReservationsTimer.error();
+            throw e;
+        } finally {
+            getOverlappingReservationsTimer.stop(start);
+        }
+    }
+
+    // Copy of every reservation in columnar form, account by account; lazily loaded accounts are loaded first
+    public ReservationColumns getReservationColumns() {
+        long start = System.nanoTime();
+        try {
+            ReservationColumns columns = new ReservationColumns(reservationsByNumber.size());
+            for (Account account : accounts) {
+                for (Reservation reservation : account.getReservations()) {
+                    columns.add(reservation);
                 }
             }
+            return columns;
+        } catch (RuntimeException e) {
+            getReservationColumnsTimer.error();
+            throw e;
+        } finally {
+            getReservationColumnsTimer.stop(start);
+        }
+    }
+
+    // Count, nights, revenue and average lodging size of the reservations starting in [from, to), grouped by
+    // type, status and start month; accounts are walked in parallel on the common fork-join pool, and lazily
+    // loaded accounts are loaded first
+    public ReservationAggregates aggregateReservations(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return ReservationAggregates.of(accounts, from, to, true);
+        } catch (RuntimeException e) {
+            aggregateReservationsTimer.error();
+            throw e;
+        } finally {
+            aggregateReservationsTimer.stop(start);
         }
-        return null;
     }
-    // Check if a reservation already exists
-    private boolean reservationExists(String reservationNumber) {
-        return getReservation(reservationNumber) != null;
+
+    // Lock guarding mutations of an account; accounts share one of a fixed set of stripes
+    private Object lockFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return accountLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    // Add a reservation to an account, replacing any reservation with the same number
+    private void putReservation(Account account, Reservation reservation) {
+        // Load the account first so a lazily loaded copy of the same reservation is indexed before it is replaced
+        account.getReservations();
+        String reservationNumber = reservation.getReservationNumber();
+        Reservation existing = reservationsByNumber.get(reservationNumber);
+        if (existing != null) {
+            List<Reservation> ownerReservations = reservationOwners.get(reservationNumber).getReservations();
+            int index = ownerReservations.indexOf(existing);
+            if (reservationOwners.get(reservationNumber) == account) {
+                ownerReservations.set(index, reservation);
+            } else {
+                ownerReservations.remove(index);
+                account.addReservation(reservation);
+            }
+        } else {
+            account.addReservation(reservation);
+        }
+        reservationsByNumber.put(reservationNumber, reservation);
+        reservationOwners.put(reservationNumber, account);
+        bookings.add(reservation);
+        if (existing != null) {
+            counters.remove(existing);
+            dayIndex.remove(existing);
+        }
+        counters.add(reservation);
+        dayIndex.add(reservation);
+        scheduleTimer(reservation);
     }
-    // Update a reservation
+    // Replace a draft reservation of an account; throws IllegalOperationException if the account holds no
+    // reservation with that number or it is no longer a draft
     public void updateReservation(String accountNumber, Reservation updatedReservation) {
-        Account account = getAccount(accountNumber);
-        if (account != null) {
-            List<Reservation> reservations = account.getReservations();
-            for (int i = 0; i < reservations.size(); i++) {
-                Reservation reservation = reservations.get(i);
-                if (reservation.getReservationNumber().equals(updatedReservation.getReservationNumber())) {
-                    reservations.set(i, updatedReservation);
+        long start = System.nanoTime();
+        try {
+            faultIn(accountNumber);
+            Journal.PendingRecord record;
+            synchronized (lockFor(accountNumber)) {
+                Account account = accountsByNumber.get(accountNumber);
+                String reservationNumber = updatedReservation.getReservationNumber();
+                Reservation existing = reservationsByNumber.get(reservationNumber);
+                int index = account == null || reservationOwners.get(reservationNumber) != account ? -1
+                        : account.getReservations().indexOf(existing);
+                if (index < 0) {
+                    throw new IllegalOperationException("Reservation " + reservationNumber + " not found in account "
+                            + accountNumber + ".");
+                }
+                if (existing.getStatus() != ReservationStatus.DRAFT) {
+                    throw new IllegalOperationException("Reservation cannot be updated. Status: " + existing.getStatus());
+                }
+                // Throws, before anything is replaced, if the new dates or address clash with another booking
+                bookings.book(updatedReservation);
+                account.getReservations().set(index, updatedReservation);
+                reservationsByNumber.put(reservationNumber, updatedReservation);
+                counters.remove(existing);
+                counters.add(updatedReservation);
+                dayIndex.remove(existing);
+                dayIndex.add(updatedReservation);
+                scheduleTimer(updatedReservation);
+                record = reservationChanged(updatedReservation);
+            }
+            awaitJournal(record);
+        } catch (RuntimeException e) {
+            updateReservationTimer.error();
+            throw e;
+        } finally {
+            updateReservationTimer.stop(start);
+        }
+    }
+
+    // Move a reservation to another lodging address, re-indexing its booking; throws IllegalOperationException,
+    // leaving the reservation unchanged, if its stay overlaps another booking at the new address
+    public void updateLodgingAddress(String accountNumber, String reservationNumber, String lodgingPhysicalAddress) {
+        long start = System.nanoTime();
+        try {
+            faultIn(accountNumber);
+            Journal.PendingRecord record;
+            synchronized (lockFor(accountNumber)) {
+                Account account = accountsByNumber.get(accountNumber);
+                if (account == null) {
+                    throw new IllegalArgumentException("Account with number " + accountNumber + " does not exist.");
+                }
+
+                Reservation reservation = findReservation(reservationNumber);
+                if (reservation == null || reservationOwners.get(reservationNumber) != account) {
+                    throw new IllegalArgumentException("Reservation with number " + reservationNumber + " does not exist.");
+                }
+
+                String previousAddress = reservation.getLodgingPhysicalAddress();
+                reservation.setLodgingPhysicalAddress(lodgingPhysicalAddress);
+                try {
+                    bookings.book(reservation);
+                } catch (IllegalOperationException e) {
+                    reservation.setLodgingPhysicalAddress(previousAddress);
+                    throw e;
+                }
+                record = reservationChanged(reservation);
+            }
+            awaitJournal(record);
+        } catch (RuntimeException e) {
+            updateLodgingAddressTimer.error();
+            throw e;
+        } finally {
+            updateLodgingAddressTimer.stop(start);
+        }
+    }
+
+    // Start journaling mutations; records are synced in groups and folded into the base files by periodic checkpoints
+    public synchronized void startJournal(long flushIntervalMillis, int maxBatchSize, long checkpointIntervalMillis) throws IOException {
+        if (writingBehind) {
+            throw new IllegalStateException("Journal or write-behind is already started.");
+        }
+        journal = new Journal(accountsDirectory, flushIntervalMillis, maxBatchSize);
+        startCheckpoints(checkpointIntervalMillis);
+    }
+
+    // Persist without a journal: mutations only mark their records changed and return at once, and a background
+    // checkpoint writes the changed records every flushIntervalMillis. Changes not yet written are lost if the
+    // process dies without close(), which a shutdown hook runs on a normal JVM exit.
+    public synchronized void startWriteBehind(long flushIntervalMillis) {
+        if (writingBehind) {
+            throw new IllegalStateException("Journal or write-behind is already started.");
+        }
+        startCheckpoints(flushIntervalMillis);
+    }
+
+    private void startCheckpoints(long intervalMillis) {
+        writingBehind = true;
+        shutdownHook = new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                System.out.println("Failed to write pending changes on exit: " + e.getMessage());
+            }
+        }, "manager-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Checkpoint failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Write every account and reservation changed since the last checkpoint to its base file, each once however
+    // often it changed, and drop the journal segments that are now covered by the base files
+    public void checkpoint() throws IOException {
+        long start = System.nanoTime();
+        try {
+            synchronized (checkpointLock) {
+                if (writingBehind) {
+                    writeChangedRecords(journal);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            checkpointTimer.error();
+            throw e;
+        } finally {
+            checkpointTimer.stop(start);
+        }
+    }
+
+    private void writeChangedRecords(Journal current) throws IOException {
+        // Roll before taking the dirty sets: a mutation journaled in a sealed segment was marked dirty before it
+        // was appended, so it is in the sets taken below; anything later is in the new segment. Without a journal,
+        // the segments replayed at startup are sealed: their records were marked dirty as they were replayed.
+        List<Path> sealed = current == null ? replayedSegments : current.roll();
+
+        Set<String> accountNumbers;
+        Set<String> reservationNumbers;
+        dirtyLock.writeLock().lock();
+        try {
+            accountNumbers = dirtyAccounts;
+            reservationNumbers = dirtyReservations;
+            dirtyAccounts = ConcurrentHashMap.newKeySet();
+            dirtyReservations = ConcurrentHashMap.newKeySet();
+            oldestPendingChange.set(NONE_PENDING);
+        } finally {
+            dirtyLock.writeLock().unlock();
+        }
+        List<PendingFile> files = new ArrayList<>(accountNumbers.size() + reservationNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            Account account = accountsByNumber.get(accountNumber);
+            if (account != null) {
+                files.add(new PendingFile(AccountFiles.accountFile(accountsDirectory, accountNumber), account.toString(),
+                        accountNumber, null));
+            }
+        }
+        for (String reservationNumber : reservationNumbers) {
+            Reservation reservation = reservationsByNumber.get(reservationNumber);
+            Account owner = reservationOwners.get(reservationNumber);
+            if (reservation != null && owner != null) {
+                files.add(new PendingFile(AccountFiles.reservationFile(accountsDirectory, owner.getAccountNumber(), reservationNumber),
+                        reservation.toString(), owner.getAccountNumber(), reservation));
+            }
+        }
+        try {
+            for (PendingFile file : files) {
+                FlightEvents.RecordPersist event = new FlightEvents.RecordPersist();
+                event.begin();
+                int bytesWritten;
+                long start = System.nanoTime();
+                try {
+                    bytesWritten = AccountFiles.writeDurably(file.path, file.content);
+                } catch (IOException | RuntimeException e) {
+                    fileWriteTimer.error();
+                    throw e;
+                } finally {
+                    fileWriteTimer.stop(start);
+                }
+                writtenRecords.increment();
+                event.end();
+                if (event.shouldCommit()) {
+                    event.accountNumber = file.accountNumber;
+                    event.file = file.path.toString();
+                    event.bytesWritten = bytesWritten;
+                    if (file.reservation != null) {
+                        event.reservationNumber = file.reservation.getReservationNumber();
+                        event.reservationType = file.reservation.getClass().getSimpleName();
+                    }
+                    event.commit();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Keep the records pending so the next checkpoint writes them again
+            accountNumbers.forEach(accountNumber -> markChanged(true, accountNumber));
+            reservationNumbers.forEach(reservationNumber -> markChanged(false, reservationNumber));
+            throw e;
+        }
+        for (Path segment : sealed) {
+            Files.deleteIfExists(segment);
+        }
+        replayedSegments = List.of();
+    }
+
+    // A base file to write, with the record it holds; reservation is null for an account file
+    private static final class PendingFile {
+        private final Path path;
+        private final String content;
+        private final String accountNumber;
+        private final Reservation reservation;
+
+        private PendingFile(Path path, String content, String accountNumber, Reservation reservation) {
+            this.path = path;
+            this.content = content;
+            this.accountNumber = accountNumber;
+            this.reservation = reservation;
+        }
+    }
+
+    // Stop watching, write every pending change and stop journaling or writing behind; call before exiting so the
+    // base files are up to date
+    public void close() throws IOException {
+        stopWatching();
+        stopTimers();
+        ScheduledExecutorService scheduler;
+        Thread hook;
+        synchronized (this) {
+            scheduler = checkpointScheduler;
+            hook = shutdownHook;
+            if (scheduler == null) {
+                return;
+            }
+            scheduler.shutdown();
+            checkpointScheduler = null;
+            shutdownHook = null;
+        }
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+        Journal current;
+        synchronized (this) {
+            current = journal;
+            journal = null;
+            writingBehind = false;
+        }
+        if (hook != Thread.currentThread()) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down and runs the hook anyway; it finds nothing left to do
+            }
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    // Changed accounts and reservations waiting for the next checkpoint to write them
+    public int getPendingWriteCount() {
+        return dirtyAccounts.size() + dirtyReservations.size();
+    }
+
+    // How long the oldest change not yet written has been waiting, 0 when nothing is pending
+    public long getWriteLagMillis() {
+        long oldest = oldestPendingChange.get();
+        return oldest == NONE_PENDING ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+    }
+
+    // Account and reservation files written by checkpoints; fewer than the mutations when changes were merged
+    public long getWrittenRecordCount() {
+        return writtenRecords.sum();
+    }
+
+    // Watch the accounts directory and apply the account and reservation files that other tools create, change or
+    // delete, reading only those files; changes arriving within debounceMillis of each other are applied together
+    public synchronized void startWatching(long debounceMillis) throws IOException {
+        if (watcher != null) {
+            throw new IllegalStateException("Already watching " + accountsDirectory);
+        }
+        watcher = new AccountTreeWatcher(accountsDirectory, debounceMillis, this::reloadChangedFiles);
+    }
+
+    public void stopWatching() throws IOException {
+        AccountTreeWatcher current;
+        synchronized (this) {
+            current = watcher;
+            watcher = null;
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    // Expire drafts whose start date has passed and finish completed stays whose last night is over, checking
+    // every tickMillis. Each reservation waits on a hierarchical timing wheel for its next transition, so a tick
+    // costs O(1) per transition rather than a scan; the wheel starts from every reservation loaded so far, and the
+    // transitions of one tick are journaled as one group, in one write.
+    public synchronized void startTimers(long tickMillis) {
+        if (timerScheduler != null) {
+            throw new IllegalStateException("Timers are already started.");
+        }
+        TimingWheel<Reservation> wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        timersRunning = true;
+        // Reservations added from now on arrive through scheduleTimer; one added meanwhile may be queued twice,
+        // and its second timer finds nothing left to do
+        unscheduledReservations.addAll(reservationsByNumber.values());
+        timerScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-timers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timerScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runTimers(wheel);
+            } catch (RuntimeException e) {
+                System.out.println("Reservation timers failed: " + e.getMessage());
+            }
+        }, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stopTimers() {
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = timerScheduler;
+            timerScheduler = null;
+            timersRunning = false;
+        }
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unscheduledReservations.clear();
+    }
+
+    // Reservations moved to EXPIRED or FINISHED by the timers
+    public long getTimedTransitionCount() {
+        return timedTransitions.sum();
+    }
+
+    private void scheduleTimer(Reservation reservation) {
+        if (timersRunning) {
+            unscheduledReservations.add(reservation);
+        }
+    }
+
+    // One tick on the timer thread: put new reservations on the wheel, advance it and apply what came due
+    private void runTimers(TimingWheel<Reservation> wheel) {
+        long now = System.currentTimeMillis();
+        List<Reservation> due = new ArrayList<>();
+        Reservation reservation;
+        while ((reservation = unscheduledReservations.poll()) != null) {
+            long dueAt = transitionTime(reservation);
+            if (dueAt != NO_TRANSITION && !wheel.add(reservation, dueAt)) {
+                due.add(reservation);
+            }
+        }
+        wheel.advanceTo(now, due::add);
+        if (due.isEmpty()) {
+            return;
+        }
+        Journal.PendingRecord group = openJournalGroup();
+        try {
+            for (Reservation dueReservation : due) {
+                applyTimedTransition(wheel, dueReservation, now, group);
+            }
+        } finally {
+            sealJournalGroup(group);
+        }
+        awaitJournal(group);
+    }
+
+    // When a reservation's next time-based transition is due: the start date for a draft, the morning after
+    // the last night for a completed reservation; NO_TRANSITION for the other statuses
+    private static long transitionTime(Reservation reservation) {
+        return switch (reservation.getStatus()) {
+            case DRAFT -> reservation.getStartDate().getTime();
+            case COMPLETED -> reservation.getStartDate().toInstant().atZone(ZoneId.systemDefault())
+                    .plusDays(reservation.getNumberOfNights()).toInstant().toEpochMilli();
+            default -> NO_TRANSITION;
+        };
+    }
+
+    // Apply a due transition under the owner's lock, adding its journal record to group unless it is null
+    private void applyTimedTransition(TimingWheel<Reservation> wheel, Reservation reservation, long now,
+                                      Journal.PendingRecord group) {
+        String reservationNumber = reservation.getReservationNumber();
+        Account owner = reservationOwners.get(reservationNumber);
+        if (owner == null) {
+            return;
+        }
+        FlightEvents.StatusTransition transition = new FlightEvents.StatusTransition();
+        transition.begin();
+        synchronized (lockFor(owner.getAccountNumber())) {
+            // A replaced reservation has been scheduled again as its replacement
+            if (reservationsByNumber.get(reservationNumber) != reservation) {
+                return;
+            }
+            long dueAt = transitionTime(reservation);
+            if (dueAt == NO_TRANSITION) {
+                return;
+            }
+            // A draft completed since its timer was set waits again, for its last night
+            if (dueAt > now && wheel.add(reservation, dueAt)) {
+                return;
+            }
+            ReservationStatus from = reservation.getStatus();
+            ReservationStatus to = from == ReservationStatus.DRAFT ? ReservationStatus.EXPIRED : ReservationStatus.FINISHED;
+            if (!reservation.compareAndSetStatus(from, to)) {
+                return;
+            }
+            if (to == ReservationStatus.EXPIRED) {
+                bookings.remove(reservationNumber);
+            }
+            counters.changed(reservation, from, reservation.getPrice());
+            timedTransitions.increment();
+            FlightEvents.commitTransition(transition, owner.getAccountNumber(), reservation, from, true);
+            reservationChanged(reservation, group);
+        }
+    }
+
+    // Files re-read, and records removed, because of changes seen by the watcher
+    public long getReloadedFileCount() {
+        return reloadedFiles.sum();
+    }
+
+    // Apply one batch of changed paths from the watcher
+    private void reloadChangedFiles(Set<Path> paths) {
+        long start = System.nanoTime();
+        int reloaded = 0;
+        for (Path path : paths) {
+            try {
+                reloaded += reloadPath(path);
+            } catch (IOException | IllegalLoadException e) {
+                System.out.println("Skipping changed file " + path + ": " + e.getMessage());
+            }
+        }
+        reloadedFiles.add(reloaded);
+        if (reloaded > 0) {
+            System.out.println("Reloaded " + reloaded + " changed files in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+    }
+
+    private int reloadPath(Path path) throws IOException {
+        if (path.equals(accountsDirectory)) {
+            // Events were lost, so look at every folder; files that are gone are only noticed through their events
+            int reloaded = 0;
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(accountsDirectory, "Acc-*")) {
+                for (Path accountFolderPath : directoryStream) {
+                    reloaded += reloadAccountFolder(accountFolderPath);
+                }
+            }
+            return reloaded;
+        }
+        Path folder = path.getParent();
+        String name = path.getFileName().toString();
+        if (folder.equals(accountsDirectory)) {
+            if (!name.startsWith("Acc-")) {
+                return 0;
+            }
+            return Files.isDirectory(path) ? reloadAccountFolder(path) : removeAccount(name.substring("Acc-".length()));
+        }
+        if (!accountsDirectory.equals(folder.getParent()) || !folder.getFileName().toString().startsWith("Acc-")) {
+            return 0;
+        }
+        String accountNumber = folder.getFileName().toString().substring("Acc-".length());
+        if (name.startsWith("acc-") && name.endsWith(".txt") && Files.exists(path)) {
+            return reloadAccountFile(accountNumber, path);
+        }
+        if (name.startsWith("res-") && name.endsWith(".txt")) {
+            return Files.exists(path) ? reloadReservationFile(accountNumber, path)
+                    : removeReservation(accountNumber, name.substring("res-".length(), name.length() - ".txt".length()));
+        }
+        return 0;
+    }
+
+    // Load a folder the manager does not know yet, or re-read every file of one it does
+    private int reloadAccountFolder(Path accountFolderPath) throws IOException {
+        String accountNumber = accountFolderPath.getFileName().toString().substring("Acc-".length());
+        if (accountsByNumber.get(accountNumber) == null) {
+            Account loaded = loadAccountFolder(accountFolderPath, new LoadTimings());
+            if (loaded == null) {
+                return 0;
+            }
+            synchronized (lockFor(accountNumber)) {
+                if (accountsByNumber.get(accountNumber) == null) {
+                    registerAccount(loaded);
+                    return 1 + loaded.getReservations().size();
+                }
+            }
+        }
+        int reloaded = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(accountFolderPath, "*.txt")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("acc-")) {
+                    reloaded += reloadAccountFile(accountNumber, file);
+                } else if (name.startsWith("res-")) {
+                    reloaded += reloadReservationFile(accountNumber, file);
+                }
+            }
+        }
+        return reloaded;
+    }
+
+    // Files the manager wrote itself hold exactly what toString gives, so they are recognized and skipped, as are
+    // files of lazily loaded accounts that are not loaded yet, which will be read when they are
+    private int reloadAccountFile(String accountNumber, Path file) throws IOException {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account == null) {
+            return reloadAccountFolder(file.getParent());
+        }
+        if (!account.isLoaded()) {
+            return 0;
+        }
+        String content = Files.readString(file);
+        synchronized (lockFor(accountNumber)) {
+            if (content.equals(account.toString())) {
+                return 0;
+            }
+            Account updated = DataFileParser.parseAccount(content);
+            account.setMailingAddress(updated.getMailingAddress());
+            account.setEmailAddress(updated.getEmailAddress());
+            account.setPhoneNumber(updated.getPhoneNumber());
+        }
+        return 1;
+    }
+
+    private int reloadReservationFile(String accountNumber, Path file) throws IOException {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account == null) {
+            return reloadAccountFolder(file.getParent());
+        }
+        if (!account.isLoaded()) {
+            return 0;
+        }
+        String content = Files.readString(file);
+        Reservation reservation = DataFileParser.parseReservation(content);
+        synchronized (lockFor(accountNumber)) {
+            Reservation existing = reservationsByNumber.get(reservation.getReservationNumber());
+            if (existing != null && content.equals(existing.toString())) {
+                return 0;
+            }
+            putReservation(account, reservation);
+        }
+        return 1;
+    }
+
+    // Drop a reservation whose file was deleted
+    private int removeReservation(String accountNumber, String reservationNumber) {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account == null || !account.isLoaded()) {
+            return 0;
+        }
+        synchronized (lockFor(accountNumber)) {
+            if (reservationOwners.get(reservationNumber) != account) {
+                return 0;
+            }
+            unindexReservation(account, reservationNumber);
+        }
+        return 1;
+    }
+
+    // Drop an account, with its reservations, whose folder was deleted
+    private int removeAccount(String accountNumber) {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account == null) {
+            return 0;
+        }
+        synchronized (lockFor(accountNumber)) {
+            if (!accountsByNumber.remove(accountNumber, account)) {
+                return 0;
+            }
+            if (account.isLoaded()) {
+                for (Reservation reservation : account.getReservations()) {
+                    if (reservationOwners.get(reservation.getReservationNumber()) == account) {
+                        unindexReservation(account, reservation.getReservationNumber());
+                    }
+                }
+            }
+            accounts.remove(account);
+        }
+        return 1;
+    }
+
+    private void unindexReservation(Account account, String reservationNumber) {
+        Reservation removed = reservationsByNumber.remove(reservationNumber);
+        reservationOwners.remove(reservationNumber);
+        bookings.remove(reservationNumber);
+        account.getReservations().remove(removed);
+        counters.remove(removed);
+        dayIndex.remove(removed);
+    }
+
+    // Calls, errors and latencies of the public operations, loader phases and persistence writes
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    // Journal records written, and fsyncs used to write them, since startJournal; fewer syncs than records
+    // means concurrent writers shared a group commit
+    public long getJournalRecordCount() {
+        Journal current = journal;
+        return current == null ? 0 : current.getRecordCount();
+    }
+
+    public long getJournalSyncCount() {
+        Journal current = journal;
+        return current == null ? 0 : current.getSyncCount();
+    }
+
+    // Mark an account as changed since the last checkpoint and queue its journal record; returns the record, or
+    // null when not journaling. Called with the account's lock held, so the changes of one record are queued, and
+    // replayed, in the order they were made.
+    private Journal.PendingRecord accountChanged(Account account) {
+        if (!writingBehind) {
+            return null;
+        }
+        markChanged(true, account.getAccountNumber());
+        Journal current = journal;
+        return current == null ? null : current.enqueue(Journal.ACCOUNT, account.toString());
+    }
+
+    // Mark a reservation as changed since the last checkpoint and queue its journal record, under its owner's lock
+    private Journal.PendingRecord reservationChanged(Reservation reservation) {
+        return reservationChanged(reservation, null);
+    }
+
+    // Same, adding the journal record to group unless it is null
+    private Journal.PendingRecord reservationChanged(Reservation reservation, Journal.PendingRecord group) {
+        if (!writingBehind) {
+            return null;
+        }
+        markChanged(false, reservation.getReservationNumber());
+        Journal current = journal;
+        return current == null ? null : current.enqueue(group, Journal.RESERVATION, reservation.toString());
+    }
+
+    // Mark a new account and its reservations as changed and queue their records as one journal write, or add
+    // them to group unless it is null, under the account's lock
+    private Journal.PendingRecord accountAdded(Account account, Journal.PendingRecord group) {
+        if (!writingBehind) {
+            return null;
+        }
+        List<Reservation> reservations = account.getReservations();
+        byte[] types = new byte[1 + reservations.size()];
+        List<String> records = new ArrayList<>(types.length);
+        types[0] = Journal.ACCOUNT;
+        markChanged(true, account.getAccountNumber());
+        records.add(account.toString());
+        for (int i = 0; i < reservations.size(); i++) {
+            types[1 + i] = Journal.RESERVATION;
+            markChanged(false, reservations.get(i).getReservationNumber());
+            records.add(reservations.get(i).toString());
+        }
+        Journal current = journal;
+        return current == null ? null : current.enqueueAll(group, types, records);
+    }
+
+    private void markChanged(boolean account, String number) {
+        dirtyLock.readLock().lock();
+        try {
+            // Read the set under the lock, since a checkpoint may just have swapped in a new one
+            (account ? dirtyAccounts : dirtyReservations).add(number);
+            oldestPendingChange.compareAndSet(NONE_PENDING, System.nanoTime());
+        } finally {
+            dirtyLock.readLock().unlock();
+        }
+    }
+
+    // Open a journal group for the records of many changes, written together; null when not journaling
+    private Journal.PendingRecord openJournalGroup() {
+        Journal current = journal;
+        return current == null ? null : current.openGroup();
+    }
+
+    private static void sealJournalGroup(Journal.PendingRecord group) {
+        if (group != null) {
+            Journal.seal(group);
+        }
+    }
+
+    // Wait, outside the account's lock, until a queued record is synced, so concurrent writers share one fsync
+    private void awaitJournal(Journal.PendingRecord record) {
+        if (record != null) {
+            long start = System.nanoTime();
+            try {
+                Journal.await(record);
+            } catch (RuntimeException e) {
+                journalWriteTimer.error();
+                throw e;
+            } finally {
+                journalWriteTimer.stop(start);
+            }
+        }
+    }
+
+    // Replay journal segments left by a previous run on top of the loaded base data
+    private void replayJournal() {
+        try {
+            List<Path> segments = Journal.segments(accountsDirectory);
+            if (segments.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            int replayed = 0;
+            for (Path segment : segments) {
+                replayed += Journal.replay(segment, this::applyJournalRecord);
+            }
+            synchronized (checkpointLock) {
+                replayedSegments = segments;
+            }
+            System.out.println("Replayed " + replayed + " journal records from " + segments.size() + " segments in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (IOException e) {
+            System.out.println("Failed to replay journal: " + e.getMessage());
+        }
+    }
+
+    private void applyJournalRecord(byte type, String record) {
+        try {
+            if (type == Journal.ACCOUNT) {
+                Account replayed = DataFileParser.parseAccount(record);
+                Account account = accountsByNumber.get(replayed.getAccountNumber());
+                if (account == null) {
+                    registerAccount(replayed);
+                } else {
+                    account.setMailingAddress(replayed.getMailingAddress());
+                    account.setEmailAddress(replayed.getEmailAddress());
+                    account.setPhoneNumber(replayed.getPhoneNumber());
+                }
+                markChanged(true, replayed.getAccountNumber());
+            } else if (type == Journal.RESERVATION) {
+                Reservation replayed = DataFileParser.parseReservation(record);
+                Account owner = accountsByNumber.get(replayed.getAccountNumber());
+                if (owner == null) {
+                    System.out.println("Skipping journal record for reservation " + replayed.getReservationNumber()
+                            + ": account " + replayed.getAccountNumber() + " does not exist.");
                     return;
                 }
+                putReservation(owner, replayed);
+                markChanged(false, replayed.getReservationNumber());
+            } else {
+                System.out.println("Skipping journal record of unknown type " + type);
             }
+        } catch (IllegalLoadException e) {
+            System.out.println("Skipping malformed journal record: " + e.getMessage());
         }
-        System.out.println("Reservation not found.");
     }
 }
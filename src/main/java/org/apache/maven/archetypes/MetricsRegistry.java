@@ -0,0 +1,222 @@
+package org.apache.maven.archetypes;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Named timers, each counting calls and errors and keeping a latency histogram, readable as a text
+ * dump and as JMX MBeans.
+ *
+ * A timer's histogram has the buckets of LatencyHistogram (within about 6%) in an AtomicLongArray, and
+ * its counts are adders, so recording from any number of threads takes no lock and allocates nothing;
+ * it costs two System.nanoTime() calls and a handful of atomic adds. Readers copy the buckets into a
+ * LatencyHistogram to work out percentiles, which is consistent enough for monitoring while writers
+ * keep going.
+ */
+public final class MetricsRegistry {
+    /**
+     * Attributes of a timer as JMX shows them; latencies are in microseconds.
+     */
+    public interface TimerMBean {
+        long getCount();
+
+        long getErrorCount();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaxMicros();
+    }
+
+    /**
+     * Calls, errors and latencies of one operation: take System.nanoTime() before the call, pass it to
+     * stop in a finally block, and call error as well when the call throws.
+     */
+    public static final class Timer implements TimerMBean {
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Record one call that started at the given System.nanoTime()
+        public void stop(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(LatencyHistogram.bucketOf(value));
+            count.increment();
+            totalNanos.add(value);
+            maxNanos.accumulate(value);
+        }
+
+        // Count a failed call; it is timed as well when the caller also calls stop
+        public void error() {
+            errors.increment();
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            long calls = count.sum();
+            return calls == 0 ? 0 : totalNanos.sum() / 1000.0 / calls;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return percentileMicros(50);
+        }
+
+        @Override
+        public double getP99Micros() {
+            return percentileMicros(99);
+        }
+
+        @Override
+        public double getP999Micros() {
+            return percentileMicros(99.9);
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return maxNanos.get() / 1000.0;
+        }
+
+        public double percentileMicros(double percent) {
+            return snapshot().percentile(percent) / 1000.0;
+        }
+
+        private LatencyHistogram snapshot() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            long max = maxNanos.get();
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                long bucketCount = buckets.get(i);
+                if (bucketCount != 0) {
+                    histogram.addBucket(i, bucketCount, max);
+                }
+            }
+            return histogram;
+        }
+
+        @Override
+        public String toString() {
+            LatencyHistogram histogram = snapshot();
+            return String.format("%-28s count=%d errors=%d mean=%.1fus p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+                    name, getCount(), getErrorCount(), getMeanMicros(), histogram.percentile(50) / 1000.0,
+                    histogram.percentile(99) / 1000.0, histogram.percentile(99.9) / 1000.0, getMaxMicros());
+        }
+    }
+
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private ScheduledExecutorService dumpScheduler;
+
+    // The timer with the given name, created on first use; look timers up once and keep them, not on every call
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    // Every timer, by name
+    public Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(timers);
+    }
+
+    // One line per timer that has recorded anything, in name order
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        for (Timer timer : timers.values()) {
+            if (timer.getCount() > 0 || timer.getErrorCount() > 0) {
+                text.append(timer).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    // Register every timer existing now with the platform MBean server as
+    // org.apache.maven.archetypes:type=<type>,name=<timer name>; names are plain words and dots, never quoted
+    public synchronized void registerMBeans(String type) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Timer timer : timers.values()) {
+                ObjectName name = new ObjectName("org.apache.maven.archetypes:type=" + type + ",name=" + timer.getName());
+                server.registerMBean(new StandardMBean(timer, TimerMBean.class), name);
+                registered.add(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics MBeans: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone
+            }
+        }
+        registered.clear();
+    }
+
+    // Hand dump() to the consumer every intervalMillis from a daemon thread
+    public synchronized void startDump(long intervalMillis, Consumer<String> output) {
+        if (dumpScheduler != null) {
+            throw new IllegalStateException("Metrics dump is already started.");
+        }
+        dumpScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpScheduler.scheduleAtFixedRate(() -> output.accept(dump()), intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopDump() {
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdown();
+            dumpScheduler = null;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.apache.maven.archetypes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Prices reservations from a rule table with one row per lodging type.
+ *
+ * A row holds the base nightly rate and the fees added to it:
+ * <pre>
+ * # type  fields (missing fields are 0)
+ * HOTEL   base=120 sizeThreshold=900 sizeFee=15 flatFee=50 amenityFee=10
+ * CABIN   base=120 sizeThreshold=900 sizeFee=15 amenityFee=20 bathroomFee=5
+ * HOUSE   base=120 sizeThreshold=900 sizeFee=15 floorFee=25
+ * </pre>
+ * sizeFee applies when the lodging size is over sizeThreshold, amenityFee when a hotel room has a
+ * kitchenette or a cabin has a full kitchen, bathroomFee per bathroom and floorFee per floor. Fees
+ * are added in that order, which is the order of the original per-subclass formulas, so the default
+ * table gives bit-for-bit the same prices.
+ *
+ * Batches are priced in one pass over primitive columns, in parallel once they reach
+ * PARALLEL_THRESHOLD entries.
+ *
+ * Reservation.calculatePrice keeps its result until a pricing field of the reservation changes or the
+ * rules version moves on; setDefault and invalidatePrices move it on, and the hit and miss counters
+ * show how often a calculation was reused.
+ */
+public final class PricingEngine {
+    public static final byte HOTEL = 0;
+    public static final byte CABIN = 1;
+    public static final byte HOUSE = 2;
+
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final String[] TYPE_NAMES = {"HOTEL", "CABIN", "HOUSE"};
+    private static final String DEFAULT_RULES =
+            "HOTEL base=120 sizeThreshold=900 sizeFee=15 flatFee=50 amenityFee=10\n"
+            + "CABIN base=120 sizeThreshold=900 sizeFee=15 amenityFee=20 bathroomFee=5\n"
+            + "HOUSE base=120 sizeThreshold=900 sizeFee=15 floorFee=25\n";
+
+    // The engine calculatePrice uses; -Dpricing.rules=path replaces the built-in table
+    private static volatile PricingEngine defaultEngine;
+    // Bumped whenever the default rules change, which makes every memoized price stale
+    private static final AtomicLong rulesVersion = new AtomicLong();
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder cacheMisses = new LongAdder();
+
+    // Rule columns indexed by lodging type
+    private final double[] base = new double[3];
+    private final int[] sizeThreshold = new int[3];
+    private final double[] sizeFee = new double[3];
+    private final double[] flatFee = new double[3];
+    private final double[] amenityFee = new double[3];
+    private final double[] bathroomFee = new double[3];
+    private final double[] floorFee = new double[3];
+
+    private PricingEngine(String table) {
+        boolean[] defined = new boolean[3];
+        String[] lines = table.split("\n");
+        for (int lineNumber = 1; lineNumber <= lines.length; lineNumber++) {
+            String line = lines[lineNumber - 1].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            int type = Arrays.asList(TYPE_NAMES).indexOf(fields[0].toUpperCase());
+            if (type < 0) {
+                throw new IllegalLoadException("Unknown lodging type on pricing rule line " + lineNumber + ": " + fields[0]);
+            }
+            for (int i = 1; i < fields.length; i++) {
+                setRule(type, fields[i], lineNumber);
+            }
+            defined[type] = true;
+        }
+        for (int type = 0; type < defined.length; type++) {
+            if (!defined[type]) {
+                throw new IllegalLoadException("Pricing rules have no row for " + TYPE_NAMES[type] + ".");
+            }
+        }
+    }
+
+    private void setRule(int type, String field, int lineNumber) {
+        int equals = field.indexOf('=');
+        if (equals < 0) {
+            throw new IllegalLoadException("Expected name=value on pricing rule line " + lineNumber + ": " + field);
+        }
+        String name = field.substring(0, equals);
+        double value;
+        try {
+            value = Double.parseDouble(field.substring(equals + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalLoadException("Invalid value for " + name + " on pricing rule line " + lineNumber + ": " + field);
+        }
+        switch (name) {
+            case "base" -> base[type] = value;
+            case "sizeThreshold" -> sizeThreshold[type] = (int) value;
+            case "sizeFee" -> sizeFee[type] = value;
+            case "flatFee" -> flatFee[type] = value;
+            case "amenityFee" -> amenityFee[type] = value;
+            case "bathroomFee" -> bathroomFee[type] = value;
+            case "floorFee" -> floorFee[type] = value;
+            default -> throw new IllegalLoadException("Unknown pricing rule on line " + lineNumber + ": " + name);
+        }
+    }
+
+    // Engine for a rule table in the format described above
+    public static PricingEngine fromTable(String table) {
+        return new PricingEngine(table);
+    }
+
+    public static PricingEngine load(Path rulesFile) throws IOException {
+        return new PricingEngine(Files.readString(rulesFile));
+    }
+
+    // Engine with the built-in rules
+    public static PricingEngine builtIn() {
+        return new PricingEngine(DEFAULT_RULES);
+    }
+
+    public static PricingEngine getDefault() {
+        PricingEngine engine = defaultEngine;
+        if (engine == null) {
+            synchronized (PricingEngine.class) {
+                engine = defaultEngine;
+                if (engine == null) {
+                    engine = loadConfigured();
+                    defaultEngine = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    // Replace the default rules; memoized prices are recalculated on their next use
+    public static void setDefault(PricingEngine engine) {
+        defaultEngine = engine;
+        rulesVersion.incrementAndGet();
+    }
+
+    // Make every memoized price stale without changing the rules
+    public static void invalidatePrices() {
+        rulesVersion.incrementAndGet();
+    }
+
+    static long getRulesVersion() {
+        return rulesVersion.get();
+    }
+
+    static void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    static void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    // calculatePrice calls that reused a memoized price, and calls that had to calculate it
+    public static long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    public static long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    private static PricingEngine loadConfigured() {
+        String rulesFile = System.getProperty("pricing.rules");
+        if (rulesFile == null) {
+            return builtIn();
+        }
+        try {
+            return load(Path.of(rulesFile));
+        } catch (IOException | IllegalLoadException e) {
+            System.out.println("Failed to load pricing rules from " + rulesFile + ", using the built-in rules: " + e.getMessage());
+            return builtIn();
+        }
+    }
+
+    // Nightly price of one lodging described by its pricing columns
+    public double price(byte type, int lodgingSize, boolean amenity, int bathrooms, int floors) {
+        double additionalFee = 0.0;
+        if (lodgingSize > sizeThreshold[type]) {
+            additionalFee += sizeFee[type];
+        }
+        additionalFee += flatFee[type];
+        if (amenity) {
+            additionalFee += amenityFee[type];
+        }
+        additionalFee += bathrooms * bathroomFee[type];
+        additionalFee += floors * floorFee[type];
+        return base[type] + additionalFee;
+    }
+
+    // Nightly price of a reservation
+    public double price(Reservation reservation) {
+        return price(typeOf(reservation), reservation.getLodgingSize(), hasAmenity(reservation),
+                reservation.getNumberOfBathrooms(), floorsOf(reservation));
+    }
+
+    // Price every entry of the columns into prices; all arrays must have the same length
+    public void price(byte[] types, int[] lodgingSizes, boolean[] amenities, int[] bathrooms, int[] floors, double[] prices) {
+        int count = prices.length;
+        if (types.length != count || lodgingSizes.length != count || amenities.length != count
+                || bathrooms.length != count || floors.length != count) {
+            throw new IllegalArgumentException("Pricing columns must all have " + count + " entries.");
+        }
+        price(types, lodgingSizes, amenities, bathrooms, floors, prices, count);
+    }
+
+    // Price the first count entries of the columns into prices, leaving any spare capacity untouched
+    void price(byte[] types, int[] lodgingSizes, boolean[] amenities, int[] bathrooms, int[] floors, double[] prices,
+               int count) {
+        if (count >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, count).parallel().forEach(
+                    i -> prices[i] = price(types[i], lodgingSizes[i], amenities[i], bathrooms[i], floors[i]));
+        } else {
+            for (int i = 0; i < count; i++) {
+                prices[i] = price(types[i], lodgingSizes[i], amenities[i], bathrooms[i], floors[i]);
+            }
+        }
+    }
+
+    // Price a batch of reservations and store each result with setPrice
+    public void price(List<? extends Reservation> reservations) {
+        int count = reservations.size();
+        byte[] types = new byte[count];
+        int[] lodgingSizes = new int[count];
+        boolean[] amenities = new boolean[count];
+        int[] bathrooms = new int[count];
+        int[] floors = new int[count];
+        for (int i = 0; i < count; i++) {
+            Reservation reservation = reservations.get(i);
+            types[i] = typeOf(reservation);
+            lodgingSizes[i] = reservation.getLodgingSize();
+            amenities[i] = hasAmenity(reservation);
+            bathrooms[i] = reservation.getNumberOfBathrooms();
+            floors[i] = floorsOf(reservation);
+        }
+        double[] prices = new double[count];
+        price(types, lodgingSizes, amenities, bathrooms, floors, prices);
+        for (int i = 0; i < count; i++) {
+            reservations.get(i).setPrice(prices[i]);
+        }
+    }
+
+    public static byte typeOf(Reservation reservation) {
+        if (reservation instanceof HotelReservation) {
+            return HOTEL;
+        } else if (reservation instanceof CabinReservation) {
+            return CABIN;
+        } else if (reservation instanceof HouseReservation) {
+            return HOUSE;
+        }
+        throw new IllegalArgumentException("No pricing rules for " + reservation.getClass().getSimpleName());
+    }
+
+    private static boolean hasAmenity(Reservation reservation) {
+        if (reservation instanceof HotelReservation hotel) {
+            return hotel.hasKitchenette();
+        }
+        return reservation instanceof CabinReservation cabin && cabin.isFullKitchen();
+    }
+
+    private static int floorsOf(Reservation reservation) {
+        return reservation instanceof HouseReservation house ? house.getNumberOfFloors() : 0;
+    }
+}
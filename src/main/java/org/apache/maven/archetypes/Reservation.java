@@ -1,20 +1,29 @@
 package org.apache.maven.archetypes;
 
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class Reservation {
     private final String accountNumber;
     private final String reservationNumber;
-    private String lodgingPhysicalAddress;
+    private volatile String lodgingPhysicalAddress;
     private final String lodgingMailingAddress;
     private final Date startDate;
+    // Start date as days since 1970-01-01 in the system time zone, in which start dates are entered
+    private final int startDay;
     private final int numberOfNights;
     private final int numberOfBeds;
     private final int numberOfBedrooms;
-    private final int numberOfBathrooms;
-    private final int lodgingSize;
-    private double price;
-    private ReservationStatus status;
+    private volatile int numberOfBathrooms;
+    private volatile int lodgingSize;
+    private volatile double price;
+    // Price last calculated from the rules, with what it was calculated from; null after setPrice
+    private volatile PriceMemo priceMemo;
+    // Bumped by every setter of a field the price depends on
+    private volatile int pricingChanges;
+    // Changed with compareAndSetStatus so that of two racing transitions out of DRAFT only one wins
+    private final AtomicReference<ReservationStatus> status;
 
     // Constructor
     public Reservation(String accountNumber, String reservationNumber, String lodgingPhysicalAddress,
@@ -26,13 +35,14 @@ public abstract class Reservation {
         this.lodgingPhysicalAddress = lodgingPhysicalAddress;
         this.lodgingMailingAddress = lodgingMailingAddress;
         this.startDate = startDate;
+        this.startDay = (int) startDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
         this.numberOfNights = numberOfNights;
         this.numberOfBeds = numberOfBeds;
         this.numberOfBedrooms = numberOfBedrooms;
         this.numberOfBathrooms = numberOfBathrooms;
         this.lodgingSize = lodgingSize;
         this.price = 0.0;
-        this.status = ReservationStatus.DRAFT;
+        this.status = new AtomicReference<>(ReservationStatus.DRAFT);
     }
 
     // Getter for accountNumber
@@ -45,7 +55,8 @@ public abstract class Reservation {
         return reservationNumber;
     }
 
-    // Setter for lodgingPhysicalAddress
+    // Setter for lodgingPhysicalAddress; a reservation held by a Manager is moved with
+    // Manager.updateLodgingAddress, which keeps its booking indexed under the new address
     public void setLodgingPhysicalAddress(String lodgingPhysicalAddress)
     {
         this.lodgingPhysicalAddress = lodgingPhysicalAddress;
@@ -55,9 +66,10 @@ public abstract class Reservation {
         return lodgingPhysicalAddress;
     }
 
-    // Setter for price
+    // Setter for price; the next calculatePrice recalculates it
     public void setPrice(double price) {
         this.price = price;
+        this.priceMemo = null;
     }
 
     // Getter for lodgingMailingAddress
@@ -70,20 +82,52 @@ public abstract class Reservation {
         return startDate;
     }
 
+    // Day of arrival, as days since 1970-01-01 (LocalDate.ofEpochDay converts back)
+    public int getStartDay() {
+        return startDay;
+    }
+
+    // Day of departure, the morning after the last night
+    public int getEndDay() {
+        return startDay + numberOfNights;
+    }
+
     // Getter for numberOfNights
     public int getNumberOfNights() {
         return numberOfNights;
     }
+    // Getter for numberOfBeds
+    public int getNumberOfBeds() {
+        return numberOfBeds;
+    }
+
+    // Getter for numberOfBedrooms
+    public int getNumberOfBedrooms() {
+        return numberOfBedrooms;
+    }
+
     // Getter for numberOfBathrooms
     public int getNumberOfBathrooms() {
         return numberOfBathrooms;
     }
 
+    // Setter for numberOfBathrooms
+    public void setNumberOfBathrooms(int numberOfBathrooms) {
+        this.numberOfBathrooms = numberOfBathrooms;
+        pricingFieldChanged();
+    }
+
     // Getter for lodgingSize
     public int getLodgingSize() {
         return lodgingSize;
     }
 
+    // Setter for lodgingSize
+    public void setLodgingSize(int lodgingSize) {
+        this.lodgingSize = lodgingSize;
+        pricingFieldChanged();
+    }
+
     // Getter for price
     public double getPrice() {
         return price;
@@ -91,16 +135,61 @@ public abstract class Reservation {
 
     // Getter for status
     public ReservationStatus getStatus() {
-        return status;
+        return status.get();
     }
 
     // Setter for status
     public void setStatus(ReservationStatus status) {
-        this.status = status;
+        this.status.set(status);
+    }
+
+    // Change the status only if it is still the expected one; returns false if another caller changed it first
+    public boolean compareAndSetStatus(ReservationStatus expected, ReservationStatus status) {
+        return this.status.compareAndSet(expected, status);
+    }
+
+    // Calculate the nightly price from the pricing rules for this lodging type and store it; the result is
+    // reused until a field it depends on or the pricing rules change
+    public void calculatePrice() {
+        // Read the stamps before the fields, so a change made during the calculation makes the memo stale
+        long rulesVersion = PricingEngine.getRulesVersion();
+        int changes = pricingChanges;
+        PriceMemo memo = priceMemo;
+        if (memo != null && memo.rulesVersion == rulesVersion && memo.pricingChanges == changes) {
+            PricingEngine.recordCacheHit();
+            // Normally a no-op; restores the calculated price if a racing setPrice slipped in before the memo
+            if (price != memo.price) {
+                price = memo.price;
+            }
+            return;
+        }
+        PricingEngine.recordCacheMiss();
+        double calculated = PricingEngine.getDefault().price(this);
+        price = calculated;
+        priceMemo = new PriceMemo(calculated, rulesVersion, changes);
     }
 
-    // Abstract method to calculate the price
-    public abstract void calculatePrice();
+    // Forget the calculated price so the next calculatePrice recalculates it
+    public void invalidatePrice() {
+        priceMemo = null;
+    }
+
+    // Called by setters of fields the price depends on
+    protected final synchronized void pricingFieldChanged() {
+        pricingChanges++;
+    }
+
+    private static final class PriceMemo {
+        private final double price;
+        private final long rulesVersion;
+        private final int pricingChanges;
+
+        private PriceMemo(double price, long rulesVersion, int pricingChanges) {
+            this.price = price;
+            this.rulesVersion = rulesVersion;
+            this.pricingChanges = pricingChanges;
+        }
+    }
 
     // Override the toString method to provide a string representation of the object
     @Override
@@ -109,13 +198,13 @@ public abstract class Reservation {
                 "\nReservation Number: " + reservationNumber +
                 "\nPhysical Address: " + lodgingPhysicalAddress +
                 "\nMailing Address: " + lodgingMailingAddress +
-                "\nStart Date: " + startDate +
+                "\nStart Date: " + DataFileParser.formatDate(startDate) +
                 "\nNumber of Nights: " + numberOfNights +
                 "\nNumber of Beds: " + numberOfBeds +
                 "\nNumber of Bedrooms: " + numberOfBedrooms +
                 "\nNumber of Bathrooms: " + numberOfBathrooms +
                 "\nLodging Size: " + lodgingSize +
                 "\nPrice: $" + price +
-                "\nStatus: " + status;
+                "\nStatus: " + status.get();
     }
 }
@@ -0,0 +1,224 @@
+package org.apache.maven.archetypes;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reservation count, nights, revenue (price * nights) and average lodging size, grouped by reservation
+ * type, status and start month, over the reservations starting in a date range.
+ *
+ * Accounts are walked with a parallel stream. Each fork-join leaf fills one Accumulator of flat primitive
+ * arrays, one slot per group, and the leaves' accumulators are added together, so the walk allocates a
+ * handful of arrays per thread rather than anything per reservation. Start months are found by binary
+ * search over precomputed month boundaries in epoch millis, without any date objects.
+ */
+public final class ReservationAggregates {
+    private static final ReservationStatus[] STATUSES = ReservationStatus.values();
+    private static final List<Class<? extends Reservation>> TYPES =
+            List.of(HotelReservation.class, CabinReservation.class, HouseReservation.class);
+    private static final int GROUPS_PER_MONTH = 3 * STATUSES.length;
+
+    private final YearMonth firstMonth;
+    private final Accumulator totals;
+
+    private ReservationAggregates(YearMonth firstMonth, Accumulator totals) {
+        this.firstMonth = firstMonth;
+        this.totals = totals;
+    }
+
+    // Aggregate the reservations of the accounts whose start date is in [from, to), in the system time zone
+    static ReservationAggregates of(Collection<Account> accounts, LocalDate from, LocalDate to, boolean parallel) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to: " + from + ", " + to);
+        }
+        YearMonth firstMonth = YearMonth.from(from);
+        int months = (int) (firstMonth.until(YearMonth.from(to.minusDays(1)), ChronoUnit.MONTHS) + 1);
+        // boundaries[m] is the start of month m, clipped to the range; boundaries[months] is the end of the range
+        long[] boundaries = new long[months + 1];
+        ZoneId zone = ZoneId.systemDefault();
+        boundaries[0] = from.atStartOfDay(zone).toInstant().toEpochMilli();
+        for (int month = 1; month < months; month++) {
+            boundaries[month] = firstMonth.plusMonths(month).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        boundaries[months] = to.atStartOfDay(zone).toInstant().toEpochMilli();
+
+        Stream<Account> stream = parallel ? accounts.parallelStream() : accounts.stream();
+        Accumulator totals = stream.collect(() -> new Accumulator(boundaries),
+                Accumulator::addAccount, Accumulator::addAll);
+        return new ReservationAggregates(firstMonth, totals);
+    }
+
+    // Groups with at least one reservation, by month, then type (hotel, cabin, house), then status
+    public List<Group> getGroups() {
+        List<Group> groups = new ArrayList<>();
+        for (int slot = 0; slot < totals.counts.length; slot++) {
+            if (totals.counts[slot] > 0) {
+                groups.add(group(slot));
+            }
+        }
+        return Collections.unmodifiableList(groups);
+    }
+
+    // One group; all zero when no reservation fell into it or the month is outside the range
+    public Group get(Class<? extends Reservation> type, ReservationStatus status, YearMonth month) {
+        int typeIndex = TYPES.indexOf(type);
+        if (typeIndex < 0) {
+            throw new IllegalArgumentException("Unknown reservation type: " + type.getName());
+        }
+        long monthIndex = firstMonth.until(month, ChronoUnit.MONTHS);
+        if (monthIndex < 0 || monthIndex >= totals.counts.length / GROUPS_PER_MONTH) {
+            return new Group(type, status, month, 0, 0, 0.0, 0);
+        }
+        return group(Accumulator.slot((int) monthIndex, typeIndex, status.ordinal()));
+    }
+
+    // Totals over every group
+    public Group getTotal() {
+        long count = 0;
+        long nights = 0;
+        double revenue = 0.0;
+        long lodgingSize = 0;
+        for (int slot = 0; slot < totals.counts.length; slot++) {
+            count += totals.counts[slot];
+            nights += totals.nights[slot];
+            revenue += totals.revenue[slot];
+            lodgingSize += totals.lodgingSizes[slot];
+        }
+        return new Group(null, null, null, count, nights, revenue, lodgingSize);
+    }
+
+    private Group group(int slot) {
+        int month = slot / GROUPS_PER_MONTH;
+        int type = slot % GROUPS_PER_MONTH / STATUSES.length;
+        int status = slot % STATUSES.length;
+        return new Group(TYPES.get(type), STATUSES[status], firstMonth.plusMonths(month), totals.counts[slot],
+                totals.nights[slot], totals.revenue[slot], totals.lodgingSizes[slot]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("%-8s %-17s %-10s %8s %8s %14s %9s%n",
+                "month", "type", "status", "count", "nights", "revenue", "avg size"));
+        for (Group group : getGroups()) {
+            text.append(String.format("%-8s %-17s %-10s %8d %8d %14.2f %9.1f%n", group.month,
+                    group.type.getSimpleName(), group.status, group.count, group.nights, group.revenue,
+                    group.getAverageLodgingSize()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Aggregates of one type, status and month; the total has no type, status or month.
+     */
+    public static final class Group {
+        private final Class<? extends Reservation> type;
+        private final ReservationStatus status;
+        private final YearMonth month;
+        private final long count;
+        private final long nights;
+        private final double revenue;
+        private final long lodgingSize;
+
+        private Group(Class<? extends Reservation> type, ReservationStatus status, YearMonth month, long count,
+                      long nights, double revenue, long lodgingSize) {
+            this.type = type;
+            this.status = status;
+            this.month = month;
+            this.count = count;
+            this.nights = nights;
+            this.revenue = revenue;
+            this.lodgingSize = lodgingSize;
+        }
+
+        public Class<? extends Reservation> getType() {
+            return type;
+        }
+
+        public ReservationStatus getStatus() {
+            return status;
+        }
+
+        public YearMonth getMonth() {
+            return month;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getNights() {
+            return nights;
+        }
+
+        // Sum of price * nights
+        public double getRevenue() {
+            return revenue;
+        }
+
+        // 0 for an empty group
+        public double getAverageLodgingSize() {
+            return count == 0 ? 0.0 : (double) lodgingSize / count;
+        }
+    }
+
+    // Running sums of one traversal chunk, one slot per month, type and status
+    private static final class Accumulator {
+        private final long[] boundaries;
+        private final long[] counts;
+        private final long[] nights;
+        private final double[] revenue;
+        private final long[] lodgingSizes;
+
+        private Accumulator(long[] boundaries) {
+            this.boundaries = boundaries;
+            int slots = (boundaries.length - 1) * GROUPS_PER_MONTH;
+            counts = new long[slots];
+            nights = new long[slots];
+            revenue = new double[slots];
+            lodgingSizes = new long[slots];
+        }
+
+        private static int slot(int month, int type, int status) {
+            return month * GROUPS_PER_MONTH + type * STATUSES.length + status;
+        }
+
+        private void addAccount(Account account) {
+            for (Reservation reservation : account.getReservations()) {
+                add(reservation);
+            }
+        }
+
+        private void add(Reservation reservation) {
+            long start = reservation.getStartDate().getTime();
+            if (start < boundaries[0] || start >= boundaries[boundaries.length - 1]) {
+                return;
+            }
+            // Index of the last boundary at or before start
+            int found = Arrays.binarySearch(boundaries, start);
+            int month = found >= 0 ? found : -found - 2;
+            int slot = slot(month, PricingEngine.typeOf(reservation), reservation.getStatus().ordinal());
+            int reservationNights = reservation.getNumberOfNights();
+            counts[slot]++;
+            nights[slot] += reservationNights;
+            revenue[slot] += reservation.getPrice() * reservationNights;
+            lodgingSizes[slot] += reservation.getLodgingSize();
+        }
+
+        private void addAll(Accumulator other) {
+            for (int slot = 0; slot < counts.length; slot++) {
+                counts[slot] += other.counts[slot];
+                nights[slot] += other.nights[slot];
+                revenue[slot] += other.revenue[slot];
+                lodgingSizes[slot] += other.lodgingSizes[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.apache.maven.archetypes;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Reservations stored column by column in parallel arrays instead of one object each.
+ *
+ * The numeric fields, start time, status and lodging type are primitive columns, and the four strings
+ * are reference columns, so a row costs well under half the heap of a Reservation with its Date and status
+ * holder, and a scan over one field walks a single contiguous array. Rows are appended and never
+ * removed; row numbers are stable.
+ *
+ * get(row) returns a Row view with the same getters as Reservation, reading straight from the
+ * columns; toReservation(row) materializes a regular Reservation when one is needed. Not thread-safe.
+ */
+public final class ReservationColumns {
+    private static final ReservationStatus[] STATUSES = ReservationStatus.values();
+
+    private int size;
+    private String[] accountNumbers;
+    private String[] reservationNumbers;
+    private String[] physicalAddresses;
+    private String[] mailingAddresses;
+    private long[] startTimes;
+    private int[] nights;
+    private int[] beds;
+    private int[] bedrooms;
+    private int[] bathrooms;
+    private int[] lodgingSizes;
+    private double[] prices;
+    private byte[] statuses;
+    private byte[] types;
+    // Kitchenette for hotels, full kitchen for cabins
+    private boolean[] amenities;
+    // Floors for houses, 0 otherwise
+    private int[] floors;
+
+    public ReservationColumns() {
+        this(16);
+    }
+
+    public ReservationColumns(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    // Columns holding a copy of the given reservations, in iteration order
+    public static ReservationColumns of(Collection<? extends Reservation> reservations) {
+        ReservationColumns columns = new ReservationColumns(reservations.size());
+        for (Reservation reservation : reservations) {
+            columns.add(reservation);
+        }
+        return columns;
+    }
+
+    // Append a copy of a reservation and return its row
+    public int add(Reservation reservation) {
+        if (size == prices.length) {
+            grow();
+        }
+        int row = size++;
+        accountNumbers[row] = reservation.getAccountNumber();
+        reservationNumbers[row] = reservation.getReservationNumber();
+        physicalAddresses[row] = reservation.getLodgingPhysicalAddress();
+        mailingAddresses[row] = reservation.getLodgingMailingAddress();
+        startTimes[row] = reservation.getStartDate().getTime();
+        nights[row] = reservation.getNumberOfNights();
+        beds[row] = reservation.getNumberOfBeds();
+        bedrooms[row] = reservation.getNumberOfBedrooms();
+        bathrooms[row] = reservation.getNumberOfBathrooms();
+        lodgingSizes[row] = reservation.getLodgingSize();
+        prices[row] = reservation.getPrice();
+        statuses[row] = (byte) reservation.getStatus().ordinal();
+        types[row] = PricingEngine.typeOf(reservation);
+        if (reservation instanceof HotelReservation hotel) {
+            amenities[row] = hotel.hasKitchenette();
+        } else if (reservation instanceof CabinReservation cabin) {
+            amenities[row] = cabin.isFullKitchen();
+        } else {
+            floors[row] = ((HouseReservation) reservation).getNumberOfFloors();
+        }
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // View of a row; cheap to create and only valid while the columns are
+    public Row get(int row) {
+        checkRow(row);
+        return new Row(row);
+    }
+
+    // A regular Reservation with the row's values
+    public Reservation toReservation(int row) {
+        checkRow(row);
+        Date startDate = new Date(startTimes[row]);
+        Reservation reservation = switch (types[row]) {
+            case PricingEngine.HOTEL -> new HotelReservation(accountNumbers[row], reservationNumbers[row],
+                    physicalAddresses[row], mailingAddresses[row], startDate, nights[row], beds[row], bedrooms[row],
+                    bathrooms[row], lodgingSizes[row], amenities[row]);
+            case PricingEngine.CABIN -> new CabinReservation(accountNumbers[row], reservationNumbers[row],
+                    physicalAddresses[row], mailingAddresses[row], startDate, nights[row], beds[row], bedrooms[row],
+                    bathrooms[row], lodgingSizes[row], amenities[row]);
+            default -> new HouseReservation(accountNumbers[row], reservationNumbers[row],
+                    physicalAddresses[row], mailingAddresses[row], startDate, nights[row], beds[row], bedrooms[row],
+                    bathrooms[row], lodgingSizes[row], floors[row]);
+        };
+        reservation.setPrice(prices[row]);
+        reservation.setStatus(STATUSES[statuses[row]]);
+        return reservation;
+    }
+
+    // Recalculate every row's nightly price in one batch, writing straight into the price column
+    public void reprice(PricingEngine engine) {
+        engine.price(types, lodgingSizes, amenities, bathrooms, floors, prices, size);
+    }
+
+    // Sum of price * nights over the rows with the given status, read column by column
+    public double totalRevenue(ReservationStatus status) {
+        byte wanted = (byte) status.ordinal();
+        double total = 0.0;
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == wanted) {
+                total += prices[row] * nights[row];
+            }
+        }
+        return total;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+
+    private void allocate(int capacity) {
+        accountNumbers = new String[capacity];
+        reservationNumbers = new String[capacity];
+        physicalAddresses = new String[capacity];
+        mailingAddresses = new String[capacity];
+        startTimes = new long[capacity];
+        nights = new int[capacity];
+        beds = new int[capacity];
+        bedrooms = new int[capacity];
+        bathrooms = new int[capacity];
+        lodgingSizes = new int[capacity];
+        prices = new double[capacity];
+        statuses = new byte[capacity];
+        types = new byte[capacity];
+        amenities = new boolean[capacity];
+        floors = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = prices.length + (prices.length >> 1) + 1;
+        accountNumbers = Arrays.copyOf(accountNumbers, capacity);
+        reservationNumbers = Arrays.copyOf(reservationNumbers, capacity);
+        physicalAddresses = Arrays.copyOf(physicalAddresses, capacity);
+        mailingAddresses = Arrays.copyOf(mailingAddresses, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        nights = Arrays.copyOf(nights, capacity);
+        beds = Arrays.copyOf(beds, capacity);
+        bedrooms = Arrays.copyOf(bedrooms, capacity);
+        bathrooms = Arrays.copyOf(bathrooms, capacity);
+        lodgingSizes = Arrays.copyOf(lodgingSizes, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        types = Arrays.copyOf(types, capacity);
+        amenities = Arrays.copyOf(amenities, capacity);
+        floors = Arrays.copyOf(floors, capacity);
+    }
+
+    /**
+     * One row, read through the same getters as Reservation.
+     */
+    public final class Row {
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getAccountNumber() {
+            return accountNumbers[row];
+        }
+
+        public String getReservationNumber() {
+            return reservationNumbers[row];
+        }
+
+        public String getLodgingPhysicalAddress() {
+            return physicalAddresses[row];
+        }
+
+        public String getLodgingMailingAddress() {
+            return mailingAddresses[row];
+        }
+
+        // A new Date each call, like reading the column
+        public Date getStartDate() {
+            return new Date(startTimes[row]);
+        }
+
+        public int getNumberOfNights() {
+            return nights[row];
+        }
+
+        public int getNumberOfBeds() {
+            return beds[row];
+        }
+
+        public int getNumberOfBedrooms() {
+            return bedrooms[row];
+        }
+
+        public int getNumberOfBathrooms() {
+            return bathrooms[row];
+        }
+
+        public int getLodgingSize() {
+            return lodgingSizes[row];
+        }
+
+        public double getPrice() {
+            return prices[row];
+        }
+
+        public void setPrice(double price) {
+            prices[row] = price;
+        }
+
+        public ReservationStatus getStatus() {
+            return STATUSES[statuses[row]];
+        }
+
+        public void setStatus(ReservationStatus status) {
+            statuses[row] = (byte) status.ordinal();
+        }
+
+        // PricingEngine.HOTEL, CABIN or HOUSE
+        public byte getType() {
+            return types[row];
+        }
+
+        public boolean hasKitchenette() {
+            return types[row] == PricingEngine.HOTEL && amenities[row];
+        }
+
+        public boolean isFullKitchen() {
+            return types[row] == PricingEngine.CABIN && amenities[row];
+        }
+
+        public int getNumberOfFloors() {
+            return floors[row];
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.apache.maven.archetypes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of reservations and revenue (price * nights) per status, kept up to date by the Manager as
+ * reservations are added, change status, are repriced and are replaced.
+ *
+ * Each counter is a striped adder, so writers on different threads rarely touch the same cell and a
+ * read never blocks them. A read sums the cells of one counter; a status change moves a reservation
+ * between two counters in two steps, so counts read while writers are busy may be off by the changes
+ * in flight, and settle once they finish.
+ */
+final class ReservationCounters {
+    private static final ReservationStatus[] STATUSES = ReservationStatus.values();
+
+    private final LongAdder[] counts = new LongAdder[STATUSES.length];
+    private final DoubleAdder[] revenue = new DoubleAdder[STATUSES.length];
+
+    ReservationCounters() {
+        for (int i = 0; i < STATUSES.length; i++) {
+            counts[i] = new LongAdder();
+            revenue[i] = new DoubleAdder();
+        }
+    }
+
+    void add(Reservation reservation) {
+        int status = reservation.getStatus().ordinal();
+        counts[status].increment();
+        revenue[status].add(revenueOf(reservation));
+    }
+
+    void remove(Reservation reservation) {
+        int status = reservation.getStatus().ordinal();
+        counts[status].decrement();
+        revenue[status].add(-revenueOf(reservation));
+    }
+
+    // A reservation that was counted with the given status and price now has its current ones
+    void changed(Reservation reservation, ReservationStatus previousStatus, double previousPrice) {
+        int previous = previousStatus.ordinal();
+        counts[previous].decrement();
+        revenue[previous].add(-previousPrice * reservation.getNumberOfNights());
+        add(reservation);
+    }
+
+    long getCount(ReservationStatus status) {
+        return counts[status.ordinal()].sum();
+    }
+
+    double getRevenue(ReservationStatus status) {
+        return revenue[status.ordinal()].sum();
+    }
+
+    // Differences from counters recounted from scratch, one message per status and field that disagree;
+    // revenue may differ by rounding, since the adders sum in no fixed order
+    List<String> compareWith(ReservationCounters recount) {
+        List<String> differences = new ArrayList<>();
+        for (ReservationStatus status : STATUSES) {
+            if (getCount(status) != recount.getCount(status)) {
+                differences.add(status + " count is " + getCount(status) + " but a recount finds " + recount.getCount(status));
+            }
+            double kept = getRevenue(status);
+            double recounted = recount.getRevenue(status);
+            if (Math.abs(kept - recounted) > 1e-9 * Math.max(1.0, Math.abs(recounted))) {
+                differences.add(status + " revenue is " + kept + " but a recount finds " + recounted);
+            }
+        }
+        return differences;
+    }
+
+    private static double revenueOf(Reservation reservation) {
+        return reservation.getPrice() * reservation.getNumberOfNights();
+    }
+}
@@ -0,0 +1,67 @@
+package org.apache.maven.archetypes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Reservations by start day and, separately, by end day, for range queries on dates.
+ *
+ * Each order is a map from epoch day to the reservations on that day, keyed by reservation number in
+ * insertion order, so a query walks the days in range: O(log d + k) for d distinct days and k matches.
+ * The Manager updates the index with every reservation it adds, replaces or removes, so a query never
+ * rebuilds it. A single lock guards both maps; an update holds it for a few map operations, a query
+ * while it copies its matches.
+ */
+final class ReservationDayIndex {
+    private final NavigableMap<Integer, Map<String, Reservation>> byStart = new TreeMap<>();
+    private final NavigableMap<Integer, Map<String, Reservation>> byEnd = new TreeMap<>();
+
+    // Index a reservation under its start and end days; a reservation it replaces is removed separately
+    synchronized void add(Reservation reservation) {
+        link(byStart, reservation.getStartDay(), reservation);
+        link(byEnd, reservation.getEndDay(), reservation);
+    }
+
+    // Drop a reservation; a newer reservation with the same number stays indexed
+    synchronized void remove(Reservation reservation) {
+        unlink(byStart, reservation.getStartDay(), reservation);
+        unlink(byEnd, reservation.getEndDay(), reservation);
+    }
+
+    // Reservations starting on a day in [fromDay, toDay], in start order
+    synchronized List<Reservation> startingBetween(int fromDay, int toDay) {
+        return between(byStart, fromDay, toDay);
+    }
+
+    // Reservations ending (departing) on a day in [fromDay, toDay], in end order
+    synchronized List<Reservation> endingBetween(int fromDay, int toDay) {
+        return between(byEnd, fromDay, toDay);
+    }
+
+    private static void link(NavigableMap<Integer, Map<String, Reservation>> days, int day, Reservation reservation) {
+        days.computeIfAbsent(day, key -> new LinkedHashMap<>()).put(reservation.getReservationNumber(), reservation);
+    }
+
+    private static void unlink(NavigableMap<Integer, Map<String, Reservation>> days, int day, Reservation reservation) {
+        Map<String, Reservation> reservations = days.get(day);
+        if (reservations != null && reservations.remove(reservation.getReservationNumber(), reservation)
+                && reservations.isEmpty()) {
+            days.remove(day);
+        }
+    }
+
+    private static List<Reservation> between(NavigableMap<Integer, Map<String, Reservation>> days, int fromDay,
+                                             int toDay) {
+        List<Reservation> found = new ArrayList<>();
+        if (fromDay <= toDay) {
+            for (Map<String, Reservation> reservations : days.subMap(fromDay, true, toDay, true).values()) {
+                found.addAll(reservations.values());
+            }
+        }
+        return found;
+    }
+}
@@ -3,5 +3,9 @@ package org.apache.maven.archetypes;
 public enum ReservationStatus {
     DRAFT,
     COMPLETED,
-    CANCELLED
+    CANCELLED,
+    // A draft whose start date passed before it was completed
+    EXPIRED,
+    // A completed reservation whose last night is over
+    FINISHED
 }
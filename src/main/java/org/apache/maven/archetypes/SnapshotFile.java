@@ -0,0 +1,236 @@
+package org.apache.maven.archetypes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of every account and reservation, so a cold start reads one file instead of one
+ * file per account and reservation.
+ *
+ * Layout (big-endian), version 1:
+ * <pre>
+ *   int    magic "RSNP"
+ *   short  version
+ *   long   createdAt (epoch millis, taken before the accounts are written)
+ *   int    account count
+ *   per account:     str accountNumber, str mailingAddress, str emailAddress, str phoneNumber, int reservation count
+ *   per reservation: byte type (1 hotel, 2 cabin, 3 house), str accountNumber, str reservationNumber,
+ *                    str physicalAddress, str mailingAddress, long startDate (epoch millis),
+ *                    int nights, int beds, int bedrooms, int bathrooms, int lodgingSize, double price,
+ *                    byte status ordinal, then boolean kitchenette | boolean fullKitchen | int floors
+ *   long   CRC32 of everything above
+ * </pre>
+ * where str is an unsigned short byte length followed by UTF-8 bytes.
+ */
+final class SnapshotFile {
+    static final String FILE_NAME = "accounts.snapshot";
+    private static final int MAGIC = 0x52534E50;
+    private static final short VERSION = 1;
+    private static final byte HOTEL = 1;
+    private static final byte CABIN = 2;
+    private static final byte HOUSE = 3;
+
+    private final long createdAt;
+    private final List<Account> accounts;
+
+    private SnapshotFile(long createdAt, List<Account> accounts) {
+        this.createdAt = createdAt;
+        this.accounts = accounts;
+    }
+
+    // Time the snapshot was taken; files modified after it are not covered by the snapshot
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    // Accounts with their reservations, in snapshot order
+    List<Account> getAccounts() {
+        return accounts;
+    }
+
+    // Write the accounts to a temporary file and move it over the snapshot, so readers never see a partial file
+    static void write(Path snapshotPath, List<Account> accounts) throws IOException {
+        long createdAt = System.currentTimeMillis();
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream fileStream = Files.newOutputStream(temporaryPath);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fileStream, crc), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(createdAt);
+            out.writeInt(accounts.size());
+            for (Account account : accounts) {
+                writeString(out, account.getAccountNumber());
+                writeString(out, account.getMailingAddress());
+                writeString(out, account.getEmailAddress());
+                writeString(out, account.getPhoneNumber());
+                List<Reservation> reservations = account.getReservations();
+                out.writeInt(reservations.size());
+                for (Reservation reservation : reservations) {
+                    writeReservation(out, reservation);
+                }
+            }
+            out.flush();
+            // The checksum covers everything written so far and is not part of its own input
+            new DataOutputStream(fileStream).writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeReservation(DataOutputStream out, Reservation reservation) throws IOException {
+        if (reservation instanceof HotelReservation) {
+            out.writeByte(HOTEL);
+        } else if (reservation instanceof CabinReservation) {
+            out.writeByte(CABIN);
+        } else if (reservation instanceof HouseReservation) {
+            out.writeByte(HOUSE);
+        } else {
+            throw new IllegalArgumentException("Unknown reservation type: " + reservation.getClass().getName());
+        }
+        writeString(out, reservation.getAccountNumber());
+        writeString(out, reservation.getReservationNumber());
+        writeString(out, reservation.getLodgingPhysicalAddress());
+        writeString(out, reservation.getLodgingMailingAddress());
+        out.writeLong(reservation.getStartDate().getTime());
+        out.writeInt(reservation.getNumberOfNights());
+        out.writeInt(reservation.getNumberOfBeds());
+        out.writeInt(reservation.getNumberOfBedrooms());
+        out.writeInt(reservation.getNumberOfBathrooms());
+        out.writeInt(reservation.getLodgingSize());
+        out.writeDouble(reservation.getPrice());
+        out.writeByte(reservation.getStatus().ordinal());
+        if (reservation instanceof HotelReservation hotel) {
+            out.writeBoolean(hotel.hasKitchenette());
+        } else if (reservation instanceof CabinReservation cabin) {
+            out.writeBoolean(cabin.isFullKitchen());
+        } else {
+            out.writeInt(((HouseReservation) reservation).getNumberOfFloors());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Value too long for snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    // Memory-map the snapshot and rebuild the accounts from it, pooling the repeated strings of the
+    // reservations in strings unless it is null
+    static SnapshotFile read(Path snapshotPath, StringPool strings) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalLoadException("Snapshot " + snapshotPath + " has an invalid size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int bodyLength = (int) size - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodyLength));
+            if (crc.getValue() != buffer.getLong(bodyLength)) {
+                throw new IllegalLoadException("Snapshot " + snapshotPath + " is corrupt: checksum mismatch.");
+            }
+            buffer.limit(bodyLength);
+            try {
+                return readBody(buffer, strings);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalLoadException("Snapshot " + snapshotPath + " is truncated.");
+            }
+        }
+    }
+
+    private static SnapshotFile readBody(ByteBuffer in, StringPool strings) {
+        if (in.getInt() != MAGIC) {
+            throw new IllegalLoadException("Not a snapshot file.");
+        }
+        short version = in.getShort();
+        if (version != VERSION) {
+            throw new IllegalLoadException("Unsupported snapshot version: " + version);
+        }
+        long createdAt = in.getLong();
+        int accountCount = in.getInt();
+        byte[] scratch = new byte[256];
+        ReservationStatus[] statuses = ReservationStatus.values();
+
+        List<Account> accounts = new ArrayList<>(accountCount);
+        for (int a = 0; a < accountCount; a++) {
+            Account account = new Account(readString(in, scratch), readString(in, scratch),
+                    readString(in, scratch), readString(in, scratch));
+            int reservationCount = in.getInt();
+            for (int r = 0; r < reservationCount; r++) {
+                byte type = in.get();
+                String accountNumber = readString(in, scratch);
+                String reservationNumber = readString(in, scratch);
+                String physicalAddress = readString(in, scratch);
+                String mailingAddress = readString(in, scratch);
+                if (strings != null) {
+                    accountNumber = strings.intern(accountNumber);
+                    physicalAddress = strings.intern(physicalAddress);
+                    mailingAddress = strings.intern(mailingAddress);
+                }
+                Date startDate = new Date(in.getLong());
+                int numberOfNights = in.getInt();
+                int numberOfBeds = in.getInt();
+                int numberOfBedrooms = in.getInt();
+                int numberOfBathrooms = in.getInt();
+                int lodgingSize = in.getInt();
+                double price = in.getDouble();
+                int status = in.get();
+                if (status < 0 || status >= statuses.length) {
+                    throw new IllegalLoadException("Invalid status in snapshot for reservation " + reservationNumber);
+                }
+
+                Reservation reservation;
+                switch (type) {
+                    case HOTEL -> reservation = new HotelReservation(accountNumber, reservationNumber, physicalAddress,
+                            mailingAddress, startDate, numberOfNights, numberOfBeds, numberOfBedrooms,
+                            numberOfBathrooms, lodgingSize, in.get() != 0);
+                    case CABIN -> reservation = new CabinReservation(accountNumber, reservationNumber, physicalAddress,
+                            mailingAddress, startDate, numberOfNights, numberOfBeds, numberOfBedrooms,
+                            numberOfBathrooms, lodgingSize, in.get() != 0);
+                    case HOUSE -> reservation = new HouseReservation(accountNumber, reservationNumber, physicalAddress,
+                            mailingAddress, startDate, numberOfNights, numberOfBeds, numberOfBedrooms,
+                            numberOfBathrooms, lodgingSize, in.getInt());
+                    default -> throw new IllegalLoadException("Invalid reservation type in snapshot: " + type);
+                }
+                reservation.setPrice(price);
+                reservation.setStatus(statuses[status]);
+                account.addReservation(reservation);
+            }
+            accounts.add(account);
+        }
+        if (in.hasRemaining()) {
+            throw new IllegalLoadException("Snapshot has " + in.remaining() + " unexpected trailing bytes.");
+        }
+        return new SnapshotFile(createdAt, accounts);
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        in.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
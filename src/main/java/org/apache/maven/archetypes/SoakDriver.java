@@ -0,0 +1,352 @@
+package org.apache.maven.archetypes;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs a weighted mix of create, update, cancel and lookup operations against a Manager from several
+ * threads for a fixed time and reports throughput and latency percentiles per operation.
+ *
+ * Updates and cancels pick from the reservations present at start and those created during the run;
+ * an operation the manager refuses (a double booking, a reservation that is no longer a draft) is
+ * counted as rejected rather than failed. Any other exception ends the run.
+ *
+ * Usage: SoakDriver directory [seconds] [threads]. An empty directory is filled by DataGenerator first
+ * (-Dsoak.accounts, -Dsoak.reservationsPerAccount); -Dsoak.mix=create,update,cancel,lookup sets the
+ * weights, -Dsoak.seed the seed and -Dsoak.journal=true journals every mutation.
+ */
+public final class SoakDriver {
+    public enum Operation {
+        CREATE, UPDATE, CANCEL, LOOKUP
+    }
+
+    private static final int RECENT_CAPACITY = 1 << 14;
+
+    private final Manager manager;
+    private final long seed;
+    private final int[] weights = {10, 10, 5, 75};
+    private final String[] accountNumbers;
+    private final String[] initialReservationNumbers;
+    // Ring of reservation numbers created during the run
+    private final AtomicReferenceArray<String> recentReservationNumbers = new AtomicReferenceArray<>(RECENT_CAPACITY);
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong nextReservationNumber = new AtomicLong(9_000_000_000L);
+
+    public SoakDriver(Manager manager, long seed) {
+        this.manager = manager;
+        this.seed = seed;
+        List<String> accounts = new ArrayList<>();
+        List<String> reservations = new ArrayList<>();
+        for (Account account : manager.getAccounts()) {
+            accounts.add(account.getAccountNumber());
+            for (Reservation reservation : account.getReservations()) {
+                reservations.add(reservation.getReservationNumber());
+            }
+        }
+        if (accounts.isEmpty()) {
+            throw new IllegalArgumentException("The manager has no accounts to run against.");
+        }
+        this.accountNumbers = accounts.toArray(new String[0]);
+        this.initialReservationNumbers = reservations.toArray(new String[0]);
+    }
+
+    // Relative weights of the four operations
+    public void setMix(int create, int update, int cancel, int lookup) {
+        if (create < 0 || update < 0 || cancel < 0 || lookup < 0 || create + update + cancel + lookup == 0) {
+            throw new IllegalArgumentException("Weights must not be negative and must not all be zero.");
+        }
+        weights[0] = create;
+        weights[1] = update;
+        weights[2] = cancel;
+        weights[3] = lookup;
+    }
+
+    // Run the mix on the given number of threads until the duration has passed
+    public Report run(Duration duration, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Future<Worker>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(new Random(seed + i));
+            workers.add(pool.submit(() -> {
+                start.await();
+                worker.runUntil(deadline[0]);
+                return worker;
+            }));
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + duration.toNanos();
+        start.countDown();
+
+        Report report = new Report();
+        try {
+            for (Future<Worker> future : workers) {
+                report.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the soak run.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Soak run failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        report.elapsedNanos = System.nanoTime() - begin;
+        return report;
+    }
+
+    private final class Worker {
+        private final Random random;
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, long[]> rejected = new EnumMap<>(Operation.class);
+
+        private Worker(Random random) {
+            this.random = random;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                rejected.put(operation, new long[1]);
+            }
+        }
+
+        private void runUntil(long deadline) {
+            while (System.nanoTime() < deadline) {
+                Operation operation = nextOperation();
+                long start = System.nanoTime();
+                boolean accepted;
+                try {
+                    accepted = perform(operation);
+                } catch (IllegalOperationException | DuplicateObjectException e) {
+                    accepted = false;
+                }
+                latencies.get(operation).record(System.nanoTime() - start);
+                if (!accepted) {
+                    rejected.get(operation)[0]++;
+                }
+            }
+        }
+
+        private Operation nextOperation() {
+            int roll = random.nextInt(weights[0] + weights[1] + weights[2] + weights[3]);
+            for (Operation operation : Operation.values()) {
+                if (roll < weights[operation.ordinal()]) {
+                    return operation;
+                }
+                roll -= weights[operation.ordinal()];
+            }
+            return Operation.LOOKUP;
+        }
+
+        // Returns false when the target was not in a state the operation applies to
+        private boolean perform(Operation operation) {
+            switch (operation) {
+                case CREATE -> {
+                    String accountNumber = accountNumbers[random.nextInt(accountNumbers.length)];
+                    String reservationNumber = String.valueOf(nextReservationNumber.getAndIncrement());
+                    manager.addReservation(accountNumber, newReservation(accountNumber, reservationNumber));
+                    recentReservationNumbers.set((int) (created.getAndIncrement() & (RECENT_CAPACITY - 1)), reservationNumber);
+                    return true;
+                }
+                case UPDATE -> {
+                    Reservation reservation = manager.getReservation(pickReservationNumber());
+                    if (reservation == null || reservation.getStatus() != ReservationStatus.DRAFT) {
+                        return false;
+                    }
+                    manager.updateReservation(reservation.getAccountNumber(),
+                            withNights(reservation, 1 + random.nextInt(14)));
+                    return true;
+                }
+                case CANCEL -> {
+                    Reservation reservation = manager.getReservation(pickReservationNumber());
+                    if (reservation == null) {
+                        return false;
+                    }
+                    manager.cancelReservation(reservation.getAccountNumber(), reservation.getReservationNumber());
+                    return true;
+                }
+                default -> {
+                    boolean found = manager.getReservation(pickReservationNumber()) != null;
+                    return manager.getAccount(accountNumbers[random.nextInt(accountNumbers.length)]) != null && found;
+                }
+            }
+        }
+
+        private String pickReservationNumber() {
+            long recent = Math.min(created.get(), RECENT_CAPACITY);
+            if (recent > 0 && (initialReservationNumbers.length == 0 || random.nextBoolean())) {
+                String number = recentReservationNumbers.get(random.nextInt((int) recent));
+                if (number != null) {
+                    return number;
+                }
+            }
+            return initialReservationNumbers.length == 0 ? "0"
+                    : initialReservationNumbers[random.nextInt(initialReservationNumbers.length)];
+        }
+
+        private Reservation newReservation(String accountNumber, String reservationNumber) {
+            Date startDate = Date.from(LocalDate.now().plusDays(1 + random.nextInt(365))
+                    .atStartOfDay(ZoneId.systemDefault()).toInstant());
+            // A fresh address per reservation, so creates are only refused when something is actually wrong
+            String address = "Unit " + reservationNumber + " Soak Rd";
+            Reservation reservation = switch (random.nextInt(3)) {
+                case 0 -> new HotelReservation(accountNumber, reservationNumber, address, "", startDate,
+                        1 + random.nextInt(14), 2, 1, 1, 600, random.nextBoolean());
+                case 1 -> new CabinReservation(accountNumber, reservationNumber, address, "", startDate,
+                        1 + random.nextInt(14), 3, 2, 1, 900, random.nextBoolean());
+                default -> new HouseReservation(accountNumber, reservationNumber, address, "", startDate,
+                        1 + random.nextInt(14), 6, 4, 2, 2200, 2);
+            };
+            reservation.calculatePrice();
+            return reservation;
+        }
+    }
+
+    // Copy of a reservation with a different length of stay
+    private static Reservation withNights(Reservation r, int nights) {
+        Reservation copy;
+        if (r instanceof HotelReservation hotel) {
+            copy = new HotelReservation(r.getAccountNumber(), r.getReservationNumber(), r.getLodgingPhysicalAddress(),
+                    r.getLodgingMailingAddress(), r.getStartDate(), nights, r.getNumberOfBeds(), r.getNumberOfBedrooms(),
+                    r.getNumberOfBathrooms(), r.getLodgingSize(), hotel.hasKitchenette());
+        } else if (r instanceof CabinReservation cabin) {
+            copy = new CabinReservation(r.getAccountNumber(), r.getReservationNumber(), r.getLodgingPhysicalAddress(),
+                    r.getLodgingMailingAddress(), r.getStartDate(), nights, r.getNumberOfBeds(), r.getNumberOfBedrooms(),
+                    r.getNumberOfBathrooms(), r.getLodgingSize(), cabin.isFullKitchen());
+        } else {
+            copy = new HouseReservation(r.getAccountNumber(), r.getReservationNumber(), r.getLodgingPhysicalAddress(),
+                    r.getLodgingMailingAddress(), r.getStartDate(), nights, r.getNumberOfBeds(), r.getNumberOfBedrooms(),
+                    r.getNumberOfBathrooms(), r.getLodgingSize(), ((HouseReservation) r).getNumberOfFloors());
+        }
+        copy.calculatePrice();
+        return copy;
+    }
+
+    /**
+     * Operation counts and latencies of one run, merged across threads.
+     */
+    public static final class Report {
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> rejected = new EnumMap<>(Operation.class);
+        private long elapsedNanos;
+
+        private Report() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                rejected.put(operation, 0L);
+            }
+        }
+
+        private void add(Worker worker) {
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).add(worker.latencies.get(operation));
+                rejected.merge(operation, worker.rejected.get(operation)[0], Long::sum);
+            }
+        }
+
+        public long getCount(Operation operation) {
+            return latencies.get(operation).getCount();
+        }
+
+        public long getRejectedCount(Operation operation) {
+            return rejected.get(operation);
+        }
+
+        public long getTotalCount() {
+            long total = 0;
+            for (LatencyHistogram histogram : latencies.values()) {
+                total += histogram.getCount();
+            }
+            return total;
+        }
+
+        // Operations per second over the whole run
+        public double getThroughput() {
+            return getTotalCount() / (elapsedNanos / 1e9);
+        }
+
+        // Latency in nanoseconds under which the given percentage (0-100) of operations completed
+        public long getLatencyPercentile(Operation operation, double percent) {
+            return latencies.get(operation).percentile(percent);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%d operations in %.1f s: %.0f ops/s%n",
+                    getTotalCount(), elapsedNanos / 1e9, getThroughput()));
+            text.append(String.format("%-7s %10s %10s %10s %10s %10s %10s%n",
+                    "", "count", "rejected", "p50 us", "p99 us", "p99.9 us", "max us"));
+            for (Operation operation : Operation.values()) {
+                LatencyHistogram histogram = latencies.get(operation);
+                text.append(String.format("%-7s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", operation,
+                        histogram.getCount(), rejected.get(operation), histogram.percentile(50) / 1e3,
+                        histogram.percentile(99) / 1e3, histogram.percentile(99.9) / 1e3, histogram.getMax() / 1e3));
+            }
+            return text.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: SoakDriver directory [seconds] [threads]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 60;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = Long.getLong("soak.seed", 42);
+
+        if (!hasAccountFolders(directory)) {
+            DataGenerator generator = new DataGenerator(seed);
+            generator.setAccounts(Integer.getInteger("soak.accounts", 10_000));
+            generator.setReservationsPerAccount(Integer.getInteger("soak.reservationsPerAccount", 4));
+            System.out.println("Generated " + generator.write(directory) + " reservations in " + directory);
+        }
+
+        Manager manager = new Manager(directory, Runtime.getRuntime().availableProcessors());
+        if (Boolean.getBoolean("soak.journal")) {
+            manager.startJournal(2, 64, 60_000);
+        }
+        SoakDriver driver = new SoakDriver(manager, seed);
+        String mix = System.getProperty("soak.mix");
+        if (mix != null) {
+            String[] parts = mix.split(",");
+            driver.setMix(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+        }
+        try {
+            System.out.print(driver.run(Duration.ofSeconds(seconds), threads));
+        } finally {
+            manager.close();
+        }
+    }
+
+    private static boolean hasAccountFolders(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (DirectoryStream<Path> folders = Files.newDirectoryStream(directory, "Acc-*")) {
+            return folders.iterator().hasNext();
+        }
+    }
+}
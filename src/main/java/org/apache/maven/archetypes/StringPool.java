@@ -0,0 +1,30 @@
+package org.apache.maven.archetypes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical copies of strings that repeat across many records, such as lodging addresses and the
+ * account number every reservation of an account carries.
+ *
+ * Each record read from a file gets its own String instances; passing them through intern keeps one
+ * copy of each distinct value. A Manager in primitiveIds mode owns one pool and uses it only while
+ * loading, so the pool holds the values of the loaded data and is dropped with the Manager.
+ */
+final class StringPool {
+    private final Map<String, String> pool = new ConcurrentHashMap<>();
+
+    // The pooled copy of value, which becomes the pooled copy if it is new; null stays null
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    // Number of distinct values pooled so far
+    int size() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,129 @@
+package org.apache.maven.archetypes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: holds items until a due time and hands each to a consumer once the wheel
+ * has been advanced past it.
+ *
+ * Time is counted in ticks of tickMillis. Each level has 64 slots, and a slot of level L spans 64^L
+ * ticks. An item goes to the lowest level whose digit of its due tick is the first (in base 64) that
+ * differs from the current tick, into the slot for that digit, so adding is O(1). When the current tick
+ * reaches the start of a higher-level slot, the slot's items are placed again, which moves each of
+ * them down at least one level; an item is therefore touched at most once per level on its way to
+ * being due, O(1) per item, however far ahead it was scheduled. Eleven levels cover every long tick.
+ *
+ * Not thread-safe; the owner adds and advances from one thread.
+ */
+final class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private static final class Timer<T> {
+        private final T item;
+        private final long dueTick;
+
+        private Timer(T item, long dueTick) {
+            this.item = item;
+            this.dueTick = dueTick;
+        }
+    }
+
+    private final long tickMillis;
+    // slots[level][slot], each list created the first time a timer lands in it
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<Timer<T>>[][] slots = new List[LEVELS][SLOTS];
+    // Every timer due at or before this tick has been handed out
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    // Schedule an item for the given time; returns false, scheduling nothing, if that tick has already passed,
+    // in which case the caller handles the item at once
+    boolean add(T item, long dueMillis) {
+        // Round up so an item is never handed out before its due time
+        long dueTick = Math.floorDiv(dueMillis + tickMillis - 1, tickMillis);
+        if (dueTick <= currentTick) {
+            return false;
+        }
+        place(new Timer<>(item, dueTick));
+        size++;
+        return true;
+    }
+
+    private void place(Timer<T> timer) {
+        long differing = timer.dueTick ^ currentTick;
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(differing)) / SLOT_BITS;
+        int slot = (int) (timer.dueTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+        List<Timer<T>> timers = slots[level][slot];
+        if (timers == null) {
+            timers = new ArrayList<>();
+            slots[level][slot] = timers;
+        }
+        timers.add(timer);
+    }
+
+    // Move the wheel up to the given time, handing every item due by then to the consumer in due order
+    // (items due in the same tick in no particular order)
+    void advanceTo(long nowMillis, Consumer<T> due) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+            // Cascade from the highest level whose slot starts at this tick down to level 1, so timers moved
+            // into a lower slot that also starts now are cascaded again in the same step
+            int highest = 0;
+            while (highest < LEVELS - 1 && (currentTick & ((1L << ((highest + 1) * SLOT_BITS)) - 1)) == 0) {
+                highest++;
+            }
+            for (int level = highest; level >= 1; level--) {
+                cascade(level);
+            }
+            fire(due);
+        }
+    }
+
+    private void cascade(int level) {
+        int slot = (int) (currentTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+        List<Timer<T>> timers = slots[level][slot];
+        if (timers == null) {
+            return;
+        }
+        slots[level][slot] = null;
+        // A timer due now differs from the current tick in no digit and lands in level 0's current slot, which
+        // fire takes next
+        timers.forEach(this::place);
+    }
+
+    private void fire(Consumer<T> due) {
+        int slot = (int) currentTick & SLOT_MASK;
+        List<Timer<T>> timers = slots[0][slot];
+        if (timers == null) {
+            return;
+        }
+        slots[0][slot] = null;
+        size -= timers.size();
+        for (Timer<T> timer : timers) {
+            due.accept(timer.item);
+        }
+    }
+
+    // Items scheduled and not yet handed out
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,155 @@
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+public class apiServerTest {
+    private static final String START_DATE = LocalDate.now().plusYears(1).toString();
+
+    @TempDir
+    Path accountsDirectory;
+
+    private Manager manager;
+    private ApiServer server;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void start() throws IOException {
+        manager = new Manager(accountsDirectory);
+        server = new ApiServer(manager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonObject json(HttpResponse<String> response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private static String reservation(String address, int nights) {
+        return "{\"type\":\"house\",\"lodgingPhysicalAddress\":\"" + address + "\",\"startDate\":\"" + START_DATE
+                + "\",\"numberOfNights\":" + nights + ",\"numberOfBeds\":4,\"numberOfBedrooms\":3,"
+                + "\"numberOfBathrooms\":2,\"lodgingSize\":1800,\"numberOfFloors\":2}";
+    }
+
+    private String createAccount() throws Exception {
+        HttpResponse<String> response = send("POST", "/accounts",
+                "{\"mailingAddress\":\"1 Main St\",\"emailAddress\":\"a@example.com\",\"phoneNumber\":\"555-0100\"}");
+        Assertions.assertEquals(201, response.statusCode(), response.body());
+        return json(response).get("accountNumber").getAsString();
+    }
+
+    @Test
+    public void testReservationLifecycle() throws Exception {
+        String accountNumber = createAccount();
+        Assertions.assertEquals(8, accountNumber.length());
+        Assertions.assertNotNull(manager.getAccount(accountNumber));
+
+        HttpResponse<String> created = send("POST", "/accounts/" + accountNumber + "/reservations",
+                reservation("9 Hill Rd", 3));
+        Assertions.assertEquals(201, created.statusCode(), created.body());
+        String reservationNumber = json(created).get("reservationNumber").getAsString();
+        Assertions.assertEquals("DRAFT", json(created).get("status").getAsString());
+        Assertions.assertEquals(DataFileParser.formatDate(Date.from(LocalDate.parse(START_DATE)
+                .atStartOfDay(ZoneId.systemDefault()).toInstant())), json(created).get("startDate").getAsString());
+
+        HttpResponse<String> updated = send("PUT", "/accounts/" + accountNumber + "/reservations/" + reservationNumber,
+                reservation("9 Hill Rd", 5));
+        Assertions.assertEquals(200, updated.statusCode(), updated.body());
+        Assertions.assertEquals(5, manager.getReservation(reservationNumber).getNumberOfNights());
+
+        JsonObject price = json(send("GET", "/reservations/" + reservationNumber + "/price", null));
+        Assertions.assertEquals(manager.calculateTotalPrice(reservationNumber), price.get("totalPrice").getAsDouble(), 0.0);
+        Assertions.assertEquals(price.get("pricePerNight").getAsDouble() * 5, price.get("totalPrice").getAsDouble(), 1e-9);
+
+        HttpResponse<String> account = send("GET", "/accounts/" + accountNumber, null);
+        Assertions.assertEquals(reservationNumber, json(account).getAsJsonArray("reservations").get(0).getAsString());
+
+        HttpResponse<String> completed = send("POST", "/accounts/" + accountNumber + "/reservations/"
+                + reservationNumber + "/complete", null);
+        Assertions.assertEquals(200, completed.statusCode(), completed.body());
+        Assertions.assertEquals(ReservationStatus.COMPLETED, manager.getReservation(reservationNumber).getStatus());
+
+        // A completed reservation can no longer be cancelled or updated
+        Assertions.assertEquals(409, send("POST", "/accounts/" + accountNumber + "/reservations/"
+                + reservationNumber + "/cancel", null).statusCode());
+        Assertions.assertEquals(409, send("PUT", "/accounts/" + accountNumber + "/reservations/" + reservationNumber,
+                reservation("9 Hill Rd", 2)).statusCode());
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        String accountNumber = createAccount();
+        Assertions.assertEquals(404, send("GET", "/accounts/99999999x", null).statusCode());
+        Assertions.assertEquals(404, send("GET", "/reservations/0000000000", null).statusCode());
+        Assertions.assertEquals(404, send("GET", "/nothing", null).statusCode());
+        Assertions.assertEquals(405, send("DELETE", "/accounts/" + accountNumber, null).statusCode());
+        Assertions.assertEquals(400, send("POST", "/accounts/" + accountNumber + "/reservations",
+                "{\"type\":\"house\"}").statusCode());
+        Assertions.assertEquals(400, send("POST", "/accounts/" + accountNumber + "/reservations", "not json").statusCode());
+
+        Assertions.assertEquals(201, send("POST", "/accounts/" + accountNumber + "/reservations",
+                reservation("4 Bay Rd", 2)).statusCode());
+        HttpResponse<String> doubleBooked = send("POST", "/accounts/" + accountNumber + "/reservations",
+                reservation("4 Bay Rd", 2));
+        Assertions.assertEquals(409, doubleBooked.statusCode());
+        Assertions.assertTrue(json(doubleBooked).get("error").getAsString().contains("overlaps"));
+        Assertions.assertEquals(1, manager.getReservationCount());
+    }
+
+    // A failure inside the manager is the server's fault, not a malformed request
+    @Test
+    public void testServerFailuresAreInternalErrors() throws Exception {
+        // Every reservation number is used up, so allocating one fails with IllegalStateException
+        server.stop(0);
+        Files.writeString(accountsDirectory.resolve("reservation-ids.seq"), "10000000000");
+        manager = new Manager(accountsDirectory);
+        server = new ApiServer(manager, 0);
+        server.start();
+        String accountNumber = createAccount();
+
+        HttpResponse<String> response = send("POST", "/accounts/" + accountNumber + "/reservations",
+                reservation("5 Bay Rd", 2));
+        Assertions.assertEquals(500, response.statusCode(), response.body());
+        Assertions.assertEquals(400, send("POST", "/accounts",
+                "{\"mailingAddress\":[],\"emailAddress\":\"a@example.com\",\"phoneNumber\":\"555-0100\"}").statusCode());
+    }
+
+    @Test
+    public void testLoadDriverAgainstLocalhost() {
+        HttpLoadDriver driver = new HttpLoadDriver(URI.create("http://localhost:" + server.getPort() + "/"), 7);
+        HttpLoadDriver.Report report = driver.run(Duration.ofSeconds(2), 200);
+        System.out.print(report);
+
+        Assertions.assertTrue(report.getTotalCount() > 0);
+        Assertions.assertEquals(0, report.getRejectedCount(HttpLoadDriver.Operation.CREATE));
+        // One reservation from each client's set-up plus every create of the run
+        Assertions.assertEquals(200 + report.getCount(HttpLoadDriver.Operation.CREATE), manager.getReservationCount());
+        Assertions.assertTrue(report.getLatencyPercentile(HttpLoadDriver.Operation.GET, 99) > 0);
+    }
+}
@@ -0,0 +1,183 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class bookingIndexTest {
+    // 2100-01-01, far enough ahead that every reservation can still be cancelled
+    private static final long BASE = 4102444800000L;
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static Date day(int offset) {
+        return new Date(BASE + TimeUnit.DAYS.toMillis(offset));
+    }
+
+    private static CabinReservation cabin(String reservationNumber, String address, int startDay, int nights) {
+        return new CabinReservation("00000001", reservationNumber, address, "", day(startDay), nights, 1, 1, 1, 800, true);
+    }
+
+    private Manager managerWithAccount() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("00000001", "1 Main St", "a@example.com", "555-0100"));
+        manager.addAccount(new Account("00000002", "2 Main St", "b@example.com", "555-0101"));
+        return manager;
+    }
+
+    @Test
+    public void testOverlappingBookingIsRejected() {
+        Manager manager = managerWithAccount();
+        manager.addReservation("00000001", cabin("0000000001", "5 Lake Rd", 10, 5));
+
+        // Nights 10..14 are taken; a stay ending on day 10 or starting on day 15 fits
+        manager.addReservation("00000001", cabin("0000000002", "5 Lake Rd", 7, 3));
+        manager.addReservation("00000001", cabin("0000000003", "5 Lake Rd", 15, 2));
+        Assertions.assertThrows(IllegalOperationException.class,
+                () -> manager.addReservation("00000001", cabin("0000000004", "5 Lake Rd", 14, 1)));
+        Assertions.assertThrows(IllegalOperationException.class,
+                () -> manager.addReservation("00000001", cabin("0000000005", "5 Lake Rd", 0, 30)));
+        // The rejected reservations were not added anywhere
+        Assertions.assertNull(manager.getReservation("0000000004"));
+        Assertions.assertEquals(3, manager.getReservationCount());
+
+        // Another lodging is independent
+        manager.addReservation("00000001", cabin("0000000006", "6 Lake Rd", 10, 5));
+    }
+
+    @Test
+    public void testOverlapQuery() {
+        Manager manager = managerWithAccount();
+        manager.addReservation("00000001", cabin("0000000001", "5 Lake Rd", 0, 30));
+        manager.addReservation("00000001", cabin("0000000002", "5 Lake Rd", 40, 2));
+        manager.addReservation("00000001", cabin("0000000003", "5 Lake Rd", 42, 1));
+
+        List<Reservation> found = manager.getOverlappingReservations("5 Lake Rd", day(29), day(43));
+        Assertions.assertEquals(3, found.size());
+        Assertions.assertEquals("0000000001", found.get(0).getReservationNumber());
+        Assertions.assertEquals(1, manager.getOverlappingReservations("5 Lake Rd", day(30), day(41)).size());
+        Assertions.assertTrue(manager.getOverlappingReservations("5 Lake Rd", day(30), day(40)).isEmpty());
+        Assertions.assertTrue(manager.getOverlappingReservations("Nowhere", day(0), day(100)).isEmpty());
+    }
+
+    @Test
+    public void testCancelledReservationFreesTheDates() {
+        Manager manager = managerWithAccount();
+        manager.addReservation("00000001", cabin("0000000001", "5 Lake Rd", 10, 5));
+        manager.cancelReservation("00000001", "0000000001");
+        Assertions.assertTrue(manager.getOverlappingReservations("5 Lake Rd", day(10), day(15)).isEmpty());
+        manager.addReservation("00000001", cabin("0000000002", "5 Lake Rd", 10, 5));
+    }
+
+    @Test
+    public void testUpdateIsCheckedAgainstOtherBookings() {
+        Manager manager = managerWithAccount();
+        manager.addReservation("00000001", cabin("0000000001", "5 Lake Rd", 10, 5));
+        manager.addReservation("00000001", cabin("0000000002", "5 Lake Rd", 20, 5));
+
+        // Moving within its own dates is not a clash with itself
+        manager.updateReservation("00000001", cabin("0000000001", "5 Lake Rd", 11, 5));
+        Assertions.assertThrows(IllegalOperationException.class,
+                () -> manager.updateReservation("00000001", cabin("0000000001", "5 Lake Rd", 18, 3)));
+        Assertions.assertEquals(day(11), manager.getReservation("0000000001").getStartDate());
+
+        // Moving to another address releases the old dates
+        manager.updateReservation("00000001", cabin("0000000002", "7 Lake Rd", 20, 5));
+        Assertions.assertTrue(manager.getOverlappingReservations("5 Lake Rd", day(20), day(25)).isEmpty());
+        Assertions.assertEquals(1, manager.getOverlappingReservations("7 Lake Rd", day(20), day(25)).size());
+    }
+
+    @Test
+    public void testAddressChangeMovesTheBooking() {
+        Manager manager = managerWithAccount();
+        manager.addReservation("00000001", cabin("0000000001", "5 Lake Rd", 10, 5));
+        manager.addReservation("00000002", new CabinReservation("00000002", "0000000002", "7 Lake Rd", "", day(12),
+                2, 1, 1, 1, 800, true));
+
+        Assertions.assertThrows(IllegalOperationException.class,
+                () -> manager.updateLodgingAddress("00000001", "0000000001", "7 Lake Rd"));
+        Assertions.assertEquals("5 Lake Rd", manager.getReservation("0000000001").getLodgingPhysicalAddress());
+        Assertions.assertEquals(1, manager.getOverlappingReservations("5 Lake Rd", day(10), day(15)).size());
+
+        manager.updateLodgingAddress("00000001", "0000000001", "9 Lake Rd");
+        Assertions.assertTrue(manager.getOverlappingReservations("5 Lake Rd", day(10), day(15)).isEmpty());
+        Assertions.assertEquals(1, manager.getOverlappingReservations("9 Lake Rd", day(10), day(15)).size());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> manager.updateLodgingAddress("00000002", "0000000001", "5 Lake Rd"));
+    }
+
+    @Test
+    public void testConcurrentBookingsOfOneLodgingHaveOneWinner() throws Exception {
+        Manager manager = managerWithAccount();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            // Alternate accounts so the callers do not share an account lock
+            String accountNumber = i % 2 == 0 ? "00000001" : "00000002";
+            String reservationNumber = String.format("%010d", i);
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    manager.addReservation(accountNumber, new CabinReservation(accountNumber, reservationNumber,
+                            "5 Lake Rd", "", day(10), 3, 1, 1, 1, 800, true));
+                    return true;
+                } catch (IllegalOperationException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int booked = 0;
+        for (Future<Boolean> result : results) {
+            booked += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+        Assertions.assertEquals(1, booked);
+        Assertions.assertEquals(1, manager.getReservationCount());
+    }
+
+    @Test
+    public void testLoadedOverlapsAreKept() throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-00000001"));
+        Files.writeString(folder.resolve("acc-00000001.txt"),
+                new Account("00000001", "1 Main St", "a@example.com", "555-0100").toString());
+        Files.writeString(folder.resolve("res-0000000001.txt"), cabin("0000000001", "5 Lake Rd", 10, 5).toString());
+        Files.writeString(folder.resolve("res-0000000002.txt"), cabin("0000000002", "5 Lake Rd", 12, 5).toString());
+
+        Manager manager = new Manager(accountsDirectory);
+        Assertions.assertEquals(2, manager.getReservationCount());
+        Assertions.assertEquals(2, manager.getOverlappingReservations("5 Lake Rd", day(12), day(13)).size());
+        Assertions.assertThrows(IllegalOperationException.class,
+                () -> manager.addReservation("00000001", cabin("0000000003", "5 Lake Rd", 16, 1)));
+    }
+
+    @Test
+    public void testLongLoadedStayIsFoundPastAShorterOverlap() throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-00000001"));
+        Files.writeString(folder.resolve("acc-00000001.txt"),
+                new Account("00000001", "1 Main St", "a@example.com", "555-0100").toString());
+        Files.writeString(folder.resolve("res-0000000001.txt"), cabin("0000000001", "5 Lake Rd", 0, 30).toString());
+        Files.writeString(folder.resolve("res-0000000002.txt"), cabin("0000000002", "5 Lake Rd", 12, 2).toString());
+
+        Manager manager = new Manager(accountsDirectory);
+        List<Reservation> found = manager.getOverlappingReservations("5 Lake Rd", day(20), day(21));
+        Assertions.assertEquals(1, found.size());
+        Assertions.assertEquals("0000000001", found.get(0).getReservationNumber());
+        Assertions.assertThrows(IllegalOperationException.class,
+                () -> manager.addReservation("00000001", cabin("0000000003", "5 Lake Rd", 25, 1)));
+    }
+}
@@ -0,0 +1,182 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+public class bulkImportTest {
+    private static final long HOUR = 3_600_000;
+    private static final Date START_DATE = new Date(4102444800000L);
+
+    @TempDir
+    Path directory;
+
+    // Two accounts, the first with a hotel, a cabin starting in the afternoon and a cancelled house, one address
+    // quoted in CSV
+    private Manager source() throws IOException {
+        Manager manager = new Manager(Files.createDirectories(directory.resolve("source")));
+        manager.addAccount(new Account("10000001", "1 Main St, Apt \"B\"", "a@example.com", "555-0101"));
+        manager.addAccount(new Account("10000002", "2 Main St", "b@example.com", "555-0102"));
+        manager.addReservation("10000001", new HotelReservation("10000001", "2000000001", "1 Hotel Rd",
+                "", START_DATE, 3, 2, 1, 1, 400, true));
+        manager.addReservation("10000001", new CabinReservation("10000001", "2000000002", "2 Cabin Rd",
+                "PO Box 2", new Date(START_DATE.getTime() + 15 * HOUR + 30 * 60_000 + 45_000), 5, 4, 2, 1, 1000,
+                false));
+        HouseReservation house = new HouseReservation("10000001", "2000000003", "3 House Rd",
+                "PO Box 3", START_DATE, 2, 6, 3, 2, 2500, 2);
+        manager.addReservation("10000001", house);
+        manager.cancelReservation("10000001", "2000000003");
+        return manager;
+    }
+
+    private void assertSameData(Manager expected, Manager actual) {
+        Assertions.assertEquals(expected.getAccounts().size(), actual.getAccounts().size());
+        Assertions.assertEquals(expected.getReservationCount(), actual.getReservationCount());
+        for (Account account : expected.getAccounts()) {
+            Assertions.assertEquals(account.toString(), actual.getAccount(account.getAccountNumber()).toString());
+            for (Reservation reservation : account.getReservations()) {
+                Reservation copy = actual.getReservation(reservation.getReservationNumber());
+                Assertions.assertEquals(reservation.toString(), copy.toString());
+                Assertions.assertEquals(reservation.getStartDate(), copy.getStartDate());
+                Assertions.assertEquals(reservation.getStatus(), copy.getStatus());
+                Assertions.assertSame(actual.getAccount(account.getAccountNumber()),
+                        actual.getReservationOwner(reservation.getReservationNumber()));
+            }
+        }
+    }
+
+    private void testRoundTrip(String fileName) throws IOException {
+        Manager source = source();
+        Path file = directory.resolve(fileName);
+        Assertions.assertEquals(5, new BulkExporter(source).exportTo(file));
+
+        // Import in a time zone far from the exporter's, as when data moves between machines
+        Manager target = new Manager(Files.createDirectories(directory.resolve("target")));
+        TimeZone zone = TimeZone.getDefault();
+        BulkImporter.Report report;
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+            report = new BulkImporter(target).importFrom(file);
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+
+        Assertions.assertEquals(0, report.getErrorCount(), report.getErrorMessages().toString());
+        Assertions.assertEquals(2, report.getAccountCount());
+        Assertions.assertEquals(3, report.getReservationCount());
+        assertSameData(source, target);
+    }
+
+    @Test
+    public void testCsvRoundTrip() throws IOException {
+        testRoundTrip("export.csv");
+    }
+
+    @Test
+    public void testJsonLinesRoundTrip() throws IOException {
+        testRoundTrip("export.jsonl");
+    }
+
+    @Test
+    public void testBadRecordsAreCountedAndSkipped() throws IOException {
+        String csv = "record,accountNumber,mailingAddress,emailAddress,phoneNumber,reservationNumber,type,"
+                + "lodgingPhysicalAddress,startDate,numberOfNights,numberOfBeds,numberOfBedrooms,numberOfBathrooms,"
+                + "lodgingSize,numberOfFloors\n"
+                + "account,10000001,1 Main St,a@example.com,555-0101,,,,,,,,,,\n"
+                + "account,10000001,1 Main St,a@example.com,555-0101,,,,,,,,,,\n"
+                + "reservation,10000001,,,,2000000001,house,1 House Rd,2100-01-01,2,3,2,1,1500,2\n"
+                + "reservation,10000001,,,,2000000002,house,1 House Rd,2100-01-02,2,3,2,1,1500,2\n"
+                + "reservation,10000001,,,,2000000003,house,2 House Rd,01/02/2100,2,3,2,1,1500,2\n"
+                + "reservation,10000009,,,,2000000004,house,3 House Rd,2100-01-01,2,3,2,1,1500,2\n"
+                + "reservation,10000001,,,,2000000005,castle,4 House Rd,2100-01-01,2,3,2,1,1500,2\n"
+                + "reservation,10000001,,,,2000000006,house\n"
+                + "\n"
+                + "reservation,10000001,,,,2000000007,house,5 House Rd,2100-01-01,2,3,2,1,1500,2\n";
+        Manager manager = new Manager(directory);
+        BulkImporter importer = new BulkImporter(manager);
+        importer.setBatchSize(2);
+        List<BulkImporter.Report> progress = new ArrayList<>();
+        importer.setProgressListener(progress::add);
+
+        BulkImporter.Report report = importer.importFrom(new StringReader(csv), BulkFormat.CSV);
+
+        Assertions.assertEquals(1, report.getAccountCount());
+        Assertions.assertEquals(2, report.getReservationCount());
+        // Duplicate account, overlapping booking, bad date, unknown account, unknown type, short row
+        Assertions.assertEquals(6, report.getErrorCount(), report.getErrorMessages().toString());
+        Assertions.assertTrue(report.getErrorMessages().contains("Line 6: startDate must be yyyy-MM-ddTHH:mm:ss+hh:mm or YYYY-MM-DD: 01/02/2100"),
+                report.getErrorMessages().toString());
+        Assertions.assertTrue(report.getErrorMessages().contains("Line 9: expected 15 cells but found 7."),
+                report.getErrorMessages().toString());
+        Assertions.assertEquals(report.getBatchCount(), progress.size());
+        Assertions.assertNotNull(manager.getReservation("2000000007"));
+        Assertions.assertNull(manager.getReservation("2000000002"));
+    }
+
+    @Test
+    public void testMalformedJsonStopsTheImport() throws IOException {
+        String lines = "{\"record\":\"account\",\"accountNumber\":\"10000001\",\"mailingAddress\":\"1 Main St\","
+                + "\"emailAddress\":\"a@example.com\",\"phoneNumber\":\"555-0101\"}\n"
+                + "[1, 2]\n"
+                + "{\"record\":\"account\",\"accountNumber\":{}}\n"
+                + "{\"record\":\"account\",\n";
+        Manager manager = new Manager(directory);
+
+        BulkImporter.Report report = new BulkImporter(manager).importFrom(new StringReader(lines), BulkFormat.JSON_LINES);
+
+        Assertions.assertEquals(1, report.getAccountCount());
+        Assertions.assertEquals(3, report.getErrorCount(), report.getErrorMessages().toString());
+        Assertions.assertNotNull(manager.getAccount("10000001"));
+    }
+
+    @Test
+    public void testFieldsOfTheWrongJsonTypeAreReported() throws IOException {
+        String reservation = "{\"record\":\"reservation\",\"accountNumber\":\"10000001\","
+                + "\"reservationNumber\":\"%s\",\"type\":\"hotel\",\"lodgingPhysicalAddress\":\"%s Bay Rd\","
+                + "\"startDate\":\"2100-01-01\",\"numberOfNights\":2,\"numberOfBeds\":1,\"numberOfBedrooms\":1,"
+                + "\"numberOfBathrooms\":1,\"lodgingSize\":400%s}\n";
+        String lines = "{\"record\":\"account\",\"accountNumber\":\"10000001\",\"mailingAddress\":\"1 Main St\","
+                + "\"emailAddress\":\"a@example.com\",\"phoneNumber\":\"555-0101\"}\n"
+                + String.format(reservation, "2000000001", "1", ",\"lodgingMailingAddress\":{}")
+                + String.format(reservation, "2000000002", "2", ",\"kitchenette\":[true, false]")
+                + String.format(reservation, "2000000003", "3", ",\"price\":[]")
+                + String.format(reservation, "2000000004", "4", "");
+        Manager manager = new Manager(directory);
+
+        BulkImporter.Report report = new BulkImporter(manager).importFrom(new StringReader(lines), BulkFormat.JSON_LINES);
+
+        Assertions.assertEquals(1, report.getReservationCount(), report.getErrorMessages().toString());
+        Assertions.assertEquals(3, report.getErrorCount(), report.getErrorMessages().toString());
+        Assertions.assertTrue(report.getErrorMessages().get(0).contains("lodgingMailingAddress"),
+                report.getErrorMessages().toString());
+        Assertions.assertNotNull(manager.getReservation("2000000004"));
+    }
+
+    @Test
+    public void testEachBatchIsJournaledWithOneWrite() throws IOException {
+        Manager source = source();
+        Path file = directory.resolve("export.jsonl");
+        new BulkExporter(source).exportTo(file);
+
+        Path targetDirectory = Files.createDirectories(directory.resolve("target"));
+        Manager target = new Manager(targetDirectory);
+        target.startJournal(1, 64, HOUR);
+        BulkImporter importer = new BulkImporter(target);
+        importer.setBatchSize(2);
+        BulkImporter.Report report = importer.importFrom(file);
+
+        Assertions.assertEquals(3, report.getBatchCount());
+        Assertions.assertEquals(5, target.getJournalRecordCount());
+        Assertions.assertEquals(3, target.getJournalSyncCount());
+        target.close();
+        assertSameData(source, new Manager(targetDirectory));
+    }
+}
@@ -0,0 +1,95 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+public class dataFileParserTest {
+    // Date.toString() drops milliseconds, so test dates are whole seconds
+    private static final Date START_DATE = new Date(1694293200000L);
+
+    @Test
+    public void testRoundTripEachSubtype() {
+        HotelReservation hotel = new HotelReservation("22257953", "0192921376", "676, Other Street", "",
+                START_DATE, 4, 2, 1, 1, 950, true);
+        hotel.setStatus(ReservationStatus.COMPLETED);
+        Reservation parsedHotel = DataFileParser.parseReservation(hotel.toString());
+        Assertions.assertInstanceOf(HotelReservation.class, parsedHotel);
+        Assertions.assertTrue(((HotelReservation) parsedHotel).hasKitchenette());
+        Assertions.assertEquals(ReservationStatus.COMPLETED, parsedHotel.getStatus());
+        Assertions.assertEquals(START_DATE, parsedHotel.getStartDate());
+        Assertions.assertEquals("", parsedHotel.getLodgingMailingAddress());
+
+        CabinReservation cabin = new CabinReservation("22257953", "0000000002", "1 Lake Rd", "PO Box 1",
+                START_DATE, 3, 2, 1, 2, 800, false);
+        Reservation parsedCabin = DataFileParser.parseReservation(cabin.toString());
+        Assertions.assertInstanceOf(CabinReservation.class, parsedCabin);
+        Assertions.assertFalse(((CabinReservation) parsedCabin).isFullKitchen());
+        Assertions.assertEquals(2, parsedCabin.getNumberOfBathrooms());
+
+        HouseReservation house = new HouseReservation("22257953", "0000000003", "2 Hill Rd", "2 Hill Rd",
+                START_DATE, 7, 4, 3, 2, 1800, 2);
+        Reservation parsedHouse = DataFileParser.parseReservation(house.toString());
+        Assertions.assertInstanceOf(HouseReservation.class, parsedHouse);
+        Assertions.assertEquals(2, ((HouseReservation) parsedHouse).getNumberOfFloors());
+        Assertions.assertEquals(house.toString(), parsedHouse.toString());
+    }
+
+    @Test
+    public void testLegacyDateWithZoneAbbreviation() {
+        Date date = DataFileParser.parseDate("Sun Sep 10 00:00:00 EAT 2023");
+        Assertions.assertEquals(1694293200000L, date.getTime());
+        Assertions.assertEquals(1694329200000L, DataFileParser.parseDate("Sun Sep 10 00:00:00 PDT 2023").getTime());
+
+        Date now = new Date(System.currentTimeMillis() / 1000 * 1000);
+        Assertions.assertEquals(now, DataFileParser.parseDate(now.toString()));
+    }
+
+    @Test
+    public void testAccountRoundTrip() {
+        Account account = new Account("22257953", "222,", "test1@gmail.com", "78787878");
+        Account parsed = DataFileParser.parseAccount(account.toString());
+        Assertions.assertEquals(account.toString(), parsed.toString());
+    }
+
+    @Test
+    public void testMalformedReservationsAreRejected() {
+        String valid = new CabinReservation("22257953", "0000000002", "1 Lake Rd", "", START_DATE,
+                3, 2, 1, 2, 800, false).toString();
+
+        IllegalLoadException missing = Assertions.assertThrows(IllegalLoadException.class,
+                () -> DataFileParser.parseReservation(valid.replace("Number of Beds: 2\n", "")));
+        Assertions.assertTrue(missing.getMessage().contains("Number of Beds"));
+
+        IllegalLoadException badNumber = Assertions.assertThrows(IllegalLoadException.class,
+                () -> DataFileParser.parseReservation(valid.replace("Lodging Size: 800", "Lodging Size: big")));
+        Assertions.assertTrue(badNumber.getMessage().contains("Lodging Size"));
+
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> DataFileParser.parseReservation(valid.replace("Status: DRAFT", "Status: PENDING")));
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> DataFileParser.parseReservation(valid.replace("Full Kitchen: false", "")));
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> DataFileParser.parseReservation("Account Number: 22257953"));
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> DataFileParser.parseDate("2023-09-10"));
+    }
+
+    @Test
+    public void testLoaderSkipsMalformedFiles(@TempDir Path accountsDirectory) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-22257953"));
+        Files.writeString(folder.resolve("acc-22257953.txt"),
+                new Account("22257953", "222,", "test1@gmail.com", "78787878").toString());
+        Files.writeString(folder.resolve("res-0000000001.txt"), new HouseReservation("22257953", "0000000001",
+                "2 Hill Rd", "", START_DATE, 7, 4, 3, 2, 1800, 2).toString());
+        Files.writeString(folder.resolve("res-0000000002.txt"), "Account Number: 22257953\nReservation Number: 0000000002");
+
+        Manager manager = new Manager(accountsDirectory);
+        Assertions.assertNotNull(manager.getReservation("0000000001"));
+        Assertions.assertNull(manager.getReservation("0000000002"));
+    }
+}
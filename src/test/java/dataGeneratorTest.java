@@ -0,0 +1,89 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class dataGeneratorTest {
+    @TempDir
+    Path directory;
+
+    private static DataGenerator generator(long seed) {
+        DataGenerator generator = new DataGenerator(seed);
+        generator.setAccounts(200);
+        generator.setReservationsPerAccount(3);
+        generator.setDates(LocalDate.of(2100, 1, 1), 90);
+        return generator;
+    }
+
+    @Test
+    public void testGeneratedTreeLoadsCompletely() throws IOException {
+        int written = generator(7).write(directory);
+        Manager manager = new Manager(directory);
+        Assertions.assertEquals(200, manager.getAccounts().size());
+        Assertions.assertEquals(written, manager.getReservationCount());
+        Assertions.assertTrue(written > 200, "about three reservations per account on average");
+    }
+
+    @Test
+    public void testSameSeedWritesSameTree() throws IOException {
+        generator(7).write(directory.resolve("a"));
+        generator(7).write(directory.resolve("b"));
+        generator(8).write(directory.resolve("c"));
+        Path file = Path.of("Acc-10000042", "acc-10000042.txt");
+        Assertions.assertEquals(Files.readString(directory.resolve("a").resolve(file)),
+                Files.readString(directory.resolve("b").resolve(file)));
+        Assertions.assertEquals(new Manager(directory.resolve("a")).getReservationCount(),
+                new Manager(directory.resolve("b")).getReservationCount());
+        Assertions.assertNotEquals(Files.readString(directory.resolve("a").resolve(file)),
+                Files.readString(directory.resolve("c").resolve(file)));
+    }
+
+    @Test
+    public void testTypeAndStatusMix() throws IOException {
+        DataGenerator generator = generator(3);
+        generator.setTypeMix(0, 1, 0);
+        generator.setStatusMix(1, 0, 1);
+        generator.write(directory);
+
+        Map<ReservationStatus, Integer> statuses = new EnumMap<>(ReservationStatus.class);
+        for (Account account : new Manager(directory).getAccounts()) {
+            for (Reservation reservation : account.getReservations()) {
+                Assertions.assertInstanceOf(CabinReservation.class, reservation);
+                statuses.merge(reservation.getStatus(), 1, Integer::sum);
+            }
+        }
+        Assertions.assertNull(statuses.get(ReservationStatus.COMPLETED));
+        Assertions.assertTrue(statuses.get(ReservationStatus.DRAFT) > 100);
+        Assertions.assertTrue(statuses.get(ReservationStatus.CANCELLED) > 100);
+    }
+
+    @Test
+    public void testShortSoakRun() throws IOException {
+        generator(11).write(directory);
+        Manager manager = new Manager(directory);
+        int before = manager.getReservationCount();
+
+        SoakDriver driver = new SoakDriver(manager, 11);
+        driver.setMix(20, 20, 10, 50);
+        SoakDriver.Report report = driver.run(Duration.ofMillis(500), 4);
+        System.out.print(report);
+
+        Assertions.assertTrue(report.getTotalCount() > 0);
+        for (SoakDriver.Operation operation : SoakDriver.Operation.values()) {
+            Assertions.assertTrue(report.getCount(operation) > 0, operation + " ran");
+            Assertions.assertTrue(report.getLatencyPercentile(operation, 50)
+                    <= report.getLatencyPercentile(operation, 99));
+        }
+        // Every accepted create added exactly one reservation
+        long created = report.getCount(SoakDriver.Operation.CREATE) - report.getRejectedCount(SoakDriver.Operation.CREATE);
+        Assertions.assertEquals(before + created, manager.getReservationCount());
+    }
+}
@@ -0,0 +1,123 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class flightEventsTest {
+    private static final long HOUR = 3_600_000;
+
+    @TempDir
+    Path accountsDirectory;
+
+    @TempDir
+    Path recordingDirectory;
+
+    private void writeFile(String accountNumber, String fileName, Object content) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-" + accountNumber));
+        Files.writeString(folder.resolve(fileName), content.toString());
+    }
+
+    private List<RecordedEvent> record(String eventName, Runnable work) throws IOException {
+        Path file = recordingDirectory.resolve(eventName + ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String field, String value) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> value.equals(event.getString(field)))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(1, matching.size(), field + "=" + value + " in " + events);
+        return matching.get(0);
+    }
+
+    @Test
+    public void testLoaderEmitsFolderAndParseEvents() throws IOException {
+        String account = new Account("10000001", "1 Main St", "a@example.com", "555-0101").toString();
+        String hotel = new HotelReservation("10000001", "2000000001", "Ünter den Linden 1", "",
+                new Date(4102444800000L), 2, 1, 1, 1, 300, true).toString();
+        writeFile("10000001", "acc-10000001.txt", account);
+        writeFile("10000001", "res-2000000001.txt", hotel);
+        writeFile("10000001", "res-2000000002.txt", "not a reservation");
+
+        List<RecordedEvent> parses = record("org.apache.maven.archetypes.ReservationParse", () -> new Manager(accountsDirectory));
+        Assertions.assertEquals(2, parses.size());
+        RecordedEvent parsed = only(parses, "reservationNumber", "2000000001");
+        Assertions.assertEquals("10000001", parsed.getString("accountNumber"));
+        Assertions.assertEquals("HotelReservation", parsed.getString("reservationType"));
+        Assertions.assertEquals(hotel.getBytes(StandardCharsets.UTF_8).length, parsed.getLong("bytesRead"));
+        Assertions.assertFalse(parsed.getBoolean("malformed"));
+        RecordedEvent malformed = only(parses, "reservationNumber", "2000000002");
+        Assertions.assertTrue(malformed.getBoolean("malformed"));
+        Assertions.assertNull(malformed.getString("reservationType"));
+
+        List<RecordedEvent> folders = record("org.apache.maven.archetypes.AccountLoad", () -> new Manager(accountsDirectory));
+        RecordedEvent folder = only(folders, "accountNumber", "10000001");
+        Assertions.assertTrue(folder.getBoolean("loaded"));
+        Assertions.assertEquals(2, folder.getInt("reservationFiles"));
+        Assertions.assertEquals((account + hotel + "not a reservation").getBytes(StandardCharsets.UTF_8).length,
+                folder.getLong("bytesRead"));
+        Assertions.assertTrue(folder.getString("folder").endsWith("Acc-10000001"));
+    }
+
+    @Test
+    public void testPersistAndTransitionEvents() throws IOException {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(1, 64, HOUR);
+        try {
+            manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+            manager.addReservation("10000001", new CabinReservation("10000001", "2000000001", "1 Lake Rd", "",
+                    new Date(4102444800000L), 2, 3, 2, 1, 1000, true));
+
+            List<RecordedEvent> transitions = record("org.apache.maven.archetypes.StatusTransition",
+                    () -> manager.completeReservation("10000001", "2000000001"));
+            RecordedEvent transition = only(transitions, "reservationNumber", "2000000001");
+            Assertions.assertEquals("10000001", transition.getString("accountNumber"));
+            Assertions.assertEquals("CabinReservation", transition.getString("reservationType"));
+            Assertions.assertEquals("DRAFT", transition.getString("fromStatus"));
+            Assertions.assertEquals("COMPLETED", transition.getString("toStatus"));
+            Assertions.assertFalse(transition.getBoolean("timed"));
+
+            List<RecordedEvent> writes = record("org.apache.maven.archetypes.RecordPersist", () -> {
+                try {
+                    manager.checkpoint();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Assertions.assertEquals(2, writes.size());
+            Path reservationFile = accountsDirectory.resolve("Acc-10000001").resolve("res-2000000001.txt");
+            RecordedEvent reservationWrite = only(writes, "reservationNumber", "2000000001");
+            Assertions.assertEquals("10000001", reservationWrite.getString("accountNumber"));
+            Assertions.assertEquals("CabinReservation", reservationWrite.getString("reservationType"));
+            Assertions.assertEquals(reservationFile.toString(), reservationWrite.getString("file"));
+            Assertions.assertEquals(Files.size(reservationFile), reservationWrite.getLong("bytesWritten"));
+            RecordedEvent accountWrite = only(writes, "file",
+                    accountsDirectory.resolve("Acc-10000001").resolve("acc-10000001.txt").toString());
+            Assertions.assertNull(accountWrite.getString("reservationNumber"));
+            Assertions.assertEquals("10000001", accountWrite.getString("accountNumber"));
+        } finally {
+            manager.close();
+        }
+    }
+}
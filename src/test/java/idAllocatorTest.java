@@ -0,0 +1,103 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class idAllocatorTest {
+    @TempDir
+    Path accountsDirectory;
+
+    @Test
+    public void testMillionsOfConcurrentIdsAreUnique() throws Exception {
+        IdAllocator allocator = new IdAllocator(accountsDirectory.resolve("account-ids.seq"), 8, id -> false);
+        int threads = 8;
+        int perThread = 250_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    int[] ids = new int[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        String id = allocator.next();
+                        Assertions.assertEquals(8, id.length());
+                        ids[i] = Integer.parseInt(id);
+                    }
+                    return ids;
+                }));
+            }
+            BitSet seen = new BitSet(100_000_000);
+            for (Future<int[]> future : futures) {
+                for (int id : future.get()) {
+                    Assertions.assertFalse(seen.get(id), "Duplicate ID " + id);
+                    seen.set(id);
+                }
+            }
+            Assertions.assertEquals(threads * perThread, seen.cardinality());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testExistingIdsAreSkipped() {
+        Path file = accountsDirectory.resolve("reservation-ids.seq");
+        List<String> first = new ArrayList<>();
+        IdAllocator probe = new IdAllocator(accountsDirectory.resolve("probe.seq"), 10, id -> false);
+        for (int i = 0; i < 5; i++) {
+            first.add(probe.next());
+        }
+
+        Set<String> existing = Set.of(first.get(0), first.get(2));
+        IdAllocator allocator = new IdAllocator(file, 10, existing::contains);
+        Assertions.assertEquals(List.of(first.get(1), first.get(3), first.get(4)),
+                List.of(allocator.next(), allocator.next(), allocator.next()));
+    }
+
+    @Test
+    public void testAllocationResumesAfterRestart() {
+        Path file = accountsDirectory.resolve("account-ids.seq");
+        Set<String> handedOut = new HashSet<>();
+        for (int run = 0; run < 3; run++) {
+            // A new allocator per run, as after a restart or a crash
+            IdAllocator allocator = new IdAllocator(file, 8, id -> false);
+            for (int i = 0; i < 1500; i++) {
+                Assertions.assertTrue(handedOut.add(allocator.next()));
+            }
+        }
+    }
+
+    @Test
+    public void testSmallIdSpaceIsUsedUpExactly() {
+        IdAllocator allocator = new IdAllocator(accountsDirectory.resolve("ids.seq"), 2, id -> false);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(allocator.next());
+        }
+        Assertions.assertEquals(100, ids.size());
+        Assertions.assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    @Test
+    public void testManagerSkipsLoadedNumbers() {
+        Manager manager = new Manager(accountsDirectory);
+        String accountNumber = manager.newAccountNumber();
+        manager.addAccount(new Account(accountNumber, "1 Main St", "a@example.com", "555-0101"));
+
+        // Another directory has no high-water file, so its allocator starts at the same number and must step over
+        // the account added with it
+        Manager restarted = new Manager(accountsDirectory.resolve("other"));
+        restarted.addAccount(new Account(accountNumber, "1 Main St", "a@example.com", "555-0101"));
+        Assertions.assertNotEquals(accountNumber, restarted.newAccountNumber());
+    }
+}
@@ -0,0 +1,193 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class journalTest {
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static Date future() {
+        return new Date(System.currentTimeMillis() / 1000 * 1000 + 30L * 24 * HOUR);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(accountsDirectory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    // Apply one of each mutation through a journaled manager
+    private Manager mutate() throws IOException {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(1, 64, HOUR);
+        manager.addAccount(new Account("00000001", "1 Main St", "a@example.com", "555-0100"));
+        manager.updateAccount("00000001", "11 Main St", "a2@example.com", "555-0111");
+        manager.addReservation("00000001", new HotelReservation("00000001", "0000000001", "9 Elm St", "",
+                future(), 2, 1, 1, 1, 950, true));
+        manager.addReservation("00000001", new CabinReservation("00000001", "0000000002", "3 Oak St", "",
+                future(), 3, 2, 1, 2, 800, false));
+        manager.addReservation("00000001", new HouseReservation("00000001", "0000000003", "4 Pine St", "",
+                future(), 7, 4, 3, 2, 1800, 2));
+        manager.updateReservation("00000001", new CabinReservation("00000001", "0000000002", "30 Oak St", "",
+                future(), 3, 2, 1, 2, 800, true));
+        manager.completeReservation("00000001", "0000000001");
+        manager.cancelReservation("00000001", "0000000003");
+        return manager;
+    }
+
+    private static void assertSameState(Manager expected, Manager actual) {
+        Assertions.assertEquals(expected.getAccounts().size(), actual.getAccounts().size());
+        Assertions.assertEquals(expected.getReservationCount(), actual.getReservationCount());
+        for (Account account : expected.getAccounts()) {
+            Account other = actual.getAccount(account.getAccountNumber());
+            Assertions.assertEquals(account.toString(), other.toString());
+            for (Reservation reservation : account.getReservations()) {
+                Assertions.assertEquals(reservation.toString(),
+                        actual.getReservation(reservation.getReservationNumber()).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testReplayAfterCrash() throws IOException {
+        Manager original = mutate();
+        Assertions.assertEquals(8, original.getJournalRecordCount());
+        Assertions.assertFalse(Files.exists(accountsDirectory.resolve("Acc-00000001")));
+
+        // The original manager is never closed, as if the process had died
+        Manager recovered = new Manager(accountsDirectory);
+        assertSameState(original, recovered);
+        Assertions.assertEquals(ReservationStatus.CANCELLED, recovered.getReservation("0000000003").getStatus());
+        Assertions.assertEquals("11 Main St", recovered.getAccount("00000001").getMailingAddress());
+    }
+
+    @Test
+    public void testCheckpointFoldsJournalIntoBaseFiles() throws IOException {
+        Manager original = mutate();
+        original.checkpoint();
+        Assertions.assertTrue(Files.exists(accountsDirectory.resolve("Acc-00000001/acc-00000001.txt")));
+        Assertions.assertTrue(Files.exists(accountsDirectory.resolve("Acc-00000001/res-0000000002.txt")));
+        // Only the fresh, empty segment is left
+        Assertions.assertEquals(1, segments().size());
+        Assertions.assertEquals(0, Files.size(segments().get(0)));
+
+        original.close();
+        Assertions.assertTrue(segments().isEmpty());
+        assertSameState(original, new Manager(accountsDirectory));
+    }
+
+    @Test
+    public void testReplayStopsAtTornRecord() throws IOException {
+        Manager original = mutate();
+        Files.write(segments().get(0), new byte[]{0, 0, 1, 0, 2, 'A'}, StandardOpenOption.APPEND);
+
+        assertSameState(original, new Manager(accountsDirectory));
+    }
+
+    // A length word near Integer.MAX_VALUE must not overflow the bounds check; the tail is cut off like a torn record
+    @Test
+    public void testReplayStopsAtGarbageLength() throws IOException {
+        Manager original = mutate();
+        Path segment = segments().get(0);
+        long validLength = Files.size(segment);
+        Files.write(segment, new byte[]{0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xfe, 2, 'A', 'B', 'C', 0, 0, 0, 0},
+                StandardOpenOption.APPEND);
+
+        assertSameState(original, new Manager(accountsDirectory));
+        Assertions.assertEquals(validLength, Files.size(segment));
+    }
+
+    @Test
+    public void testRacingChangesOfOneReservationReplayInOrder() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(0, 256, HOUR);
+        manager.addAccount(new Account("00000001", "1 Main St", "a@example.com", "555-0100"));
+        Date start = future();
+        int reservations = 200;
+        int writers = 4;
+        // Long addresses make encoding a record take about as long as the next writer's turn under the lock
+        String[] addresses = new String[reservations];
+        for (int r = 0; r < reservations; r++) {
+            addresses[r] = r + " Oak St " + "x".repeat(16 * 1024);
+            manager.addReservation("00000001", new CabinReservation("00000001", String.format("%010d", r), addresses[r], "",
+                    start, 3, 2, 1, 2, 800, false));
+        }
+
+        // For each reservation, writers replace it at the same moment; every record is waited for outside the
+        // lock that ordered the updates, so the journal only ends on the last update if records are queued in order
+        CyclicBarrier barrier = new CyclicBarrier(writers);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            results.add(pool.submit(() -> {
+                for (int r = 0; r < reservations; r++) {
+                    barrier.await();
+                    manager.updateReservation("00000001", new CabinReservation("00000001", String.format("%010d", r),
+                            addresses[r], "", start, 3, 2, 1, 2, 1000 + writer, false));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        // Never closed, so only the journal holds the updates
+        Manager recovered = new Manager(accountsDirectory);
+        for (int r = 0; r < reservations; r++) {
+            String reservationNumber = String.format("%010d", r);
+            Assertions.assertEquals(manager.getReservation(reservationNumber).getLodgingSize(),
+                    recovered.getReservation(reservationNumber).getLodgingSize(), reservationNumber);
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersShareSyncs() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(5, 256, HOUR);
+        manager.addAccount(new Account("00000001", "1 Main St", "a@example.com", "555-0100"));
+
+        int writers = 16;
+        int perWriter = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> results = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            results.add(pool.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    manager.addReservation("00000001", new CabinReservation("00000001",
+                            String.format("%05d%05d", writer, i), writer + "-" + i + " Oak St", "", future(), 1, 1, 1, 1, 400, false));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(1 + writers * perWriter, manager.getJournalRecordCount());
+        Assertions.assertTrue(manager.getJournalSyncCount() < manager.getJournalRecordCount() / 2,
+                "expected group commit, got " + manager.getJournalSyncCount() + " syncs");
+
+        Manager recovered = new Manager(accountsDirectory);
+        Assertions.assertEquals(writers * perWriter, recovered.getReservationCount());
+    }
+}
@@ -0,0 +1,166 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class lazyLoadTest {
+    private static final Date START_DATE = new Date(4102444800000L);
+
+    @TempDir
+    Path accountsDirectory;
+
+    private void writeFile(String accountNumber, String fileName, Object content) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-" + accountNumber));
+        Files.writeString(folder.resolve(fileName), content.toString());
+    }
+
+    // Three accounts holding reservations 0000000001..0000000006, two per account
+    private void writeTree() throws IOException {
+        int reservationNumber = 1;
+        for (int i = 1; i <= 3; i++) {
+            String accountNumber = String.format("%08d", i);
+            writeFile(accountNumber, "acc-" + accountNumber + ".txt",
+                    new Account(accountNumber, i + " Main St", i + "@example.com", "555-010" + i));
+            for (int j = 0; j < 2; j++, reservationNumber++) {
+                String number = String.format("%010d", reservationNumber);
+                writeFile(accountNumber, "res-" + number + ".txt", new CabinReservation(accountNumber, number,
+                        reservationNumber + " Lake Rd", "", START_DATE, 2, 1, 1, 1, 800, j == 0));
+            }
+        }
+    }
+
+    @Test
+    public void testAccountsLoadOnFirstUse() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, true);
+        Assertions.assertEquals(3, manager.getAccounts().size());
+        Assertions.assertEquals(0, manager.getFaultedInAccountCount());
+        Assertions.assertEquals(0, manager.getReservationCount());
+        Assertions.assertFalse(manager.getAccount("00000002").isLoaded());
+
+        Assertions.assertEquals(2, manager.getAccount("00000002").getReservations().size());
+        Assertions.assertEquals("2 Main St", manager.getAccount("00000002").getMailingAddress());
+        Assertions.assertEquals(1, manager.getFaultedInAccountCount());
+        Assertions.assertEquals(2, manager.getReservationCount());
+        Assertions.assertFalse(manager.getAccount("00000001").isLoaded());
+    }
+
+    @Test
+    public void testReservationLookupLoadsOwningAccount() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, true);
+        Reservation reservation = manager.getReservation("0000000005");
+        Assertions.assertNotNull(reservation);
+        Assertions.assertSame(manager.getAccount("00000003"), manager.getReservationOwner("0000000005"));
+        Assertions.assertEquals(1, manager.getFaultedInAccountCount());
+        Assertions.assertNull(manager.getReservation("0000000099"));
+    }
+
+    @Test
+    public void testConcurrentFirstUseLoadsOnce() throws Exception {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, true);
+        Account account = manager.getAccount("00000001");
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> sizes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            sizes.add(pool.submit(() -> {
+                start.await();
+                return account.getReservations().size();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> size : sizes) {
+            Assertions.assertEquals(2, size.get());
+        }
+        pool.shutdown();
+        Assertions.assertEquals(1, manager.getFaultedInAccountCount());
+        Assertions.assertEquals(2, manager.getReservationCount());
+    }
+
+    @Test
+    public void testMutationsOnUnloadedAccounts() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, true);
+        manager.addReservation("00000001", new HotelReservation("00000001", "0000000007", "7 Elm St", "",
+                START_DATE, 2, 1, 1, 1, 950, true));
+        Assertions.assertEquals(3, manager.getAccount("00000001").getReservations().size());
+
+        // A reservation number already on disk in another, still unloaded, account is rejected
+        Assertions.assertThrows(DuplicateObjectException.class, () -> manager.addReservation("00000001",
+                new HotelReservation("00000001", "0000000003", "7 Elm St", "", START_DATE, 2, 1, 1, 1, 950, true)));
+
+        manager.cancelReservation("00000003", "0000000006");
+        Assertions.assertEquals(ReservationStatus.CANCELLED, manager.getReservation("0000000006").getStatus());
+    }
+
+    @Test
+    public void testNewReservationNumbersLoadNoOtherAccount() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, true);
+        Assertions.assertNull(manager.getReservation("0000000099"));
+        Assertions.assertEquals(0, manager.getFaultedInAccountCount());
+
+        manager.addReservation("00000002", new HotelReservation("00000002", "0000000007", "7 Elm St", "",
+                START_DATE, 2, 1, 1, 1, 950, true));
+        manager.addAccount(new Account("00000004", "4 Main St", "4@example.com", "555-0104"));
+        Assertions.assertEquals(1, manager.getFaultedInAccountCount());
+        Assertions.assertFalse(manager.getAccount("00000001").isLoaded());
+        Assertions.assertFalse(manager.getAccount("00000003").isLoaded());
+    }
+
+    @Test
+    public void testAccountThatFailsToLoadIsDropped() throws IOException {
+        writeTree();
+        Path accountFile = accountsDirectory.resolve("Acc-00000002").resolve("acc-00000002.txt");
+        String accountRecord = Files.readString(accountFile);
+        Files.delete(accountFile);
+        Manager manager = new Manager(accountsDirectory, 1, true);
+        Assertions.assertEquals(3, manager.getAccounts().size());
+
+        Assertions.assertEquals(4, manager.getReservationColumns().size());
+        Assertions.assertNull(manager.getAccount("00000002"));
+        Assertions.assertEquals(2, manager.getAccounts().size());
+        Assertions.assertEquals(4, manager.aggregateReservations(START_DATE.toInstant().atZone(ZoneOffset.UTC)
+                .toLocalDate(), START_DATE.toInstant().atZone(ZoneOffset.UTC).toLocalDate().plusDays(1))
+                .getTotal().getCount());
+        manager.writeSnapshot();
+        Path export = accountsDirectory.resolve("export.jsonl");
+        new BulkExporter(manager).exportTo(export);
+        Assertions.assertFalse(Files.readString(export).contains("\"00000002\""));
+
+        // The failed load is not retried, even once the file is back
+        Files.writeString(accountFile, accountRecord);
+        Assertions.assertEquals(4, manager.getReservationColumns().size());
+        Assertions.assertNull(manager.getAccount("00000002"));
+        Assertions.assertNull(manager.getReservation("0000000003"));
+    }
+
+    @Test
+    public void testLazyStateMatchesEagerState() throws IOException {
+        writeTree();
+        Manager eager = new Manager(accountsDirectory, 1);
+        Manager lazy = new Manager(accountsDirectory, 1, true);
+        for (Account account : eager.getAccounts()) {
+            Account other = lazy.getAccount(account.getAccountNumber());
+            Assertions.assertEquals(account.toString(), other.toString());
+            Assertions.assertEquals(account.getReservations().toString(), other.getReservations().toString());
+        }
+        Assertions.assertEquals(eager.getReservationCount(), lazy.getReservationCount());
+        Assertions.assertEquals(3, lazy.getFaultedInAccountCount());
+    }
+}
@@ -0,0 +1,183 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class managerConcurrencyTest {
+    private static final Date FUTURE_DATE = new Date(4102444800000L);
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static HotelReservation reservation(String accountNumber, String reservationNumber) {
+        // Each reservation gets its own room so fixtures never double-book a lodging
+        return new HotelReservation(accountNumber, reservationNumber, "Room " + reservationNumber, "", FUTURE_DATE, 2, 1, 1, 1, 500, true);
+    }
+
+    private static Manager managerWithAccounts(Path accountsDirectory, int accountCount) {
+        Manager manager = new Manager(accountsDirectory);
+        for (int i = 0; i < accountCount; i++) {
+            manager.addAccount(new Account(String.format("%08d", i), i + " Main St", i + "@example.com", "555-0100"));
+        }
+        return manager;
+    }
+
+    // Run the same task on every thread at once and return how long they took together
+    private static long runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRacingTransitionsHaveOneWinner() throws Exception {
+        Manager manager = managerWithAccounts(accountsDirectory, 1);
+        for (int round = 0; round < 200; round++) {
+            String reservationNumber = String.format("%010d", round);
+            manager.addReservation("00000000", reservation("00000000", reservationNumber));
+            AtomicInteger completed = new AtomicInteger();
+            AtomicInteger cancelled = new AtomicInteger();
+            AtomicInteger turn = new AtomicInteger();
+            runConcurrently(2, () -> {
+                try {
+                    if (turn.getAndIncrement() == 0) {
+                        manager.completeReservation("00000000", reservationNumber);
+                        completed.incrementAndGet();
+                    } else {
+                        manager.cancelReservation("00000000", reservationNumber);
+                        cancelled.incrementAndGet();
+                    }
+                } catch (IllegalOperationException e) {
+                    // The other transition won
+                }
+                return null;
+            });
+            Assertions.assertEquals(1, completed.get() + cancelled.get());
+            ReservationStatus expected = completed.get() == 1 ? ReservationStatus.COMPLETED : ReservationStatus.CANCELLED;
+            Assertions.assertEquals(expected, manager.getReservation(reservationNumber).getStatus());
+        }
+    }
+
+    @Test
+    public void testCompareAndSetStatus() {
+        Reservation reservation = reservation("00000000", "0000000001");
+        Assertions.assertTrue(reservation.compareAndSetStatus(ReservationStatus.DRAFT, ReservationStatus.CANCELLED));
+        Assertions.assertFalse(reservation.compareAndSetStatus(ReservationStatus.DRAFT, ReservationStatus.COMPLETED));
+        Assertions.assertEquals(ReservationStatus.CANCELLED, reservation.getStatus());
+    }
+
+    @Test
+    public void testOnlyOneAccountClaimsAReservationNumber() throws Exception {
+        int threads = 16;
+        Manager manager = managerWithAccounts(accountsDirectory, threads);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger added = new AtomicInteger();
+        runConcurrently(threads, () -> {
+            String accountNumber = String.format("%08d", next.getAndIncrement());
+            try {
+                manager.addReservation(accountNumber, reservation(accountNumber, "0000000001"));
+                added.incrementAndGet();
+            } catch (DuplicateObjectException e) {
+                // Another account claimed the number first
+            }
+            return null;
+        });
+        Assertions.assertEquals(1, added.get());
+        Assertions.assertEquals(1, manager.getReservationCount());
+        Account owner = manager.getReservationOwner("0000000001");
+        Assertions.assertEquals(1, owner.getReservations().size());
+    }
+
+    // A transition is taken under the owner's lock only; through another account the reservation is not found
+    @Test
+    public void testTransitionsThroughAnotherAccountAreRefused() {
+        Manager manager = managerWithAccounts(accountsDirectory, 2);
+        manager.addReservation("00000000", reservation("00000000", "0000000001"));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> manager.completeReservation("00000001", "0000000001"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> manager.cancelReservation("00000001", "0000000001"));
+        Assertions.assertEquals(ReservationStatus.DRAFT, manager.getReservation("0000000001").getStatus());
+        Assertions.assertEquals(1, manager.getReservationCount(ReservationStatus.DRAFT));
+
+        manager.cancelReservation("00000000", "0000000001");
+        Assertions.assertEquals(ReservationStatus.CANCELLED, manager.getReservation("0000000001").getStatus());
+    }
+
+    @Test
+    public void testNoLostUpdatesUnderLoad() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int accountCount = 256;
+        int perThread = 2_000;
+        long singleThreadNanos = 0;
+        for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+            Manager manager = managerWithAccounts(accountsDirectory, accountCount);
+            AtomicInteger nextThread = new AtomicInteger();
+            long nanos = runConcurrently(threads, () -> {
+                int thread = nextThread.getAndIncrement();
+                for (int i = 0; i < perThread; i++) {
+                    String accountNumber = String.format("%08d", (thread * 31 + i) % accountCount);
+                    String reservationNumber = String.format("%010d", thread * perThread + i);
+                    manager.addReservation(accountNumber, reservation(accountNumber, reservationNumber));
+                    if (i % 2 == 0) {
+                        manager.completeReservation(accountNumber, reservationNumber);
+                    }
+                    manager.getReservation(String.format("%010d", thread * perThread + i / 2));
+                }
+                return null;
+            });
+
+            int total = threads * perThread;
+            Assertions.assertEquals(total, manager.getReservationCount());
+            int listed = 0;
+            int completed = 0;
+            for (Account account : manager.getAccounts()) {
+                for (Reservation reservation : account.getReservations()) {
+                    Assertions.assertSame(account, manager.getReservationOwner(reservation.getReservationNumber()));
+                    listed++;
+                    if (reservation.getStatus() == ReservationStatus.COMPLETED) {
+                        completed++;
+                    }
+                }
+            }
+            Assertions.assertEquals(total, listed);
+            Assertions.assertEquals(threads * ((perThread + 1) / 2), completed);
+
+            if (threads == 1) {
+                singleThreadNanos = nanos;
+            }
+            System.out.printf("%d threads: %d operations/ms (%.1fx single thread)%n", threads,
+                    total * 3 / Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos)),
+                    (double) singleThreadNanos * threads / nanos);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+public class managerIndexTest {
+    @TempDir
+    Path accountsDirectory;
+
+    // Every reservation in every account list must be reachable through the indexes, and nothing else
+    private static void assertIndexesConsistent(Manager manager) {
+        int listed = 0;
+        for (Account account : manager.getAccounts()) {
+            Assertions.assertSame(account, manager.getAccount(account.getAccountNumber()));
+            for (Reservation reservation : account.getReservations()) {
+                Assertions.assertSame(reservation, manager.getReservation(reservation.getReservationNumber()));
+                Assertions.assertSame(account, manager.getReservationOwner(reservation.getReservationNumber()));
+                listed++;
+            }
+        }
+        Assertions.assertEquals(listed, manager.getReservationCount());
+    }
+
+    private void writeAccount(String accountNumber, String... reservationNumbers) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-" + accountNumber));
+        Account account = new Account(accountNumber, "1 Main St", "a@example.com", "555-0100");
+        Files.writeString(folder.resolve("acc-" + accountNumber + ".txt"), account.toString());
+        for (String reservationNumber : reservationNumbers) {
+            Reservation reservation = new HotelReservation(accountNumber, reservationNumber, "9 Elm St", "",
+                    new Date(), 2, 1, 1, 1, 500, true);
+            Files.writeString(folder.resolve("res-" + reservationNumber + ".txt"), reservation.toString());
+        }
+    }
+
+    @Test
+    public void testIndexesAfterLoad() throws IOException {
+        writeAccount("00000001", "0000000001", "0000000002");
+        writeAccount("00000002", "0000000003");
+        writeAccount("00000003");
+
+        Manager manager = new Manager(accountsDirectory);
+        Assertions.assertEquals(3, manager.getAccounts().size());
+        Assertions.assertEquals(3, manager.getReservationCount());
+        Assertions.assertEquals("00000001", manager.getReservationOwner("0000000002").getAccountNumber());
+        assertIndexesConsistent(manager);
+    }
+
+    @Test
+    public void testIndexesAfterMutations() throws IOException {
+        writeAccount("00000001", "0000000001");
+        Manager manager = new Manager(accountsDirectory);
+
+        Account account = new Account("00000002", "2 Main St", "b@example.com", "555-0101");
+        account.addReservation(new CabinReservation("00000002", "0000000010", "3 Oak St", "",
+                new Date(), 1, 1, 1, 1, 400, false));
+        manager.addAccount(account);
+        assertIndexesConsistent(manager);
+
+        manager.addReservation("00000001", new HouseReservation("00000001", "0000000011", "4 Pine St", "",
+                new Date(), 3, 2, 2, 1, 1200, 2));
+        assertIndexesConsistent(manager);
+
+        Reservation updated = new CabinReservation("00000001", "0000000011", "5 Birch St", "",
+                new Date(), 3, 2, 2, 1, 1200, true);
+        manager.updateReservation("00000001", updated);
+        Assertions.assertSame(updated, manager.getReservation("0000000011"));
+        assertIndexesConsistent(manager);
+
+        // Updating through the wrong account must not touch either account or the indexes
+        Assertions.assertThrows(IllegalOperationException.class, () -> manager.updateReservation("00000002",
+                new CabinReservation("00000002", "0000000001", "6 Ash St", "", new Date(), 1, 1, 1, 1, 400, false)));
+        Assertions.assertEquals("00000001", manager.getReservationOwner("0000000001").getAccountNumber());
+        assertIndexesConsistent(manager);
+
+        // Only a draft can be replaced
+        manager.completeReservation("00000001", "0000000011");
+        Assertions.assertThrows(IllegalOperationException.class, () -> manager.updateReservation("00000001",
+                new CabinReservation("00000001", "0000000011", "5 Birch St", "", new Date(), 4, 2, 2, 1, 1200, true)));
+        Assertions.assertSame(updated, manager.getReservation("0000000011"));
+        assertIndexesConsistent(manager);
+    }
+
+    @Test
+    public void testRejectedAddsLeaveIndexesUnchanged() throws IOException {
+        writeAccount("00000001", "0000000001");
+        Manager manager = new Manager(accountsDirectory);
+
+        Account clash = new Account("00000002", "2 Main St", "b@example.com", "555-0101");
+        clash.addReservation(new CabinReservation("00000002", "0000000001", "3 Oak St", "",
+                new Date(), 1, 1, 1, 1, 400, false));
+        Assertions.assertThrows(DuplicateObjectException.class, () -> manager.addAccount(clash));
+        Assertions.assertNull(manager.getAccount("00000002"));
+
+        Assertions.assertThrows(DuplicateObjectException.class, () -> manager.addReservation("00000001",
+                new CabinReservation("00000001", "0000000001", "3 Oak St", "", new Date(), 1, 1, 1, 1, 400, false)));
+        assertIndexesConsistent(manager);
+    }
+
+    @Test
+    public void testParallelLoadMatchesSequential() throws IOException {
+        for (int i = 1; i <= 50; i++) {
+            String accountNumber = String.format("%08d", i);
+            String[] reservationNumbers = new String[i % 4];
+            for (int j = 0; j < reservationNumbers.length; j++) {
+                reservationNumbers[j] = String.format("%010d", i * 10 + j);
+            }
+            writeAccount(accountNumber, reservationNumbers);
+        }
+
+        Manager sequential = new Manager(accountsDirectory, 1);
+        Manager parallel = new Manager(accountsDirectory, 4);
+        Assertions.assertEquals(sequential.getAccounts().size(), parallel.getAccounts().size());
+        Assertions.assertEquals(sequential.getReservationCount(), parallel.getReservationCount());
+        for (int i = 0; i < sequential.getAccounts().size(); i++) {
+            Account expected = sequential.getAccounts().get(i);
+            Account actual = parallel.getAccounts().get(i);
+            Assertions.assertEquals(expected.toString(), actual.toString());
+            Assertions.assertEquals(expected.getReservations().toString(), actual.getReservations().toString());
+        }
+        assertIndexesConsistent(parallel);
+    }
+}
@@ -0,0 +1,126 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class metricsRegistryTest {
+    private static final long HOUR = 3_600_000;
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static CabinReservation cabin(String reservationNumber) {
+        return new CabinReservation("10000001", reservationNumber, reservationNumber + " Lake Rd", "",
+                new Date(4102444800000L), 2, 3, 2, 1, 1000, true);
+    }
+
+    @Test
+    public void testOperationsAndWritesAreTimed() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(1, 64, HOUR);
+        try {
+            manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+            manager.addReservation("10000001", cabin("2000000001"));
+            Assertions.assertThrows(DuplicateObjectException.class,
+                    () -> manager.addReservation("10000001", cabin("2000000001")));
+            for (int i = 0; i < 100; i++) {
+                manager.getReservation("2000000001");
+            }
+            manager.checkpoint();
+        } finally {
+            manager.close();
+        }
+
+        MetricsRegistry metrics = manager.getMetrics();
+        Assertions.assertEquals(1, metrics.timer("addAccount").getCount());
+        Assertions.assertEquals(2, metrics.timer("addReservation").getCount());
+        Assertions.assertEquals(1, metrics.timer("addReservation").getErrorCount());
+        // Lookups made inside other operations are not counted as calls
+        Assertions.assertEquals(100, metrics.timer("getReservation").getCount());
+        Assertions.assertEquals(2, metrics.timer("write.journal").getCount());
+        Assertions.assertEquals(2, metrics.timer("write.file").getCount());
+
+        MetricsRegistry.Timer lookups = metrics.timer("getReservation");
+        Assertions.assertTrue(lookups.getP50Micros() <= lookups.getP99Micros());
+        Assertions.assertTrue(lookups.getP99Micros() <= lookups.getP999Micros());
+        Assertions.assertTrue(lookups.getP999Micros() <= lookups.getMaxMicros());
+        String dump = metrics.dump();
+        Assertions.assertTrue(dump.contains("addReservation"), dump);
+        Assertions.assertTrue(dump.contains("errors=1"), dump);
+        Assertions.assertFalse(dump.contains("cancelReservation"), dump);
+    }
+
+    @Test
+    public void testLoaderPhasesAreTimed() throws Exception {
+        DataGenerator generator = new DataGenerator(5);
+        generator.setAccounts(50);
+        generator.setDates(LocalDate.parse("2100-01-01"), 365);
+        int reservations = generator.write(accountsDirectory);
+
+        MetricsRegistry metrics = new Manager(accountsDirectory).getMetrics();
+        Assertions.assertEquals(1, metrics.timer("load.listing").getCount());
+        Assertions.assertEquals(1, metrics.timer("load.indexing").getCount());
+        Assertions.assertEquals(50 + reservations, metrics.timer("load.reading").getCount());
+        Assertions.assertEquals(50 + reservations, metrics.timer("load.parsing").getCount());
+        Assertions.assertEquals(0, metrics.timer("load.parsing").getErrorCount());
+    }
+
+    @Test
+    public void testConcurrentRecordingLosesNothing() throws Exception {
+        MetricsRegistry.Timer timer = new MetricsRegistry().timer("concurrent");
+        int threads = 4;
+        int perThread = 100_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 1; i <= perThread; i++) {
+                        timer.record(i * 1000L);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertEquals(threads * perThread, timer.getCount());
+        Assertions.assertEquals(100_000.0, timer.getMaxMicros());
+        // Within the histogram's 1/16 bucket width
+        Assertions.assertEquals(50_000.0, timer.getP50Micros(), 50_000.0 / 16);
+        Assertions.assertEquals(99_000.0, timer.getP99Micros(), 99_000.0 / 16);
+    }
+
+    @Test
+    public void testTimersAreMBeans() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.timer("addAccount").record(2_000);
+        metrics.timer("addAccount").error();
+        metrics.registerMBeans("metricsRegistryTest");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("org.apache.maven.archetypes:type=metricsRegistryTest,name=addAccount");
+            Assertions.assertEquals(1L, server.getAttribute(name, "Count"));
+            Assertions.assertEquals(1L, server.getAttribute(name, "ErrorCount"));
+            Assertions.assertEquals(2.0, (double) server.getAttribute(name, "MaxMicros"));
+        } finally {
+            metrics.unregisterMBeans();
+        }
+        Assertions.assertTrue(ManagementFactory.getPlatformMBeanServer()
+                .queryNames(new ObjectName("org.apache.maven.archetypes:type=metricsRegistryTest,*"), null).isEmpty());
+    }
+}
@@ -0,0 +1,117 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+
+public class priceCacheTest {
+    private static final Date START_DATE = new Date(4102444800000L);
+
+    @TempDir
+    Path accountsDirectory;
+
+    private long hits;
+    private long misses;
+
+    private void markCounters() {
+        hits = PricingEngine.getCacheHitCount();
+        misses = PricingEngine.getCacheMissCount();
+    }
+
+    private void assertCounters(long expectedHits, long expectedMisses) {
+        Assertions.assertEquals(expectedHits, PricingEngine.getCacheHitCount() - hits, "hits");
+        Assertions.assertEquals(expectedMisses, PricingEngine.getCacheMissCount() - misses, "misses");
+    }
+
+    @AfterEach
+    public void restoreRules() {
+        PricingEngine.setDefault(PricingEngine.builtIn());
+    }
+
+    @Test
+    public void testPriceIsCalculatedOnce() {
+        HotelReservation hotel = new HotelReservation("1", "1", "", "", START_DATE, 2, 1, 1, 1, 800, false);
+        markCounters();
+        hotel.calculatePrice();
+        hotel.calculatePrice();
+        hotel.calculatePrice();
+        assertCounters(2, 1);
+        Assertions.assertEquals(170.0, hotel.getPrice());
+    }
+
+    @Test
+    public void testPricingFieldChangesRecalculate() {
+        HotelReservation hotel = new HotelReservation("1", "1", "", "", START_DATE, 2, 1, 1, 1, 800, false);
+        CabinReservation cabin = new CabinReservation("1", "2", "", "", START_DATE, 2, 1, 1, 1, 800, false);
+        HouseReservation house = new HouseReservation("1", "3", "", "", START_DATE, 2, 1, 1, 1, 800, 1);
+        hotel.calculatePrice();
+        cabin.calculatePrice();
+        house.calculatePrice();
+
+        markCounters();
+        hotel.setKitchenette(true);
+        hotel.calculatePrice();
+        Assertions.assertEquals(180.0, hotel.getPrice());
+        hotel.setLodgingSize(1000);
+        hotel.calculatePrice();
+        Assertions.assertEquals(195.0, hotel.getPrice());
+        cabin.setFullKitchen(true);
+        cabin.setNumberOfBathrooms(3);
+        cabin.calculatePrice();
+        Assertions.assertEquals(155.0, cabin.getPrice());
+        house.setNumberOfFloors(3);
+        house.calculatePrice();
+        Assertions.assertEquals(195.0, house.getPrice());
+        assertCounters(0, 4);
+
+        // Fields the price does not depend on leave the memo alone
+        house.setLodgingPhysicalAddress("8 Hill Rd");
+        house.setStatus(ReservationStatus.COMPLETED);
+        house.calculatePrice();
+        assertCounters(1, 4);
+    }
+
+    @Test
+    public void testRuleChangesAndInvalidationRecalculate() {
+        CabinReservation cabin = new CabinReservation("1", "1", "", "", START_DATE, 2, 1, 1, 2, 800, true);
+        cabin.calculatePrice();
+        Assertions.assertEquals(150.0, cabin.getPrice());
+
+        markCounters();
+        PricingEngine.setDefault(PricingEngine.fromTable(
+                "HOTEL base=120\nCABIN base=100 amenityFee=20 bathroomFee=10\nHOUSE base=120"));
+        cabin.calculatePrice();
+        Assertions.assertEquals(140.0, cabin.getPrice());
+        cabin.calculatePrice();
+        assertCounters(1, 1);
+
+        PricingEngine.invalidatePrices();
+        cabin.calculatePrice();
+        cabin.invalidatePrice();
+        cabin.calculatePrice();
+        assertCounters(1, 3);
+
+        // A price set from outside, such as one read from a file, is recalculated on the next calculatePrice
+        cabin.setPrice(1.0);
+        cabin.calculatePrice();
+        Assertions.assertEquals(140.0, cabin.getPrice());
+        assertCounters(1, 4);
+    }
+
+    @Test
+    public void testManagerPriceQueriesReuseThePrice() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("00000001", "1 Main St", "a@example.com", "555-0100"));
+        manager.addReservation("00000001", new HouseReservation("00000001", "0000000001", "4 Pine St", "",
+                START_DATE, 3, 4, 3, 2, 1800, 2));
+
+        markCounters();
+        Assertions.assertEquals(185.0, manager.calculatePricePerNight("0000000001"));
+        Assertions.assertEquals(555.0, manager.calculateTotalPrice("0000000001"));
+        Assertions.assertEquals(185.0, manager.calculatePricePerNight("0000000001"));
+        assertCounters(2, 1);
+    }
+}
@@ -0,0 +1,122 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+public class pricingEngineTest {
+    // The per-subclass formulas the engine replaced, kept here as the reference
+    private static double legacyPrice(Reservation reservation) {
+        double basePrice = 120.0;
+        double additionalFee = 0.0;
+        if (reservation.getLodgingSize() > 900) {
+            additionalFee += 15.0;
+        }
+        if (reservation instanceof HotelReservation hotel) {
+            additionalFee += 50.0;
+            if (hotel.hasKitchenette()) {
+                additionalFee += 10.0;
+            }
+        } else if (reservation instanceof CabinReservation cabin) {
+            if (cabin.isFullKitchen()) {
+                additionalFee += 20.0;
+            }
+            additionalFee += reservation.getNumberOfBathrooms() * 5.0;
+        } else {
+            additionalFee += ((HouseReservation) reservation).getNumberOfFloors() * 25.0;
+        }
+        return basePrice + additionalFee;
+    }
+
+    private static List<Reservation> randomReservations(int count, long seed) {
+        Random random = new Random(seed);
+        List<Reservation> reservations = new ArrayList<>(count);
+        Date startDate = new Date(4102444800000L);
+        for (int i = 0; i < count; i++) {
+            String number = String.format("%010d", i);
+            int size = random.nextInt(2000);
+            int bathrooms = random.nextInt(6);
+            reservations.add(switch (random.nextInt(3)) {
+                case 0 -> new HotelReservation("00000001", number, "", "", startDate, 1, 1, 1, bathrooms, size,
+                        random.nextBoolean());
+                case 1 -> new CabinReservation("00000001", number, "", "", startDate, 1, 1, 1, bathrooms, size,
+                        random.nextBoolean());
+                default -> new HouseReservation("00000001", number, "", "", startDate, 1, 1, 1, bathrooms, size,
+                        random.nextInt(5));
+            });
+        }
+        return reservations;
+    }
+
+    @Test
+    public void testCalculatePriceMatchesLegacyFormulas() {
+        for (Reservation reservation : randomReservations(10_000, 1)) {
+            reservation.calculatePrice();
+            Assertions.assertEquals(legacyPrice(reservation), reservation.getPrice(), 0.0, reservation::toString);
+        }
+    }
+
+    @Test
+    public void testSizeThresholdBoundary() {
+        Date startDate = new Date(4102444800000L);
+        HotelReservation at = new HotelReservation("1", "1", "", "", startDate, 1, 1, 1, 1, 900, false);
+        HotelReservation over = new HotelReservation("1", "2", "", "", startDate, 1, 1, 1, 1, 901, true);
+        at.calculatePrice();
+        over.calculatePrice();
+        Assertions.assertEquals(170.0, at.getPrice());
+        Assertions.assertEquals(195.0, over.getPrice());
+    }
+
+    @Test
+    public void testBatchPricingMatchesSingle() {
+        PricingEngine engine = PricingEngine.builtIn();
+        // Below and above the parallel threshold
+        for (int count : new int[] {1_000, 100_000}) {
+            List<Reservation> reservations = randomReservations(count, count);
+            engine.price(reservations);
+            for (Reservation reservation : reservations) {
+                Assertions.assertEquals(legacyPrice(reservation), reservation.getPrice(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveColumns() {
+        PricingEngine engine = PricingEngine.builtIn();
+        byte[] types = {PricingEngine.HOTEL, PricingEngine.CABIN, PricingEngine.HOUSE};
+        double[] prices = new double[3];
+        engine.price(types, new int[] {1000, 500, 1200}, new boolean[] {true, true, false}, new int[] {1, 2, 3},
+                new int[] {0, 0, 2}, prices);
+        Assertions.assertArrayEquals(new double[] {195.0, 150.0, 185.0}, prices, 0.0);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> engine.price(types, new int[2], new boolean[3], new int[3], new int[3], prices));
+    }
+
+    @Test
+    public void testCustomRuleTable() {
+        PricingEngine engine = PricingEngine.fromTable("""
+                # weekend rates
+                HOTEL base=150 sizeThreshold=800 sizeFee=20 flatFee=50 amenityFee=10
+                CABIN base=100 amenityFee=30 bathroomFee=7.5
+                HOUSE base=200 floorFee=40
+                """);
+        Date startDate = new Date(4102444800000L);
+        Assertions.assertEquals(230.0, engine.price(new HotelReservation("1", "1", "", "", startDate, 1, 1, 1, 1, 850, true)));
+        Assertions.assertEquals(145.0, engine.price(new CabinReservation("1", "2", "", "", startDate, 1, 1, 1, 2, 2000, true)));
+        Assertions.assertEquals(280.0, engine.price(new HouseReservation("1", "3", "", "", startDate, 1, 1, 1, 1, 2000, 2)));
+    }
+
+    @Test
+    public void testMalformedRuleTable() {
+        Assertions.assertThrows(IllegalLoadException.class, () -> PricingEngine.fromTable("HOTEL base=120\nCABIN base=1"));
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> PricingEngine.fromTable("HOTEL base=x\nCABIN base=1\nHOUSE base=1"));
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> PricingEngine.fromTable("HOTEL discount=5\nCABIN base=1\nHOUSE base=1"));
+        Assertions.assertThrows(IllegalLoadException.class,
+                () -> PricingEngine.fromTable("HOTEL base=1\nCABIN base=1\nHOUSE base=1\nBARN base=1"));
+    }
+}
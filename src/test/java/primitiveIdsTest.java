@@ -0,0 +1,167 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class primitiveIdsTest {
+    private static final Date START_DATE = new Date(4102444800000L);
+
+    @TempDir
+    Path accountsDirectory;
+
+    private void writeFile(String accountNumber, String fileName, Object content) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-" + accountNumber));
+        Files.writeString(folder.resolve(fileName), content.toString());
+    }
+
+    // Accounts 00000001 and 00000100 with reservations 0000000001, 0000000010 and 0000000100, all mailed
+    // to the same PO box
+    private void writeTree() throws IOException {
+        writeFile("00000001", "acc-00000001.txt", new Account("00000001", "1 Main St", "1@example.com", "555-0101"));
+        writeFile("00000100", "acc-00000100.txt", new Account("00000100", "100 Main St", "100@example.com", "555-0102"));
+        String[][] reservations = {{"00000001", "0000000001"}, {"00000001", "0000000010"}, {"00000100", "0000000100"}};
+        for (String[] reservation : reservations) {
+            writeFile(reservation[0], "res-" + reservation[1] + ".txt", new HouseReservation(reservation[0],
+                    reservation[1], reservation[1] + " Lake Rd", "PO Box 9", START_DATE, 2, 3, 2, 1, 1500, 2));
+        }
+    }
+
+    @Test
+    public void testLeadingZeroIdsAreKeptExactly() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, false, true);
+
+        Assertions.assertEquals(2, manager.getAccounts().size());
+        Assertions.assertEquals(3, manager.getReservationCount());
+        Assertions.assertEquals("00000100", manager.getAccount("00000100").getAccountNumber());
+        Assertions.assertEquals("0000000010", manager.getReservation("0000000010").getReservationNumber());
+        Assertions.assertSame(manager.getAccount("00000001"), manager.getReservationOwner("0000000010"));
+        // The same number without its leading zeros is a different ID
+        Assertions.assertNull(manager.getAccount("100"));
+        Assertions.assertNull(manager.getReservation("10"));
+        Assertions.assertNull(manager.getReservation("00000000010"));
+    }
+
+    @Test
+    public void testSnapshotRoundTripsIds() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, false, true);
+        manager.writeSnapshot();
+
+        Manager reloaded = new Manager(accountsDirectory, 1, false, true);
+        Assertions.assertEquals(manager.getReservationCount(), reloaded.getReservationCount());
+        for (String number : new String[] {"0000000001", "0000000010", "0000000100"}) {
+            Assertions.assertEquals(manager.getReservation(number).toString(), reloaded.getReservation(number).toString());
+        }
+    }
+
+    @Test
+    public void testNonNumericIdsStillWork() throws IOException {
+        Manager manager = new Manager(accountsDirectory, 1, false, true);
+        manager.addAccount(new Account("AB-1", "1 Main St", "ab@example.com", "555-0100"));
+        manager.addReservation("AB-1", new HotelReservation("AB-1", "R-1", "Room R-1", "", START_DATE, 1, 1, 1, 1, 400, false));
+
+        Assertions.assertEquals("AB-1", manager.getAccount("AB-1").getAccountNumber());
+        Assertions.assertEquals("R-1", manager.getReservation("R-1").getReservationNumber());
+        Assertions.assertEquals(1, manager.getReservationCount());
+    }
+
+    @Test
+    public void testRepeatedAddressesShareOneString() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, false, true);
+
+        Assertions.assertSame(manager.getReservation("0000000001").getLodgingMailingAddress(),
+                manager.getReservation("0000000100").getLodgingMailingAddress());
+        Assertions.assertSame(manager.getReservation("0000000001").getAccountNumber(),
+                manager.getReservation("0000000010").getAccountNumber());
+    }
+
+    @Test
+    public void testStringsArePooledOnlyWhileLoadingWithPrimitiveIds() throws IOException {
+        writeTree();
+        Manager manager = new Manager(accountsDirectory, 1, false, false);
+        Assertions.assertNotSame(manager.getReservation("0000000001").getLodgingMailingAddress(),
+                manager.getReservation("0000000100").getLodgingMailingAddress());
+
+        Manager pooled = new Manager(accountsDirectory, 1, false, true);
+        HouseReservation added = new HouseReservation("00000001", "0000000002", "2 Lake Rd", new String("PO Box 9"),
+                START_DATE, 2, 3, 2, 1, 1500, 2);
+        pooled.addReservation("00000001", added);
+        Assertions.assertNotSame(pooled.getReservation("0000000001").getLodgingMailingAddress(),
+                pooled.getReservation("0000000002").getLodgingMailingAddress());
+    }
+
+    // Writers add and lose reservations (double bookings release their claimed number) while readers look
+    // them up, across enough entries to resize the tables many times
+    @Test
+    public void testConcurrentClaimsAndLookups() throws Exception {
+        Manager manager = new Manager(accountsDirectory, 1, false, true);
+        int threads = 4;
+        int perThread = 5000;
+        for (int t = 0; t < threads; t++) {
+            manager.addAccount(new Account(String.format("%08d", t), t + " Main St", t + "@example.com", "555-0100"));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads * 2);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String accountNumber = String.format("%08d", t);
+            int first = t * perThread;
+            results.add(pool.submit(() -> {
+                int rejected = 0;
+                for (int i = first; i < first + perThread; i++) {
+                    String number = String.format("%010d", i);
+                    // Every tenth reservation reuses the previous room and is refused
+                    String room = "Room " + (i % 10 == 9 ? i - 1 : i);
+                    try {
+                        manager.addReservation(accountNumber, new HotelReservation(accountNumber, number, room, "",
+                                START_DATE, 1, 1, 1, 1, 400, false));
+                    } catch (IllegalOperationException e) {
+                        rejected++;
+                    }
+                }
+                return rejected;
+            }));
+            results.add(pool.submit(() -> {
+                int found = 0;
+                for (int i = first; i < first + perThread; i++) {
+                    Reservation reservation = manager.getReservation(String.format("%010d", i));
+                    if (reservation != null) {
+                        Assertions.assertEquals(String.format("%010d", i), reservation.getReservationNumber());
+                        found++;
+                    }
+                }
+                return found;
+            }));
+        }
+        int rejected = 0;
+        for (int t = 0; t < results.size(); t += 2) {
+            rejected += results.get(t).get();
+            results.get(t + 1).get();
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(threads * perThread / 10, rejected);
+        Assertions.assertEquals(threads * perThread - rejected, manager.getReservationCount());
+        for (int i = 0; i < threads * perThread; i++) {
+            String number = String.format("%010d", i);
+            if (i % 10 == 9) {
+                Assertions.assertNull(manager.getReservation(number));
+            } else {
+                Assertions.assertSame(manager.getAccount(String.format("%08d", i / perThread)),
+                        manager.getReservationOwner(number));
+            }
+        }
+    }
+}
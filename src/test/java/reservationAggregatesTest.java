@@ -0,0 +1,107 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+public class reservationAggregatesTest {
+    @TempDir
+    Path accountsDirectory;
+
+    private static Date date(String isoDate) {
+        return Date.from(LocalDate.parse(isoDate).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    public void testGroupsByTypeStatusAndMonth() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        HotelReservation hotel = new HotelReservation("10000001", "2000000001", "1 Hotel Rd", "",
+                date("2100-01-31"), 2, 2, 1, 1, 400, false);
+        HotelReservation secondHotel = new HotelReservation("10000001", "2000000002", "2 Hotel Rd", "",
+                date("2100-01-01"), 4, 2, 1, 1, 800, true);
+        CabinReservation cabin = new CabinReservation("10000001", "2000000003", "1 Cabin Rd", "",
+                date("2100-02-01"), 3, 3, 2, 1, 1000, false);
+        HouseReservation house = new HouseReservation("10000001", "2000000004", "1 House Rd", "",
+                date("2100-02-14"), 5, 6, 3, 2, 2000, 2);
+        // Outside the range on both sides
+        HouseReservation before = new HouseReservation("10000001", "2000000005", "2 House Rd", "",
+                date("2099-12-31"), 5, 6, 3, 2, 2000, 2);
+        HouseReservation after = new HouseReservation("10000001", "2000000006", "3 House Rd", "",
+                date("2100-03-01"), 5, 6, 3, 2, 2000, 2);
+        for (Reservation reservation : List.of(hotel, secondHotel, cabin, house, before, after)) {
+            reservation.calculatePrice();
+            manager.addReservation("10000001", reservation);
+        }
+        manager.completeReservation("10000001", "2000000004");
+
+        ReservationAggregates aggregates = manager.aggregateReservations(LocalDate.parse("2100-01-01"),
+                LocalDate.parse("2100-03-01"));
+
+        YearMonth january = YearMonth.of(2100, 1);
+        YearMonth february = YearMonth.of(2100, 2);
+        ReservationAggregates.Group hotels = aggregates.get(HotelReservation.class, ReservationStatus.DRAFT, january);
+        Assertions.assertEquals(2, hotels.getCount());
+        Assertions.assertEquals(6, hotels.getNights());
+        Assertions.assertEquals(hotel.getPrice() * 2 + secondHotel.getPrice() * 4, hotels.getRevenue(), 1e-9);
+        Assertions.assertEquals(600.0, hotels.getAverageLodgingSize(), 1e-9);
+
+        ReservationAggregates.Group houses = aggregates.get(HouseReservation.class, ReservationStatus.COMPLETED, february);
+        Assertions.assertEquals(1, houses.getCount());
+        Assertions.assertEquals(house.getPrice() * 5, houses.getRevenue(), 1e-9);
+        Assertions.assertEquals(0, aggregates.get(HouseReservation.class, ReservationStatus.DRAFT, february).getCount());
+        Assertions.assertEquals(0, aggregates.get(HouseReservation.class, ReservationStatus.DRAFT, YearMonth.of(2099, 12)).getCount());
+
+        List<ReservationAggregates.Group> groups = aggregates.getGroups();
+        Assertions.assertEquals(3, groups.size());
+        Assertions.assertEquals(january, groups.get(0).getMonth());
+        Assertions.assertEquals(CabinReservation.class, groups.get(1).getType());
+        Assertions.assertEquals(4, aggregates.getTotal().getCount());
+        Assertions.assertEquals(14, aggregates.getTotal().getNights());
+    }
+
+    @Test
+    public void testParallelTotalsMatchAPlainScan() throws IOException {
+        DataGenerator generator = new DataGenerator(7);
+        generator.setAccounts(500);
+        generator.setReservationsPerAccount(8);
+        generator.setStatusMix(4, 3, 3);
+        generator.setDates(LocalDate.parse("2100-01-01"), 730);
+        int written = generator.write(accountsDirectory);
+        Manager manager = new Manager(accountsDirectory);
+
+        ReservationAggregates aggregates = manager.aggregateReservations(LocalDate.parse("2100-01-01"),
+                LocalDate.parse("2102-01-01"));
+
+        long count = 0;
+        long nights = 0;
+        double revenue = 0.0;
+        for (Account account : manager.getAccounts()) {
+            for (Reservation reservation : account.getReservations()) {
+                count++;
+                nights += reservation.getNumberOfNights();
+                revenue += reservation.getPrice() * reservation.getNumberOfNights();
+            }
+        }
+        ReservationAggregates.Group total = aggregates.getTotal();
+        Assertions.assertEquals(written, count);
+        Assertions.assertEquals(count, total.getCount());
+        Assertions.assertEquals(nights, total.getNights());
+        Assertions.assertEquals(revenue, total.getRevenue(), revenue * 1e-12);
+        Assertions.assertEquals(count, aggregates.getGroups().stream().mapToLong(ReservationAggregates.Group::getCount).sum());
+    }
+
+    @Test
+    public void testEmptyRangeIsRefused() {
+        Manager manager = new Manager(accountsDirectory);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> manager.aggregateReservations(LocalDate.parse("2100-01-01"), LocalDate.parse("2100-01-01")));
+    }
+}
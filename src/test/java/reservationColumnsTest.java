@@ -0,0 +1,175 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+public class reservationColumnsTest {
+    @TempDir
+    Path accountsDirectory;
+
+    private static List<Reservation> randomReservations(int count, String[] numbers, long seed) {
+        Random random = new Random(seed);
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String number = numbers[i];
+            Date startDate = new Date(4102444800000L + random.nextInt(1000) * 86_400_000L);
+            int nights = 1 + random.nextInt(14);
+            int bathrooms = 1 + random.nextInt(4);
+            int size = random.nextInt(2000);
+            Reservation reservation = switch (random.nextInt(3)) {
+                case 0 -> new HotelReservation("00000001", number, number, "", startDate, nights, 2, 1,
+                        bathrooms, size, random.nextBoolean());
+                case 1 -> new CabinReservation("00000001", number, number, "PO Box 1", startDate, nights, 3, 2,
+                        bathrooms, size, random.nextBoolean());
+                default -> new HouseReservation("00000001", number, number, "", startDate, nights, 4, 3,
+                        bathrooms, size, 1 + random.nextInt(3));
+            };
+            reservation.calculatePrice();
+            reservation.setStatus(ReservationStatus.values()[random.nextInt(3)]);
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+    // Reservation numbers, which double as lodging addresses so that no two reservations share a lodging
+    private static String[] numbers(int count) {
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = String.format("%010d", i);
+        }
+        return numbers;
+    }
+
+    private static void assertSameRow(Reservation expected, ReservationColumns.Row row) {
+        Assertions.assertEquals(expected.getAccountNumber(), row.getAccountNumber());
+        Assertions.assertEquals(expected.getReservationNumber(), row.getReservationNumber());
+        Assertions.assertEquals(expected.getLodgingPhysicalAddress(), row.getLodgingPhysicalAddress());
+        Assertions.assertEquals(expected.getLodgingMailingAddress(), row.getLodgingMailingAddress());
+        Assertions.assertEquals(expected.getStartDate(), row.getStartDate());
+        Assertions.assertEquals(expected.getNumberOfNights(), row.getNumberOfNights());
+        Assertions.assertEquals(expected.getNumberOfBeds(), row.getNumberOfBeds());
+        Assertions.assertEquals(expected.getNumberOfBedrooms(), row.getNumberOfBedrooms());
+        Assertions.assertEquals(expected.getNumberOfBathrooms(), row.getNumberOfBathrooms());
+        Assertions.assertEquals(expected.getLodgingSize(), row.getLodgingSize());
+        Assertions.assertEquals(expected.getPrice(), row.getPrice(), 0.0);
+        Assertions.assertEquals(expected.getStatus(), row.getStatus());
+        Assertions.assertEquals(PricingEngine.typeOf(expected), row.getType());
+        Assertions.assertEquals(expected instanceof HotelReservation hotel && hotel.hasKitchenette(), row.hasKitchenette());
+        Assertions.assertEquals(expected instanceof CabinReservation cabin && cabin.isFullKitchen(), row.isFullKitchen());
+        Assertions.assertEquals(expected instanceof HouseReservation house ? house.getNumberOfFloors() : 0,
+                row.getNumberOfFloors());
+    }
+
+    @Test
+    public void testRowsReadBackEveryField() {
+        List<Reservation> reservations = randomReservations(1000, numbers(1000), 1);
+        // Start small so the columns have to grow
+        ReservationColumns columns = new ReservationColumns(1);
+        for (Reservation reservation : reservations) {
+            columns.add(reservation);
+        }
+
+        Assertions.assertEquals(reservations.size(), columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            assertSameRow(reservations.get(row), columns.get(row));
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> columns.get(columns.size()));
+    }
+
+    @Test
+    public void testToReservationRoundTrips() {
+        List<Reservation> reservations = randomReservations(300, numbers(300), 2);
+        ReservationColumns columns = ReservationColumns.of(reservations);
+
+        for (int row = 0; row < columns.size(); row++) {
+            Reservation copy = columns.toReservation(row);
+            Assertions.assertEquals(reservations.get(row).getClass(), copy.getClass());
+            Assertions.assertEquals(reservations.get(row).toString(), copy.toString());
+        }
+    }
+
+    @Test
+    public void testRowSettersWriteThrough() {
+        ReservationColumns columns = ReservationColumns.of(randomReservations(10, numbers(10), 3));
+        ReservationColumns.Row row = columns.get(4);
+
+        row.setStatus(ReservationStatus.CANCELLED);
+        row.setPrice(99.5);
+
+        Assertions.assertEquals(ReservationStatus.CANCELLED, columns.get(4).getStatus());
+        Assertions.assertEquals(99.5, columns.toReservation(4).getPrice(), 0.0);
+    }
+
+    @Test
+    public void testRepriceAndRevenueMatchObjects() {
+        List<Reservation> reservations = randomReservations(20_000, numbers(20_000), 4);
+        ReservationColumns columns = ReservationColumns.of(reservations);
+        for (int row = 0; row < columns.size(); row++) {
+            columns.get(row).setPrice(0.0);
+        }
+
+        columns.reprice(PricingEngine.getDefault());
+
+        for (ReservationStatus status : ReservationStatus.values()) {
+            double expected = 0.0;
+            for (Reservation reservation : reservations) {
+                if (reservation.getStatus() == status) {
+                    expected += reservation.getPrice() * reservation.getNumberOfNights();
+                }
+            }
+            Assertions.assertEquals(expected, columns.totalRevenue(status), 0.0);
+        }
+    }
+
+    @Test
+    public void testManagerExportsEveryReservation() {
+        Manager manager = new Manager(accountsDirectory);
+        Account account = new Account("00000042", "1 Main St", "owner@example.com", "555-0100");
+        manager.addAccount(account);
+        for (Reservation reservation : randomReservations(25, numbers(25), 5)) {
+            manager.addReservation("00000042", new HotelReservation("00000042", reservation.getReservationNumber(),
+                    reservation.getLodgingPhysicalAddress(), "", reservation.getStartDate(),
+                    reservation.getNumberOfNights(), 1, 1, 1, reservation.getLodgingSize(), false));
+        }
+
+        ReservationColumns columns = manager.getReservationColumns();
+
+        Assertions.assertEquals(25, columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            Reservation reservation = manager.getReservation(columns.get(row).getReservationNumber());
+            assertSameRow(reservation, columns.get(row));
+        }
+    }
+
+    // Columns that grew past their rows are repriced in place with the engine given, row for row
+    @Test
+    public void testRepriceWritesTheGivenEngineIntoGrownColumns() {
+        PricingEngine engine = PricingEngine.fromTable("""
+                HOTEL base=150 sizeThreshold=800 sizeFee=20 flatFee=50 amenityFee=10
+                CABIN base=100 amenityFee=30 bathroomFee=7.5
+                HOUSE base=200 floorFee=40
+                """);
+        List<Reservation> reservations = randomReservations(1000, numbers(1000), 6);
+        ReservationColumns columns = new ReservationColumns(1);
+        for (Reservation reservation : reservations) {
+            columns.add(reservation);
+        }
+
+        columns.reprice(engine);
+
+        Assertions.assertEquals(reservations.size(), columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            Reservation reservation = reservations.get(row);
+            Assertions.assertEquals(engine.price(reservation), columns.get(row).getPrice(), 0.0);
+            Assertions.assertEquals(engine.price(reservation), columns.toReservation(row).getPrice(), 0.0);
+        }
+        int added = columns.add(reservations.get(0));
+        Assertions.assertEquals(reservations.get(0).getPrice(), columns.get(added).getPrice(), 0.0);
+    }
+}
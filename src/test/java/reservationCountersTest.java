@@ -0,0 +1,134 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class reservationCountersTest {
+    private static final Date FUTURE_DATE = new Date(4102444800000L);
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static CabinReservation cabin(String accountNumber, String reservationNumber, int nights) {
+        CabinReservation cabin = new CabinReservation(accountNumber, reservationNumber, "Cabin " + reservationNumber, "",
+                FUTURE_DATE, nights, 3, 2, 1, 1000, true);
+        cabin.calculatePrice();
+        return cabin;
+    }
+
+    @Test
+    public void testCountersFollowEveryMutation() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        CabinReservation first = cabin("10000001", "2000000001", 2);
+        CabinReservation second = cabin("10000001", "2000000002", 3);
+        CabinReservation third = cabin("10000001", "2000000003", 4);
+        manager.addReservation("10000001", first);
+        manager.addReservation("10000001", second);
+        manager.addReservation("10000001", third);
+        double nightly = first.getPrice();
+        Assertions.assertEquals(3, manager.getReservationCount(ReservationStatus.DRAFT));
+        Assertions.assertEquals(nightly * 9, manager.getBookedRevenue(), 1e-9);
+
+        manager.completeReservation("10000001", "2000000001");
+        manager.cancelReservation("10000001", "2000000002");
+        Assertions.assertEquals(1, manager.getReservationCount(ReservationStatus.DRAFT));
+        Assertions.assertEquals(1, manager.getReservationCount(ReservationStatus.COMPLETED));
+        Assertions.assertEquals(1, manager.getReservationCount(ReservationStatus.CANCELLED));
+        Assertions.assertEquals(nightly * 3, manager.getRevenue(ReservationStatus.CANCELLED), 1e-9);
+        Assertions.assertEquals(nightly * 6, manager.getBookedRevenue(), 1e-9);
+
+        // Ten nights instead of four
+        manager.updateReservation("10000001", cabin("10000001", "2000000003", 10));
+        Assertions.assertEquals(nightly * 10, manager.getRevenue(ReservationStatus.DRAFT), 1e-9);
+
+        // A new rule table reprices the draft the next time its price is asked for
+        PricingEngine rules = PricingEngine.getDefault();
+        try {
+            PricingEngine.setDefault(PricingEngine.fromTable("HOTEL base=120\nCABIN base=200\nHOUSE base=120"));
+            manager.calculateTotalPrice("2000000003");
+            Assertions.assertEquals(2000.0, manager.getRevenue(ReservationStatus.DRAFT), 1e-9);
+        } finally {
+            PricingEngine.setDefault(rules);
+        }
+        Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+    }
+
+    @Test
+    public void testCountersAreLoadedAtStartup() throws IOException {
+        DataGenerator generator = new DataGenerator(3);
+        generator.setAccounts(200);
+        generator.setDates(LocalDate.parse("2100-01-01"), 365);
+        int written = generator.write(accountsDirectory);
+
+        Manager manager = new Manager(accountsDirectory);
+        long total = 0;
+        for (ReservationStatus status : ReservationStatus.values()) {
+            total += manager.getReservationCount(status);
+        }
+        Assertions.assertEquals(written, total);
+        Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+
+        manager.writeSnapshot();
+        Assertions.assertEquals(List.of(), new Manager(accountsDirectory).checkReservationCounters());
+    }
+
+    @Test
+    public void testCheckerFindsChangesMadeBehindTheManager() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        manager.addReservation("10000001", cabin("10000001", "2000000001", 2));
+
+        manager.getReservation("2000000001").setStatus(ReservationStatus.COMPLETED);
+
+        Assertions.assertEquals(4, manager.checkReservationCounters().size());
+    }
+
+    @Test
+    public void testConcurrentMutationsKeepCountersExact() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        int threads = 8;
+        int perThread = 200;
+        for (int t = 0; t < threads; t++) {
+            manager.addAccount(new Account(String.format("%08d", t), t + " Main St", t + "@example.com", "555-0100"));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String accountNumber = String.format("%08d", t);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String reservationNumber = accountNumber + String.format("%02d", i % 100) + (i / 100);
+                        manager.addReservation(accountNumber, cabin(accountNumber, reservationNumber, 1 + i % 5));
+                        if (i % 3 == 1) {
+                            manager.completeReservation(accountNumber, reservationNumber);
+                        } else if (i % 3 == 2) {
+                            manager.cancelReservation(accountNumber, reservationNumber);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(threads * 67, manager.getReservationCount(ReservationStatus.DRAFT));
+        Assertions.assertEquals(threads * 67, manager.getReservationCount(ReservationStatus.COMPLETED));
+        Assertions.assertEquals(threads * 66, manager.getReservationCount(ReservationStatus.CANCELLED));
+        Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+    }
+}
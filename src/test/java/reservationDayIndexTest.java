@@ -0,0 +1,109 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class reservationDayIndexTest {
+    @TempDir
+    Path accountsDirectory;
+
+    private static Date date(String isoDate) {
+        return Date.from(LocalDate.parse(isoDate).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static List<String> numbers(List<Reservation> reservations) {
+        return reservations.stream().map(Reservation::getReservationNumber).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEpochDaysAndIsoDates() {
+        HouseReservation house = new HouseReservation("10000001", "2000000001", "1 House Rd", "",
+                date("2100-02-14"), 5, 6, 3, 2, 2000, 2);
+        Assertions.assertEquals(LocalDate.parse("2100-02-14").toEpochDay(), house.getStartDay());
+        Assertions.assertEquals(LocalDate.parse("2100-02-19").toEpochDay(), house.getEndDay());
+
+        String startDate = DataFileParser.formatDate(house.getStartDate());
+        Assertions.assertTrue(startDate.startsWith("2100-02-14T00:00:00"), startDate);
+        Assertions.assertTrue(house.toString().contains("Start Date: " + startDate));
+        Assertions.assertEquals(house.getStartDate(), DataFileParser.parseReservation(house.toString()).getStartDate());
+        Assertions.assertEquals(1694293200000L, DataFileParser.parseDate("2023-09-10T00:00:00+03:00").getTime());
+        Assertions.assertEquals(1694293200000L, DataFileParser.parseDate("2023-09-09T21:00:00Z").getTime());
+    }
+
+    @Test
+    public void testRangeQueriesMatchAFullScan() throws IOException {
+        DataGenerator generator = new DataGenerator(11);
+        generator.setAccounts(300);
+        generator.setDates(LocalDate.parse("2100-01-01"), 365);
+        generator.write(accountsDirectory);
+        Manager manager = new Manager(accountsDirectory);
+        List<Reservation> all = manager.getAccounts().stream().flatMap(account -> account.getReservations().stream())
+                .collect(Collectors.toList());
+
+        LocalDate from = LocalDate.parse("2100-03-01");
+        LocalDate to = LocalDate.parse("2100-03-31");
+        List<Reservation> starting = manager.getReservationsStartingBetween(from, to);
+        Assertions.assertFalse(starting.isEmpty());
+        Assertions.assertEquals(numbers(all.stream().filter(reservation -> reservation.getStartDay() >= from.toEpochDay()
+                && reservation.getStartDay() <= to.toEpochDay()).collect(Collectors.toList())), numbers(starting));
+        List<Reservation> sorted = starting.stream().sorted(Comparator.comparingInt(Reservation::getStartDay))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(sorted, starting);
+
+        LocalDate day = LocalDate.parse("2100-06-15");
+        Assertions.assertEquals(numbers(all.stream().filter(reservation -> reservation.getEndDay() == day.toEpochDay())
+                .collect(Collectors.toList())), numbers(manager.getReservationsEndingBetween(day, day)));
+        Assertions.assertEquals(List.of(), manager.getReservationsStartingBetween(to, from));
+    }
+
+    @Test
+    public void testIndexFollowsMutations() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        LocalDate day = LocalDate.parse("2100-05-01");
+        Assertions.assertEquals(List.of(), manager.getReservationsStartingBetween(day, day));
+
+        manager.addReservation("10000001", new CabinReservation("10000001", "2000000001", "1 Cabin Rd", "",
+                date("2100-05-01"), 3, 3, 2, 1, 1000, false));
+        Assertions.assertEquals(List.of("2000000001"), numbers(manager.getReservationsStartingBetween(day, day)));
+        Assertions.assertEquals(List.of("2000000001"),
+                numbers(manager.getReservationsEndingBetween(day.plusDays(3), day.plusDays(3))));
+
+        // Two more nights move the departure, not the arrival
+        manager.updateReservation("10000001", new CabinReservation("10000001", "2000000001", "1 Cabin Rd", "",
+                date("2100-05-01"), 5, 3, 2, 1, 1000, false));
+        Assertions.assertEquals(List.of(), manager.getReservationsEndingBetween(day.plusDays(3), day.plusDays(3)));
+        Assertions.assertEquals(List.of("2000000001"),
+                numbers(manager.getReservationsEndingBetween(day.plusDays(5), day.plusDays(5))));
+        Assertions.assertSame(manager.getReservation("2000000001"), manager.getReservationsStartingBetween(day, day).get(0));
+    }
+
+    @Test
+    public void testRejectedReservationsAreNotIndexed() {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        manager.addReservation("10000001", new CabinReservation("10000001", "2000000001", "1 Cabin Rd", "",
+                date("2100-05-01"), 3, 3, 2, 1, 1000, false));
+        LocalDate day = LocalDate.parse("2100-05-02");
+        Assertions.assertThrows(IllegalOperationException.class, () -> manager.addReservation("10000001",
+                new CabinReservation("10000001", "2000000002", "1 Cabin Rd", "", date("2100-05-02"), 3, 3, 2, 1,
+                        1000, false)));
+        Account second = new Account("10000002", "2 Main St", "b@example.com", "555-0102");
+        second.addReservation(new CabinReservation("10000002", "2000000003", "1 Cabin Rd", "", date("2100-05-02"),
+                1, 3, 2, 1, 1000, false));
+        Assertions.assertThrows(IllegalOperationException.class, () -> manager.addAccount(second));
+
+        Assertions.assertEquals(List.of(), manager.getReservationsStartingBetween(day, day));
+        Assertions.assertEquals(List.of("2000000001"),
+                numbers(manager.getReservationsStartingBetween(day.minusDays(1), day.plusDays(30))));
+    }
+}
@@ -0,0 +1,121 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+public class reservationTimersTest {
+    private static final long DAY = 86_400_000L;
+    private static final long HOUR = 3_600_000;
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static CabinReservation cabin(String reservationNumber, long startMillis, int nights) {
+        CabinReservation cabin = new CabinReservation("10000001", reservationNumber, reservationNumber + " Lake Rd", "",
+                new Date(startMillis), nights, 3, 2, 1, 1000, true);
+        cabin.calculatePrice();
+        return cabin;
+    }
+
+    private static void await(String what, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testLoadedReservationsAreRecoveredAtStartup() throws Exception {
+        long now = System.currentTimeMillis();
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-10000001"));
+        Files.writeString(folder.resolve("acc-10000001.txt"),
+                new Account("10000001", "1 Main St", "a@example.com", "555-0101").toString());
+        CabinReservation staleDraft = cabin("2000000001", now - 2 * DAY, 3);
+        CabinReservation finishedStay = cabin("2000000002", now - 5 * DAY, 2);
+        finishedStay.setStatus(ReservationStatus.COMPLETED);
+        CabinReservation currentStay = cabin("2000000003", now - DAY, 4);
+        currentStay.setStatus(ReservationStatus.COMPLETED);
+        CabinReservation futureDraft = cabin("2000000004", now + 30 * DAY, 2);
+        for (Reservation reservation : List.of(staleDraft, finishedStay, currentStay, futureDraft)) {
+            Files.writeString(folder.resolve("res-" + reservation.getReservationNumber() + ".txt"), reservation.toString());
+        }
+
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(1, 64, HOUR);
+        manager.startTimers(10);
+        try {
+            await("the transitions", () -> manager.getTimedTransitionCount() == 2 && manager.getJournalRecordCount() == 2);
+            Assertions.assertEquals(ReservationStatus.EXPIRED, manager.getReservation("2000000001").getStatus());
+            Assertions.assertEquals(ReservationStatus.FINISHED, manager.getReservation("2000000002").getStatus());
+            Assertions.assertEquals(ReservationStatus.COMPLETED, manager.getReservation("2000000003").getStatus());
+            Assertions.assertEquals(ReservationStatus.DRAFT, manager.getReservation("2000000004").getStatus());
+            Assertions.assertEquals(1, manager.getReservationCount(ReservationStatus.EXPIRED));
+            Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+            // Both transitions of the first tick went to the journal in one write
+            Assertions.assertEquals(2, manager.getJournalRecordCount());
+            Assertions.assertEquals(1, manager.getJournalSyncCount());
+        } finally {
+            manager.close();
+        }
+
+        Manager reloaded = new Manager(accountsDirectory);
+        Assertions.assertEquals(ReservationStatus.EXPIRED, reloaded.getReservation("2000000001").getStatus());
+        Assertions.assertEquals(ReservationStatus.FINISHED, reloaded.getReservation("2000000002").getStatus());
+    }
+
+    @Test
+    public void testDraftsExpireWhenTheyStart() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        manager.startTimers(5);
+        try {
+            long now = System.currentTimeMillis();
+            manager.addReservation("10000001", cabin("2000000001", now + 150, 1));
+            manager.addReservation("10000001", cabin("2000000002", now + 150, 1));
+            manager.addReservation("10000001", cabin("2000000003", now + DAY, 1));
+            manager.completeReservation("10000001", "2000000002");
+
+            await("the expired draft", () -> manager.getReservation("2000000001").getStatus() == ReservationStatus.EXPIRED);
+            Assertions.assertTrue(System.currentTimeMillis() >= now + 150);
+            // Completed before its start: waits on the wheel again, for its last night
+            Thread.sleep(50);
+            Assertions.assertEquals(ReservationStatus.COMPLETED, manager.getReservation("2000000002").getStatus());
+            Assertions.assertEquals(ReservationStatus.DRAFT, manager.getReservation("2000000003").getStatus());
+            Assertions.assertEquals(1, manager.getTimedTransitionCount());
+
+            // The expired draft no longer holds its lodging
+            manager.addReservation("10000001", new CabinReservation("10000001", "2000000009", "2000000001 Lake Rd", "",
+                    new Date(now + 150), 1, 3, 2, 1, 1000, true));
+        } finally {
+            manager.close();
+        }
+        Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+    }
+
+    @Test
+    public void testReplacedReservationsAreTimedByTheirNewDates() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        long now = System.currentTimeMillis();
+        manager.addReservation("10000001", cabin("2000000001", now + 100, 1));
+        manager.startTimers(5);
+        try {
+            // Moved a day later before the old start came
+            manager.updateReservation("10000001", cabin("2000000001", now + DAY, 1));
+            Thread.sleep(250);
+            Assertions.assertEquals(ReservationStatus.DRAFT, manager.getReservation("2000000001").getStatus());
+            Assertions.assertEquals(0, manager.getTimedTransitionCount());
+        } finally {
+            manager.close();
+        }
+    }
+}
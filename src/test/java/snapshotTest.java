@@ -0,0 +1,119 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+
+public class snapshotTest {
+    private static final Date START_DATE = new Date(1694293200000L);
+
+    @TempDir
+    Path accountsDirectory;
+
+    private void writeFile(String accountNumber, String fileName, Object content) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-" + accountNumber));
+        Files.writeString(folder.resolve(fileName), content.toString());
+    }
+
+    private void writeTextTree() throws IOException {
+        writeFile("00000001", "acc-00000001.txt", new Account("00000001", "1 Main St", "a@example.com", "555-0100"));
+        writeFile("00000001", "res-0000000001.txt", new HotelReservation("00000001", "0000000001", "9 Elm St", "",
+                START_DATE, 2, 1, 1, 1, 950, true));
+        HouseReservation house = new HouseReservation("00000001", "0000000002", "4 Pine St", "PO Box 4",
+                START_DATE, 7, 4, 3, 2, 1800, 2);
+        house.setStatus(ReservationStatus.COMPLETED);
+        writeFile("00000001", "res-0000000002.txt", house);
+        writeFile("00000002", "acc-00000002.txt", new Account("00000002", "2 Main St", "b@example.com", "555-0101"));
+        CabinReservation cabin = new CabinReservation("00000002", "0000000003", "3 Oak St", "Ünïcode Rd",
+                START_DATE, 3, 2, 1, 2, 800, false);
+        cabin.setStatus(ReservationStatus.CANCELLED);
+        writeFile("00000002", "res-0000000003.txt", cabin);
+        writeFile("00000003", "acc-00000003.txt", new Account("00000003", "3 Main St", "c@example.com", "555-0102"));
+    }
+
+    // Back-date every text file so only files touched later count as newer than the snapshot
+    private void ageTextFiles() throws IOException {
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        try (var files = Files.walk(accountsDirectory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                if (path.toString().endsWith(".txt")) {
+                    Files.setLastModifiedTime(path, old);
+                }
+            }
+        }
+    }
+
+    private static void assertSameState(Manager expected, Manager actual) {
+        Assertions.assertEquals(expected.getAccounts().size(), actual.getAccounts().size());
+        Assertions.assertEquals(expected.getReservationCount(), actual.getReservationCount());
+        for (Account account : expected.getAccounts()) {
+            Account other = actual.getAccount(account.getAccountNumber());
+            Assertions.assertNotNull(other);
+            Assertions.assertEquals(account.toString(), other.toString());
+            Assertions.assertEquals(account.getReservations().toString(), other.getReservations().toString());
+            for (Reservation reservation : account.getReservations()) {
+                Assertions.assertEquals(reservation.getClass(),
+                        actual.getReservation(reservation.getReservationNumber()).getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTripThroughSnapshot() throws IOException {
+        writeTextTree();
+        Manager fromText = new Manager(accountsDirectory);
+        fromText.writeSnapshot();
+        Assertions.assertTrue(Files.exists(accountsDirectory.resolve("accounts.snapshot")));
+        ageTextFiles();
+
+        Manager fromSnapshot = new Manager(accountsDirectory);
+        assertSameState(fromText, fromSnapshot);
+
+        // Writing the snapshot again from the snapshot-loaded state gives the same state back
+        fromSnapshot.writeSnapshot();
+        assertSameState(fromText, new Manager(accountsDirectory));
+    }
+
+    @Test
+    public void testNewerTextFilesAreAppliedOnTopOfSnapshot() throws IOException {
+        writeTextTree();
+        new Manager(accountsDirectory).writeSnapshot();
+        ageTextFiles();
+
+        // Edit one reservation, change one account and add a new account folder after the snapshot
+        HotelReservation edited = new HotelReservation("00000001", "0000000001", "10 Elm St", "",
+                START_DATE, 5, 1, 1, 1, 950, false);
+        writeFile("00000001", "res-0000000001.txt", edited);
+        writeFile("00000002", "acc-00000002.txt", new Account("00000002", "20 Main St", "b2@example.com", "555-0199"));
+        writeFile("00000004", "acc-00000004.txt", new Account("00000004", "4 Main St", "d@example.com", "555-0103"));
+        writeFile("00000004", "res-0000000004.txt", new CabinReservation("00000004", "0000000004", "5 Lake Rd", "",
+                START_DATE, 1, 1, 1, 1, 400, true));
+
+        Manager manager = new Manager(accountsDirectory);
+        Assertions.assertEquals(edited.toString(), manager.getReservation("0000000001").toString());
+        Assertions.assertEquals("20 Main St", manager.getAccount("00000002").getMailingAddress());
+        Assertions.assertEquals(2, manager.getAccount("00000001").getReservations().size());
+        Assertions.assertNotNull(manager.getReservation("0000000004"));
+        Assertions.assertEquals(4, manager.getReservationCount());
+        Assertions.assertSame(manager.getAccount("00000004"), manager.getReservationOwner("0000000004"));
+    }
+
+    @Test
+    public void testCorruptSnapshotFallsBackToTextFiles() throws IOException {
+        writeTextTree();
+        Manager fromText = new Manager(accountsDirectory);
+        fromText.writeSnapshot();
+
+        Path snapshotPath = accountsDirectory.resolve("accounts.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(snapshotPath, bytes);
+
+        assertSameState(fromText, new Manager(accountsDirectory));
+    }
+}
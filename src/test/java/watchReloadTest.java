@@ -0,0 +1,114 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+public class watchReloadTest {
+    private static final Date START_DATE = new Date(4102444800000L);
+    private static final long HOUR = 3_600_000;
+
+    @TempDir
+    Path accountsDirectory;
+
+    private void writeFile(String accountNumber, String fileName, Object content) throws IOException {
+        Path folder = Files.createDirectories(accountsDirectory.resolve("Acc-" + accountNumber));
+        Files.writeString(folder.resolve(fileName), content.toString());
+    }
+
+    private static HouseReservation house(String accountNumber, String reservationNumber, int nights) {
+        return new HouseReservation(accountNumber, reservationNumber, reservationNumber + " Lake Rd", "",
+                START_DATE, nights, 3, 2, 1, 1500, 2);
+    }
+
+    private static void await(String what, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testCreatedChangedAndDeletedFilesAreApplied() throws Exception {
+        writeFile("10000001", "acc-10000001.txt", new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        writeFile("10000001", "res-2000000001.txt", house("10000001", "2000000001", 2));
+        writeFile("10000001", "res-2000000002.txt", house("10000001", "2000000002", 2));
+        Manager manager = new Manager(accountsDirectory);
+        manager.startWatching(20);
+        try {
+            writeFile("10000001", "res-2000000001.txt", house("10000001", "2000000001", 9));
+            writeFile("10000001", "res-2000000003.txt", house("10000001", "2000000003", 4));
+            Files.delete(accountsDirectory.resolve("Acc-10000001").resolve("res-2000000002.txt"));
+            writeFile("10000001", "acc-10000001.txt", new Account("10000001", "9 New St", "a@example.com", "555-0101"));
+
+            await("the changed reservation", () -> manager.getReservation("2000000001").getNumberOfNights() == 9);
+            await("the new reservation", () -> manager.getReservation("2000000003") != null);
+            await("the deleted reservation", () -> manager.getReservation("2000000002") == null);
+            await("the changed account", () -> manager.getAccount("10000001").getMailingAddress().equals("9 New St"));
+            Account account = manager.getAccount("10000001");
+            Assertions.assertEquals(2, account.getReservations().size());
+            Assertions.assertSame(account, manager.getReservationOwner("2000000003"));
+            Assertions.assertEquals(9, account.getReservations().get(0).getNumberOfNights());
+            Assertions.assertEquals(2, manager.getReservationCount());
+            Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testNewAndDeletedAccountFolders() throws Exception {
+        Files.createDirectories(accountsDirectory);
+        Manager manager = new Manager(accountsDirectory);
+        manager.startWatching(20);
+        try {
+            writeFile("10000002", "acc-10000002.txt", new Account("10000002", "2 Main St", "b@example.com", "555-0102"));
+            writeFile("10000002", "res-2000000005.txt", house("10000002", "2000000005", 3));
+            await("the new account", () -> manager.getReservation("2000000005") != null);
+            Assertions.assertSame(manager.getAccount("10000002"), manager.getReservationOwner("2000000005"));
+            Assertions.assertEquals(1, manager.getAccounts().size());
+
+            Path folder = accountsDirectory.resolve("Acc-10000002");
+            Files.delete(folder.resolve("res-2000000005.txt"));
+            Files.delete(folder.resolve("acc-10000002.txt"));
+            Files.delete(folder);
+            await("the deleted account", () -> manager.getAccount("10000002") == null);
+            Assertions.assertNull(manager.getReservation("2000000005"));
+            Assertions.assertEquals(0, manager.getAccounts().size());
+            Assertions.assertEquals(List.of(), manager.checkReservationCounters());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testTheManagersOwnWritesAreNotReloaded() throws Exception {
+        writeFile("10000001", "acc-10000001.txt", new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        Manager manager = new Manager(accountsDirectory);
+        manager.startJournal(1, 64, HOUR);
+        manager.startWatching(20);
+        try {
+            HouseReservation added = house("10000001", "2000000001", 2);
+            manager.addReservation("10000001", added);
+            manager.updateAccount("10000001", "5 Elm St", "a@example.com", "555-0101");
+            manager.checkpoint();
+
+            // One outside change, applied after the checkpoint's writes were seen
+            writeFile("10000001", "res-2000000009.txt", house("10000001", "2000000009", 1));
+            await("the outside change", () -> manager.getReloadedFileCount() > 0 && manager.getReservation("2000000009") != null);
+            Assertions.assertEquals(1, manager.getReloadedFileCount());
+            Assertions.assertSame(added, manager.getReservation("2000000001"));
+        } finally {
+            manager.close();
+        }
+    }
+}
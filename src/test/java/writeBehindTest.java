@@ -0,0 +1,120 @@
+import org.apache.maven.archetypes.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class writeBehindTest {
+    private static final Date START_DATE = new Date(4102444800000L);
+    private static final long HOUR = 3_600_000;
+
+    @TempDir
+    Path accountsDirectory;
+
+    private static HouseReservation house(String accountNumber, String reservationNumber, int nights) {
+        return new HouseReservation(accountNumber, reservationNumber, reservationNumber + " Lake Rd", "",
+                START_DATE, nights, 3, 2, 1, 1500, 2);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(accountsDirectory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    @Test
+    public void testRepeatedChangesToOneRecordAreWrittenOnce() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startWriteBehind(HOUR);
+        try {
+            manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+            for (int i = 0; i < 100; i++) {
+                manager.updateAccount("10000001", i + " Main St", "a@example.com", "555-0101");
+            }
+            manager.addReservation("10000001", house("10000001", "2000000001", 2));
+            manager.updateReservation("10000001", house("10000001", "2000000001", 5));
+
+            Path accountFile = accountsDirectory.resolve("Acc-10000001").resolve("acc-10000001.txt");
+            Assertions.assertFalse(Files.exists(accountFile));
+            Assertions.assertEquals(2, manager.getPendingWriteCount());
+            Thread.sleep(20);
+            Assertions.assertTrue(manager.getWriteLagMillis() >= 20);
+
+            manager.checkpoint();
+            Assertions.assertEquals(2, manager.getWrittenRecordCount());
+            Assertions.assertEquals(0, manager.getPendingWriteCount());
+            Assertions.assertEquals(0, manager.getWriteLagMillis());
+            Assertions.assertTrue(Files.readString(accountFile).contains("99 Main St"));
+            Assertions.assertFalse(Files.exists(accountFile.resolveSibling("acc-10000001.txt.tmp")));
+            Assertions.assertFalse(Files.exists(accountsDirectory.resolve("journal")));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testCloseWritesPendingChanges() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startWriteBehind(HOUR);
+        manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        manager.addReservation("10000001", house("10000001", "2000000001", 4));
+        manager.close();
+        Assertions.assertEquals(0, manager.getPendingWriteCount());
+
+        Manager reloaded = new Manager(accountsDirectory);
+        Assertions.assertEquals("1 Main St", reloaded.getAccount("10000001").getMailingAddress());
+        Assertions.assertEquals(4, reloaded.getReservation("2000000001").getNumberOfNights());
+    }
+
+    @Test
+    public void testBackgroundFlusherWritesChanges() throws Exception {
+        Manager manager = new Manager(accountsDirectory);
+        manager.startWriteBehind(10);
+        try {
+            manager.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+            Path accountFile = accountsDirectory.resolve("Acc-10000001").resolve("acc-10000001.txt");
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (!Files.exists(accountFile)) {
+                if (System.nanoTime() > deadline) {
+                    Assertions.fail("Timed out waiting for the account file");
+                }
+                Thread.sleep(5);
+            }
+            Assertions.assertThrows(IllegalStateException.class, () -> manager.startJournal(1, 64, HOUR));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testFirstCheckpointDeletesReplayedJournal() throws Exception {
+        // A journaled run that dies without close() leaves its segments behind
+        Manager journaled = new Manager(accountsDirectory);
+        journaled.startJournal(1, 64, HOUR);
+        journaled.addAccount(new Account("10000001", "1 Main St", "a@example.com", "555-0101"));
+        journaled.addReservation("10000001", house("10000001", "2000000001", 4));
+        Assertions.assertFalse(segments().isEmpty());
+
+        Manager manager = new Manager(accountsDirectory);
+        manager.startWriteBehind(HOUR);
+        try {
+            Assertions.assertEquals(2, manager.getPendingWriteCount());
+            manager.checkpoint();
+            Assertions.assertTrue(segments().isEmpty());
+            manager.updateAccount("10000001", "2 Main St", "a@example.com", "555-0101");
+            manager.checkpoint();
+        } finally {
+            manager.close();
+        }
+
+        Manager reloaded = new Manager(accountsDirectory);
+        Assertions.assertEquals("2 Main St", reloaded.getAccount("10000001").getMailingAddress());
+        Assertions.assertEquals(4, reloaded.getReservation("2000000001").getNumberOfNights());
+    }
+}